@@ -43,6 +43,9 @@ public abstract class PgBenchmarkBase extends BenchmarkBase {
   @Param("1")
   int pipeliningLimit;
 
+  @Param("false")
+  boolean coalesceWrites;
+
   Vertx vertx;
   PgPool pool;
 
@@ -57,6 +60,7 @@ public abstract class PgBenchmarkBase extends BenchmarkBase {
       .setPassword(password)
       .setCachePreparedStatements(true)
       .setPipeliningLimit(pipeliningLimit)
+      .setCoalesceWrites(coalesceWrites)
       .setMaxSize(1));
   }
 
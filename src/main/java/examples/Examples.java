@@ -17,17 +17,24 @@
 
 package examples;
 
+import io.netty.buffer.ByteBuf;
 import io.reactiverse.pgclient.*;
 import io.reactiverse.pgclient.data.Json;
 import io.reactiverse.pgclient.data.Numeric;
+import io.reactiverse.pgclient.mapper.RowMapped;
+import io.reactiverse.pgclient.mapper.RowMapper;
 import io.reactiverse.pgclient.pubsub.PgSubscriber;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.PemTrustOptions;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.docgen.Source;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collector;
@@ -224,6 +231,79 @@ public class Examples {
     PgPool client2 = PgClient.pool(vertx, options);
   }
 
+  public void connecting07(Vertx vertx) {
+
+    // Pool options
+    PgPoolOptions options = new PgPoolOptions()
+      .setPort(5432)
+      .setHost("the-host")
+      .setDatabase("the-db")
+      .setUser("user")
+      .setPassword("secret")
+      .setMaxSize(16)
+      .setSharded(true);
+
+    // Create the pooled client, shared by the verticles deployed on several event loops
+    PgPool client = PgClient.pool(vertx, options);
+  }
+
+  public void connecting08(Vertx vertx) {
+
+    // Pool options
+    PgPoolOptions options = new PgPoolOptions()
+      .setPort(5432)
+      .setHost("the-host")
+      .setDatabase("the-db")
+      .setUser("user")
+      .setPassword("secret")
+      .setMaxSize(16)
+      .setMinIdle(4)
+      .setMaxIdleTime(60_000)
+      .setMaxLifetime(30 * 60_000)
+      .setValidationInterval(30_000);
+
+    // Create the pooled client, 4 connections are opened right away
+    PgPool client = PgClient.pool(vertx, options);
+  }
+
+  public void connecting09(Vertx vertx) {
+
+    PgPoolOptions primary = new PgPoolOptions()
+      .setHost("primary-host")
+      .setDatabase("the-db")
+      .setUser("user")
+      .setPassword("secret");
+
+    List<PgPoolOptions> replicas = Arrays.asList(
+      new PgPoolOptions(primary).setHost("replica-host-1"),
+      new PgPoolOptions(primary).setHost("replica-host-2"));
+
+    PgRoutingPool client = PgClient.routingPool(vertx, primary, replicas);
+
+    // Runs on the primary
+    client.query("UPDATE WORLD SET randomnumber = 42 WHERE id = 1", ar -> {
+    });
+
+    // Runs on a replica
+    client.readOnly().query("SELECT * FROM WORLD WHERE id = 1", ar -> {
+    });
+  }
+
+  public void connecting10(PgRoutingPool client) {
+
+    PgRoutingSession session = client.session();
+
+    // Runs on the primary
+    session.query("UPDATE WORLD SET randomnumber = 42 WHERE id = 1", ar1 -> {
+      if (ar1.succeeded()) {
+
+        // Runs on a replica that replayed the update, or on the primary
+        session.readOnly().query("SELECT * FROM WORLD WHERE id = 1", ar2 -> {
+        });
+      }
+    });
+  }
+
   public void queries01(PgClient client) {
     client.query("SELECT * FROM users WHERE id='julien'", ar -> {
       if (ar.succeeded()) {
@@ -312,9 +392,60 @@ public class Examples {
     // Enable prepare statements
     options.setCachePreparedStatements(true);
 
+    // Cache at most 64 statements per connection
+    options.setPreparedStatementCacheMaxSize(64);
+
     PgPool client = PgClient.pool(vertx, options);
   }
 
+  public void queries10(Vertx vertx, PgPoolOptions options) {
+
+    // Decode the columns when they are read
+    options.setLazyRowDecoding(true);
+
+    PgPool client = PgClient.pool(vertx, options);
+
+    client.query("SELECT id, message FROM fortune", ar -> {
+      if (ar.succeeded()) {
+        for (Row row : ar.result()) {
+          // Only the id column is decoded
+          System.out.println("Fortune " + row.getInteger("id"));
+        }
+      }
+    });
+  }
+
+  public void queries11(Vertx vertx, PgPoolOptions options) {
+
+    // Execute uncached prepared queries in a single round trip
+    options.setInferParameterTypes(true);
+
+    PgPool client = PgClient.pool(vertx, options);
+
+    client.preparedQuery("SELECT * FROM users WHERE id=$1 AND age > $2", Tuple.of("julien", 18), ar -> {
+      if (ar.succeeded()) {
+        PgRowSet rows = ar.result();
+        System.out.println("Got " + rows.size() + " rows ");
+      } else {
+        System.out.println("Failure: " + ar.cause().getMessage());
+      }
+    });
+  }
+
+  public void queries12(Vertx vertx, PgPoolOptions options) {
+
+    // Fail the queries that take more than 500ms and cancel them on the server
+    options.setQueryTimeout(500);
+
+    PgPool client = PgClient.pool(vertx, options);
+
+    client.query("SELECT pg_sleep(1)", ar -> {
+      if (ar.failed()) {
+        System.out.println("Failure: " + ar.cause().getMessage());
+      }
+    });
+  }
+
   public void usingConnections01(Vertx vertx, PgPool pool) {
 
     pool.getConnection(ar1 -> {
@@ -441,6 +572,40 @@ public class Examples {
     });
   }
 
+  public void usingConnections07(PgConnection connection, ReadStream<Tuple> users) {
+    connection.copyIn("users", Arrays.asList("id", "name"), users, ar -> {
+      if (ar.succeeded()) {
+        System.out.println("Copied " + ar.result() + " users");
+      } else {
+        System.out.println("Copy failed " + ar.cause());
+      }
+    });
+  }
+
+  public void usingConnections08(PgConnection connection, ReadStream<Buffer> csv) {
+    connection.copyIn("COPY users (id, name) FROM STDIN (FORMAT csv)", csv, ar -> {
+      if (ar.succeeded()) {
+        System.out.println("Copied " + ar.result() + " users");
+      } else {
+        System.out.println("Copy failed " + ar.cause());
+      }
+    });
+  }
+
+  public void usingConnections09(PgConnection connection) {
+    PgStream<Row> stream = connection.copyOutRows("SELECT * FROM users");
+
+    stream.exceptionHandler(err -> {
+      System.out.println("Error: " + err.getMessage());
+    });
+    stream.endHandler(v -> {
+      System.out.println("End of stream");
+    });
+    stream.handler(row -> {
+      System.out.println("User: " + row.getString("last_name"));
+    });
+  }
+
   public void transaction01(PgPool pool) {
     pool.getConnection(res -> {
       if (res.succeeded()) {
@@ -683,6 +848,22 @@ public class Examples {
     }
   }
 
+  public void primitiveExample(PgPool pool) {
+    // Add values without boxing them
+    Tuple params = Tuple.tuple().addIntValue(1).addLongValue(10L);
+    pool.preparedQuery("SELECT id, amount FROM orders WHERE id > $1 AND amount > $2", params, ar -> {
+      if (ar.succeeded()) {
+        for (Row row : ar.result()) {
+          int id = row.getIntValue("id");
+          long amount = row.getLongValue(1);
+          if (row.isNull("amount")) {
+            // Handle null
+          }
+        }
+      }
+    });
+  }
+
   public void arrayExample() {
     // Create a tuple with a single array
     Tuple tuple = Tuple.of(new String[]{ "a", "tuple", "with", "arrays" });
@@ -740,4 +921,92 @@ public class Examples {
         }
       });
   }
+
+  public void collector03Example(PgClient client) {
+
+    // Run the query with the columnar collector
+    client.preparedQuery("SELECT id, amount, city FROM orders",
+      PgColumnSet.collector(),
+      ar -> {
+        if (ar.succeeded()) {
+          PgColumnSet columns = ar.result().value();
+          int[] ids = columns.getIntColumn(0);
+          long[] amounts = columns.getLongColumn(1);
+          int[] cities = columns.getStringCodes(2);
+          String[] dictionary = columns.getStringDictionary(2);
+          long total = 0;
+          for (int i = 0;i < columns.size();i++) {
+            if (!columns.isNull(1, i)) {
+              total += amounts[i];
+            }
+          }
+          System.out.println("Total " + total);
+        } else {
+          System.out.println("Failure: " + ar.cause().getMessage());
+        }
+      });
+  }
+
+  public void rowMapperExample(PgClient client, RowMapper<World> mapper) {
+
+    // Run the query with the collector of the generated mapper
+    client.preparedQuery("SELECT id, random_number FROM world",
+      mapper.collector(),
+      ar -> {
+        if (ar.succeeded()) {
+          List<World> worlds = ar.result().value();
+          System.out.println("Got " + worlds.size() + " worlds");
+        } else {
+          System.out.println("Failure: " + ar.cause().getMessage());
+        }
+      });
+  }
+
+  @RowMapped
+  public static class World {
+    public int id;
+    public int randomNumber;
+  }
+
+  public void customCodecExample(Vertx vertx) {
+
+    // The ltree values are exchanged in binary format as a version byte followed by the label path
+    PgCodec<String> ltree = new PgCodec<String>() {
+      public String typeName() {
+        return "ltree";
+      }
+      public Class<String> type() {
+        return String.class;
+      }
+      public void encodeBinary(String value, ByteBuf buff) {
+        buff.writeByte(1);
+        buff.writeCharSequence(value, StandardCharsets.UTF_8);
+      }
+      public String decodeBinary(int len, ByteBuf buff) {
+        buff.skipBytes(1);
+        return buff.readCharSequence(len - 1, StandardCharsets.UTF_8).toString();
+      }
+      public String decodeText(int len, ByteBuf buff) {
+        return buff.readCharSequence(len, StandardCharsets.UTF_8).toString();
+      }
+    };
+
+    PgPoolOptions options = new PgPoolOptions()
+      .setPort(5432)
+      .setHost("the-host")
+      .setDatabase("the-db")
+      .setUser("user")
+      .setPassword("secret")
+      .addCodec(ltree);
+
+    PgPool client = PgClient.pool(vertx, options);
+
+    client.preparedQuery("SELECT path FROM tree WHERE path <@ $1", Tuple.of("Top.Science"), ar -> {
+      if (ar.succeeded()) {
+        for (Row row : ar.result()) {
+          System.out.println("Path " + row.getString(0));
+        }
+      }
+    });
+  }
 }
@@ -21,6 +21,7 @@ import io.reactiverse.pgclient.impl.Connection;
 import io.reactiverse.pgclient.impl.PgConnectionFactory;
 import io.reactiverse.pgclient.impl.PgConnectionImpl;
 import io.reactiverse.pgclient.impl.PgPoolImpl;
+import io.reactiverse.pgclient.impl.PgRoutingPoolImpl;
 import io.vertx.codegen.annotations.Fluent;
 import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.VertxGen;
@@ -90,6 +91,19 @@ public interface PgClient {
     return new PgPoolImpl(vertx, false, options);
   }
 
+  /**
+   * Create a pool routing its operations to the {@code primary} server and the operations of its
+   * {@link PgRoutingPool#readOnly()} pool to the {@code replicas} servers.
+   *
+   * @param vertx the vertx instance
+   * @param primary the options of the primary server pool
+   * @param replicas the options of the replica server pools
+   * @return the routing pool
+   */
+  static PgRoutingPool routingPool(Vertx vertx, PgPoolOptions primary, List<PgPoolOptions> replicas) {
+    return new PgRoutingPoolImpl(vertx, primary, replicas);
+  }
+
   /**
    * Connects to the database and returns the connection if that succeeds.
    * <p/>
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Encodes and decodes the values of a Postgres type that is not built in the client, e.g {@code hstore},
+ * {@code ltree} or a type of an extension, registered with {@link PgConnectOptions#addCodec(PgCodec)}.
+ * <p>
+ * The OID of the type is resolved from its name when the client introspects the types of the database, the arrays
+ * of the type are decoded as an array of the {@link #type() Java type}.
+ * <p>
+ * The values of the type are exchanged in binary format by prepared queries and in text format by simple queries.
+ * A codec is shared by the connections and shall be stateless.
+ *
+ * @param <T> the Java type of the values
+ */
+public interface PgCodec<T> {
+
+  /**
+   * @return the name of the Postgres type, as in the {@code typname} column of {@code pg_type}
+   */
+  String typeName();
+
+  /**
+   * @return the Java type of the values, a parameter that is not an instance of this type is refused
+   */
+  Class<T> type();
+
+  /**
+   * Encode a value in binary format.
+   *
+   * @param value the value, not {@code null}
+   * @param buff the buffer to write the value to
+   */
+  void encodeBinary(T value, ByteBuf buff);
+
+  /**
+   * Decode a value in binary format.
+   *
+   * @param len the length of the value
+   * @param buff the buffer to read the value from, starting at its reader index
+   * @return the value
+   */
+  T decodeBinary(int len, ByteBuf buff);
+
+  /**
+   * Decode a value in text format.
+   *
+   * @param len the length of the value
+   * @param buff the buffer to read the value from, starting at its reader index
+   * @return the value
+   */
+  T decodeText(int len, ByteBuf buff);
+
+}
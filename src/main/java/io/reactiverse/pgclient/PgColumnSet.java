@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.reactiverse.pgclient.impl.PgColumnSetImpl;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * A result stored by column instead of by row, obtained with the {@link #collector()} collector.
+ * <p>
+ * The columns are decoded from the messages received from the backend, no {@link Row} is created:
+ * <ul>
+ *   <li>{@code BOOLEAN} columns are stored as a {@code boolean[]}</li>
+ *   <li>{@code INT2} and {@code INT4} columns are stored as an {@code int[]}</li>
+ *   <li>{@code INT8} columns are stored as a {@code long[]}</li>
+ *   <li>{@code FLOAT4} and {@code FLOAT8} columns are stored as a {@code double[]}</li>
+ *   <li>{@code CHAR}, {@code VARCHAR}, {@code BPCHAR}, {@code TEXT} and {@code NAME} columns are dictionary encoded,
+ *   each value is an {@code int} code in the dictionary of the column</li>
+ *   <li>the other columns are stored as an {@code Object[]}</li>
+ * </ul>
+ * The {@code null} values of a column are recorded in a bitmap, a {@code null} value is stored as {@code false},
+ * {@code 0}, the code {@code -1} or {@code null}.
+ */
+public interface PgColumnSet {
+
+  /**
+   * @return the collector storing a result by column
+   */
+  static Collector<Row, ?, PgColumnSet> collector() {
+    return PgColumnSetImpl.COLLECTOR;
+  }
+
+  /**
+   * @return the number of rows
+   */
+  int size();
+
+  /**
+   * @return the names of the columns
+   */
+  List<String> columnsNames();
+
+  /**
+   * Get the position of a column.
+   *
+   * @param name the column name
+   * @return the position of the column or {@code -1} when it does not exist
+   */
+  int columnIndex(String name);
+
+  /**
+   * Test whether a value is {@code null}.
+   *
+   * @param column the column position
+   * @param row the row position
+   * @return {@code true} when the value is {@code null}
+   */
+  boolean isNull(int column, int row);
+
+  /**
+   * Get the {@code null} values of a column.
+   *
+   * @param column the column position
+   * @return the bitmap of the rows whose value is {@code null}
+   */
+  BitSet getNulls(int column);
+
+  /**
+   * Get a value boxed as an object.
+   *
+   * @param column the column position
+   * @param row the row position
+   * @return the value or {@code null}
+   */
+  Object getValue(int column, int row);
+
+  /**
+   * Get the values of a {@code BOOLEAN} column.
+   *
+   * @param column the column position
+   * @return the values
+   * @throws ClassCastException when the column is not stored as a {@code boolean[]}
+   */
+  boolean[] getBooleanColumn(int column);
+
+  /**
+   * Get the values of an {@code INT2} or {@code INT4} column.
+   *
+   * @param column the column position
+   * @return the values
+   * @throws ClassCastException when the column is not stored as an {@code int[]}
+   */
+  int[] getIntColumn(int column);
+
+  /**
+   * Get the values of an {@code INT8} column.
+   *
+   * @param column the column position
+   * @return the values
+   * @throws ClassCastException when the column is not stored as a {@code long[]}
+   */
+  long[] getLongColumn(int column);
+
+  /**
+   * Get the values of a {@code FLOAT4} or {@code FLOAT8} column.
+   *
+   * @param column the column position
+   * @return the values
+   * @throws ClassCastException when the column is not stored as a {@code double[]}
+   */
+  double[] getDoubleColumn(int column);
+
+  /**
+   * Get the dictionary codes of a string column.
+   *
+   * @param column the column position
+   * @return the codes in the {@link #getStringDictionary(int) dictionary}, {@code -1} for {@code null} values
+   * @throws ClassCastException when the column is not dictionary encoded
+   */
+  int[] getStringCodes(int column);
+
+  /**
+   * Get the dictionary of a string column.
+   *
+   * @param column the column position
+   * @return the distinct values of the column indexed by their code
+   * @throws ClassCastException when the column is not dictionary encoded
+   */
+  String[] getStringDictionary(int column);
+
+  /**
+   * Get the values of a column that is not stored as primitive values or dictionary encoded.
+   *
+   * @param column the column position
+   * @return the values
+   * @throws ClassCastException when the column is not stored as an {@code Object[]}
+   */
+  Object[] getObjectColumn(int column);
+
+}
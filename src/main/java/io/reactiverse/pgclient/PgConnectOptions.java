@@ -19,10 +19,14 @@ package io.reactiverse.pgclient;
 
 import io.reactiverse.pgclient.impl.PgConnectionUriParser;
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import static java.lang.Integer.parseInt;
@@ -79,6 +83,12 @@ public class PgConnectOptions extends NetClientOptions {
     if (getenv("PGPASSWORD") != null) {
       pgConnectOptions.setPassword(getenv("PGPASSWORD"));
     }
+    if (getenv("PGTARGETSESSIONATTRS") != null) {
+      pgConnectOptions.setTargetSessionAttrs(getenv("PGTARGETSESSIONATTRS"));
+    }
+    if (getenv("PGLOADBALANCEHOSTS") != null) {
+      pgConnectOptions.setLoadBalanceHosts(getenv("PGLOADBALANCEHOSTS"));
+    }
     return pgConnectOptions;
   }
 
@@ -89,6 +99,20 @@ public class PgConnectOptions extends NetClientOptions {
   public static final String DEFAULT_PASSWORD = "pass";
   public static final boolean DEFAULT_CACHE_PREPARED_STATEMENTS = false;
   public static final int DEFAULT_PIPELINING_LIMIT = 256;
+  public static final boolean DEFAULT_ADAPTIVE_PIPELINING = false;
+  public static final int DEFAULT_MIN_PIPELINING_LIMIT = 1;
+  public static final int DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE = 256;
+  public static final int DEFAULT_PREPARED_STATEMENT_CACHE_SQL_LIMIT = 2048;
+  public static final boolean DEFAULT_LAZY_ROW_DECODING = false;
+  public static final boolean DEFAULT_INFER_PARAMETER_TYPES = false;
+  public static final boolean DEFAULT_REUSE_WRITE_BUFFER = false;
+  public static final boolean DEFAULT_COALESCE_WRITES = false;
+  public static final long DEFAULT_QUERY_TIMEOUT = 0;
+  public static final int DEFAULT_MAX_PENDING_COMMANDS = -1;
+  public static final long DEFAULT_MAX_QUEUE_TIME = 0;
+  public static final boolean DEFAULT_WAIT_FOR_WRITABILITY = false;
+  public static final String DEFAULT_TARGET_SESSION_ATTRS = "any";
+  public static final String DEFAULT_LOAD_BALANCE_HOSTS = "disable";
 
   private String host;
   private int port;
@@ -96,7 +120,22 @@ public class PgConnectOptions extends NetClientOptions {
   private String user;
   private String password;
   private boolean cachePreparedStatements;
+  private int preparedStatementCacheMaxSize;
+  private int preparedStatementCacheSqlLimit;
   private int pipeliningLimit;
+  private boolean adaptivePipelining;
+  private int minPipeliningLimit;
+  private boolean lazyRowDecoding;
+  private boolean inferParameterTypes;
+  private boolean reuseWriteBuffer;
+  private boolean coalesceWrites;
+  private long queryTimeout;
+  private int maxPendingCommands;
+  private long maxQueueTime;
+  private boolean waitForWritability;
+  private String targetSessionAttrs;
+  private String loadBalanceHosts;
+  private List<PgCodec<?>> codecs;
 
   public PgConnectOptions() {
     super();
@@ -117,13 +156,36 @@ public class PgConnectOptions extends NetClientOptions {
     user = other.user;
     password = other.password;
     pipeliningLimit = other.pipeliningLimit;
+    adaptivePipelining = other.adaptivePipelining;
+    minPipeliningLimit = other.minPipeliningLimit;
     cachePreparedStatements = other.cachePreparedStatements;
+    preparedStatementCacheMaxSize = other.preparedStatementCacheMaxSize;
+    preparedStatementCacheSqlLimit = other.preparedStatementCacheSqlLimit;
+    lazyRowDecoding = other.lazyRowDecoding;
+    inferParameterTypes = other.inferParameterTypes;
+    reuseWriteBuffer = other.reuseWriteBuffer;
+    coalesceWrites = other.coalesceWrites;
+    queryTimeout = other.queryTimeout;
+    maxPendingCommands = other.maxPendingCommands;
+    maxQueueTime = other.maxQueueTime;
+    waitForWritability = other.waitForWritability;
+    targetSessionAttrs = other.targetSessionAttrs;
+    loadBalanceHosts = other.loadBalanceHosts;
+    codecs = new ArrayList<>(other.codecs);
   }
 
   public String getHost() {
     return host;
   }
 
+  /**
+   * Set the host of the server, or a comma separated list of servers like {@code host1:5432,host2:5433}. A server
+   * of the list without a port uses the {@link #getPort() port}, the servers are tried in turn until one accepts
+   * the connection and matches the {@link #setTargetSessionAttrs(String) target session attributes}.
+   *
+   * @param host the host or the list of servers
+   * @return a reference to this, so the API can be used fluently
+   */
   public PgConnectOptions setHost(String host) {
     this.host = host;
     return this;
@@ -177,6 +239,41 @@ public class PgConnectOptions extends NetClientOptions {
     return this;
   }
 
+  public boolean getAdaptivePipelining() {
+    return adaptivePipelining;
+  }
+
+  /**
+   * Set whether the number of commands in flight on a connection is tuned from the latency of the commands.
+   * The limit is increased while the latency stays close to the lowest latency observed and decreased when the
+   * commands queue behind slower ones, between {@link #getMinPipeliningLimit()} and {@link #getPipeliningLimit()}.
+   *
+   * @param adaptivePipelining whether the pipelining limit is adaptive
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setAdaptivePipelining(boolean adaptivePipelining) {
+    this.adaptivePipelining = adaptivePipelining;
+    return this;
+  }
+
+  public int getMinPipeliningLimit() {
+    return minPipeliningLimit;
+  }
+
+  /**
+   * Set the lower bound of the adaptive pipelining limit, it is also the initial limit of a connection.
+   *
+   * @param minPipeliningLimit the minimum pipelining limit
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setMinPipeliningLimit(int minPipeliningLimit) {
+    if (minPipeliningLimit < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.minPipeliningLimit = minPipeliningLimit;
+    return this;
+  }
+
   public boolean getCachePreparedStatements() {
     return cachePreparedStatements;
   }
@@ -186,6 +283,269 @@ public class PgConnectOptions extends NetClientOptions {
     return this;
   }
 
+  public int getPreparedStatementCacheMaxSize() {
+    return preparedStatementCacheMaxSize;
+  }
+
+  /**
+   * Set the maximum number of prepared statements cached by a connection, the least recently used
+   * statement is closed when the cache is full.
+   *
+   * @param preparedStatementCacheMaxSize the maximum number of cached statements
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setPreparedStatementCacheMaxSize(int preparedStatementCacheMaxSize) {
+    if (preparedStatementCacheMaxSize < 1 || preparedStatementCacheMaxSize > 0xFFFF) {
+      throw new IllegalArgumentException("Prepared statement cache max size must be between 1 and 65535");
+    }
+    this.preparedStatementCacheMaxSize = preparedStatementCacheMaxSize;
+    return this;
+  }
+
+  public int getPreparedStatementCacheSqlLimit() {
+    return preparedStatementCacheSqlLimit;
+  }
+
+  /**
+   * Set the maximum length of the SQL of a cached prepared statement, longer queries are not cached.
+   *
+   * @param preparedStatementCacheSqlLimit the maximum SQL length
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setPreparedStatementCacheSqlLimit(int preparedStatementCacheSqlLimit) {
+    if (preparedStatementCacheSqlLimit < 1) {
+      throw new IllegalArgumentException("Prepared statement cache SQL limit must be > 0");
+    }
+    this.preparedStatementCacheSqlLimit = preparedStatementCacheSqlLimit;
+    return this;
+  }
+
+  public boolean getLazyRowDecoding() {
+    return lazyRowDecoding;
+  }
+
+  /**
+   * Set whether the columns of a row set are decoded when they are read instead of when the rows are
+   * received. The rows retain the network buffer until the result handler returns, so they must be read
+   * from the result handler.
+   *
+   * @param lazyRowDecoding whether to decode the columns lazily
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setLazyRowDecoding(boolean lazyRowDecoding) {
+    this.lazyRowDecoding = lazyRowDecoding;
+    return this;
+  }
+
+  public boolean getInferParameterTypes() {
+    return inferParameterTypes;
+  }
+
+  /**
+   * Set whether the parameter types of a prepared query are inferred from the values of the tuple when the
+   * prepared statement is not cached. The query is then parsed, bound and executed in a single round trip instead
+   * of preparing the statement first. {@code String}, {@code Json} and {@code null} values are sent as untyped
+   * text parameters and their type is inferred by the server.
+   *
+   * @param inferParameterTypes whether to infer the parameter types from the tuple values
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setInferParameterTypes(boolean inferParameterTypes) {
+    this.inferParameterTypes = inferParameterTypes;
+    return this;
+  }
+
+  public boolean getReuseWriteBuffer() {
+    return reuseWriteBuffer;
+  }
+
+  /**
+   * Set whether the messages are written to the socket from a direct buffer reused by the connection. By default
+   * the messages are copied at each flush to a buffer allocated with the exact size of the messages. The buffer is
+   * reused when the socket has written it, a connection pipelining many small queries avoids an allocation per flush.
+   *
+   * @param reuseWriteBuffer whether to reuse the write buffer
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setReuseWriteBuffer(boolean reuseWriteBuffer) {
+    this.reuseWriteBuffer = reuseWriteBuffer;
+    return this;
+  }
+
+  public boolean getCoalesceWrites() {
+    return coalesceWrites;
+  }
+
+  /**
+   * Set whether the messages of the commands scheduled during the same event loop task are flushed together.
+   * By default the messages are flushed to the socket each time a command is scheduled, when coalescing the
+   * flush happens at the end of the current task or as soon as 16KB of messages are pending. Many queries sent
+   * at once are then written with a single system call.
+   *
+   * @param coalesceWrites whether to coalesce the writes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setCoalesceWrites(boolean coalesceWrites) {
+    this.coalesceWrites = coalesceWrites;
+    return this;
+  }
+
+  public long getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  /**
+   * Set the deadline of the queries in milliseconds, {@code 0} means no deadline. The deadline starts when the
+   * query is scheduled on the connection, a query still waiting to be sent fails when it expires. A query that was
+   * sent fails right away and its response is discarded when it is received, the server is asked to cancel it with a
+   * {@code CancelRequest} when it is the last query sent and no query waits to be sent.
+   *
+   * @param queryTimeout the query timeout in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setQueryTimeout(long queryTimeout) {
+    if (queryTimeout < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.queryTimeout = queryTimeout;
+    return this;
+  }
+
+  public int getMaxPendingCommands() {
+    return maxPendingCommands;
+  }
+
+  /**
+   * Set the maximum number of commands waiting to be sent on a connection, {@code -1} means unbounded. A command
+   * that has to wait on a connection whose queue is full fails right away instead of being queued, {@code 0} only
+   * accepts commands that can be sent right away. Closing statements and portals is never rejected.
+   *
+   * @param maxPendingCommands the maximum number of pending commands
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setMaxPendingCommands(int maxPendingCommands) {
+    if (maxPendingCommands < -1) {
+      throw new IllegalArgumentException();
+    }
+    this.maxPendingCommands = maxPendingCommands;
+    return this;
+  }
+
+  public long getMaxQueueTime() {
+    return maxQueueTime;
+  }
+
+  /**
+   * Set how long in milliseconds a command can wait to be sent on a connection, {@code 0} means no limit. A command
+   * that waited longer fails instead of being sent, so an overloaded connection does not spend time on commands
+   * whose caller has likely given up.
+   *
+   * @param maxQueueTime the maximum queue time in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setMaxQueueTime(long maxQueueTime) {
+    if (maxQueueTime < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.maxQueueTime = maxQueueTime;
+    return this;
+  }
+
+  public boolean getWaitForWritability() {
+    return waitForWritability;
+  }
+
+  /**
+   * Set whether a connection stops sending commands while its socket is not writable, the commands wait in the
+   * pending queue until the socket has written the messages already sent.
+   *
+   * @param waitForWritability whether to wait for the socket to be writable
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setWaitForWritability(boolean waitForWritability) {
+    this.waitForWritability = waitForWritability;
+    return this;
+  }
+
+  public String getTargetSessionAttrs() {
+    return targetSessionAttrs;
+  }
+
+  /**
+   * Set the kind of server a connection must be established with when several servers are configured:
+   * <ul>
+   *   <li>{@code any}: any server</li>
+   *   <li>{@code read-write} or {@code primary}: a server accepting read-write transactions</li>
+   *   <li>{@code read-only} or {@code standby}: a server in read-only mode</li>
+   *   <li>{@code prefer-standby}: a server in read-only mode, or any server when none is</li>
+   * </ul>
+   * The mode of a server is probed with {@code SHOW transaction_read_only} after connecting.
+   *
+   * @param targetSessionAttrs the target session attributes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setTargetSessionAttrs(String targetSessionAttrs) {
+    switch (targetSessionAttrs) {
+      case "any":
+      case "read-write":
+      case "primary":
+      case "read-only":
+      case "standby":
+      case "prefer-standby":
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid target session attrs " + targetSessionAttrs);
+    }
+    this.targetSessionAttrs = targetSessionAttrs;
+    return this;
+  }
+
+  public String getLoadBalanceHosts() {
+    return loadBalanceHosts;
+  }
+
+  /**
+   * Set how the servers are ordered when several servers are configured:
+   * <ul>
+   *   <li>{@code disable}: the servers are tried in the configured order</li>
+   *   <li>{@code random}: the servers are tried in a random order</li>
+   *   <li>{@code round-robin}: each connection starts with the server following the one the previous connection started with</li>
+   * </ul>
+   *
+   * @param loadBalanceHosts the load balancing mode
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgConnectOptions setLoadBalanceHosts(String loadBalanceHosts) {
+    switch (loadBalanceHosts) {
+      case "disable":
+      case "random":
+      case "round-robin":
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid load balance hosts " + loadBalanceHosts);
+    }
+    this.loadBalanceHosts = loadBalanceHosts;
+    return this;
+  }
+
+  @GenIgnore
+  public List<PgCodec<?>> getCodecs() {
+    return Collections.unmodifiableList(codecs);
+  }
+
+  /**
+   * Add a codec for a Postgres type that is not built in the client. The type is resolved from the codec
+   * {@link PgCodec#typeName() type name}, a codec added for a built-in type is ignored.
+   *
+   * @param codec the codec
+   * @return a reference to this, so the API can be used fluently
+   */
+  @GenIgnore
+  public PgConnectOptions addCodec(PgCodec<?> codec) {
+    codecs.add(codec);
+    return this;
+  }
+
   @Override
   public PgConnectOptions setSendBufferSize(int sendBufferSize) {
     return (PgConnectOptions)super.setSendBufferSize(sendBufferSize);
@@ -396,7 +756,22 @@ public class PgConnectOptions extends NetClientOptions {
     user = DEFAULT_USER;
     password = DEFAULT_PASSWORD;
     cachePreparedStatements = DEFAULT_CACHE_PREPARED_STATEMENTS;
+    preparedStatementCacheMaxSize = DEFAULT_PREPARED_STATEMENT_CACHE_MAX_SIZE;
+    preparedStatementCacheSqlLimit = DEFAULT_PREPARED_STATEMENT_CACHE_SQL_LIMIT;
     pipeliningLimit = DEFAULT_PIPELINING_LIMIT;
+    adaptivePipelining = DEFAULT_ADAPTIVE_PIPELINING;
+    minPipeliningLimit = DEFAULT_MIN_PIPELINING_LIMIT;
+    lazyRowDecoding = DEFAULT_LAZY_ROW_DECODING;
+    inferParameterTypes = DEFAULT_INFER_PARAMETER_TYPES;
+    reuseWriteBuffer = DEFAULT_REUSE_WRITE_BUFFER;
+    coalesceWrites = DEFAULT_COALESCE_WRITES;
+    queryTimeout = DEFAULT_QUERY_TIMEOUT;
+    maxPendingCommands = DEFAULT_MAX_PENDING_COMMANDS;
+    maxQueueTime = DEFAULT_MAX_QUEUE_TIME;
+    waitForWritability = DEFAULT_WAIT_FOR_WRITABILITY;
+    targetSessionAttrs = DEFAULT_TARGET_SESSION_ATTRS;
+    loadBalanceHosts = DEFAULT_LOAD_BALANCE_HOSTS;
+    codecs = new ArrayList<>();
   }
 
   @Override
@@ -420,7 +795,22 @@ public class PgConnectOptions extends NetClientOptions {
     if (!user.equals(that.user)) return false;
     if (!password.equals(that.password)) return false;
     if (cachePreparedStatements != that.cachePreparedStatements) return false;
+    if (preparedStatementCacheMaxSize != that.preparedStatementCacheMaxSize) return false;
+    if (preparedStatementCacheSqlLimit != that.preparedStatementCacheSqlLimit) return false;
     if (pipeliningLimit != that.pipeliningLimit) return false;
+    if (adaptivePipelining != that.adaptivePipelining) return false;
+    if (minPipeliningLimit != that.minPipeliningLimit) return false;
+    if (lazyRowDecoding != that.lazyRowDecoding) return false;
+    if (inferParameterTypes != that.inferParameterTypes) return false;
+    if (reuseWriteBuffer != that.reuseWriteBuffer) return false;
+    if (coalesceWrites != that.coalesceWrites) return false;
+    if (queryTimeout != that.queryTimeout) return false;
+    if (maxPendingCommands != that.maxPendingCommands) return false;
+    if (maxQueueTime != that.maxQueueTime) return false;
+    if (waitForWritability != that.waitForWritability) return false;
+    if (!targetSessionAttrs.equals(that.targetSessionAttrs)) return false;
+    if (!loadBalanceHosts.equals(that.loadBalanceHosts)) return false;
+    if (!codecs.equals(that.codecs)) return false;
 
     return true;
   }
@@ -434,7 +824,22 @@ public class PgConnectOptions extends NetClientOptions {
     result = 31 * result + user.hashCode();
     result = 31 * result + password.hashCode();
     result = 31 * result + (cachePreparedStatements ? 1 : 0);
+    result = 31 * result + preparedStatementCacheMaxSize;
+    result = 31 * result + preparedStatementCacheSqlLimit;
     result = 31 * result + pipeliningLimit;
+    result = 31 * result + (adaptivePipelining ? 1 : 0);
+    result = 31 * result + minPipeliningLimit;
+    result = 31 * result + (lazyRowDecoding ? 1 : 0);
+    result = 31 * result + (inferParameterTypes ? 1 : 0);
+    result = 31 * result + (reuseWriteBuffer ? 1 : 0);
+    result = 31 * result + (coalesceWrites ? 1 : 0);
+    result = 31 * result + (int) (queryTimeout ^ (queryTimeout >>> 32));
+    result = 31 * result + maxPendingCommands;
+    result = 31 * result + (int) (maxQueueTime ^ (maxQueueTime >>> 32));
+    result = 31 * result + (waitForWritability ? 1 : 0);
+    result = 31 * result + targetSessionAttrs.hashCode();
+    result = 31 * result + loadBalanceHosts.hashCode();
+    result = 31 * result + codecs.hashCode();
     return result;
   }
 
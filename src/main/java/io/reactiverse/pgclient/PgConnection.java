@@ -21,6 +21,8 @@ import io.vertx.codegen.annotations.Fluent;
 import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 
 import java.util.List;
 import java.util.stream.Collector;
@@ -43,6 +45,62 @@ public interface PgConnection extends PgClient {
   @Fluent
   PgConnection prepare(String sql, Handler<AsyncResult<PgPreparedQuery>> handler);
 
+  /**
+   * Execute a {@code COPY ... FROM STDIN} statement and send the buffers of the {@code stream} as the COPY data.
+   * <p/>
+   * The buffers are sent as is, they must be formatted according to the format of the COPY statement. The stream
+   * is paused until the server is ready to receive data and then when the connection cannot be written
+   * without buffering.
+   *
+   * @param sql the COPY statement
+   * @param stream the stream of COPY data
+   * @param handler the handler notified with the number of copied rows
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  PgConnection copyIn(String sql, ReadStream<Buffer> stream, Handler<AsyncResult<Integer>> handler);
+
+  /**
+   * Copy the tuples of the {@code stream} into a table using the binary COPY format.
+   * <p/>
+   * The types of the columns are first described by the server and each tuple is encoded in binary format
+   * with the types of the columns. The stream is paused until the server is ready to receive data and then
+   * when the connection cannot be written without buffering.
+   * <p/>
+   * The table and column names are quoted, they are case sensitive and are not folded to lower case. The table
+   * name can be qualified with a schema, e.g {@code public.users}, the names cannot contain a dot.
+   *
+   * @param table the table name
+   * @param columns the columns of the tuples, when empty the tuples provide all the columns of the table
+   * @param stream the stream of tuples
+   * @param handler the handler notified with the number of copied rows
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  PgConnection copyIn(String table, List<String> columns, ReadStream<Tuple> stream, Handler<AsyncResult<Integer>> handler);
+
+  /**
+   * Execute a {@code COPY ... TO STDOUT} statement and return a stream of the COPY data.
+   * <p/>
+   * The statement is executed when a handler is set on the stream, each buffer contains a COPY data message
+   * formatted according to the format of the COPY statement. Pausing the stream stops reading the connection.
+   *
+   * @param sql the COPY statement
+   * @return the stream of COPY data
+   */
+  PgStream<Buffer> copyOut(String sql);
+
+  /**
+   * Copy the rows of a query using the binary COPY format and return a stream of the rows.
+   * <p/>
+   * The query is executed when a handler is set on the stream, the rows are streamed from the connection
+   * instead of being fetched by batches with a cursor. Pausing the stream stops reading the connection.
+   *
+   * @param query the query
+   * @return the stream of rows
+   */
+  PgStream<Row> copyOutRows(String query);
+
   /**
    * Set an handler called with connection errors.
    *
@@ -88,6 +146,38 @@ public interface PgConnection extends PgClient {
    */
   boolean isSSL();
 
+  /**
+   * @return the current number of commands that can be in flight on the connection, it changes over time when
+   *         the pipelining limit is {@link PgConnectOptions#setAdaptivePipelining(boolean) adaptive}
+   */
+  int pipeliningLimit();
+
+  /**
+   * @return the number of prepared queries found in the prepared statement cache
+   */
+  long preparedStatementCacheHits();
+
+  /**
+   * @return the number of prepared queries not found in the prepared statement cache
+   */
+  long preparedStatementCacheMisses();
+
+  /**
+   * @return the number of statements evicted from the prepared statement cache because it was full
+   */
+  long preparedStatementCacheEvictions();
+
+  /**
+   * Send a request to cancel the query currently executed by the connection, the request is sent on a new
+   * connection to the server. The server may or may not cancel the query, when it does the query fails with
+   * an error.
+   *
+   * @param handler the handler notified when the request has been sent
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  PgConnection cancelRequest(Handler<AsyncResult<Void>> handler);
+
   /**
    * Close the current connection after all the pending commands have been processed.
    */
@@ -18,6 +18,7 @@
 package io.reactiverse.pgclient;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.*;
@@ -50,8 +51,28 @@ public class PgPoolOptions extends PgConnectOptions {
   }
 
   public static final int DEFAULT_MAX_POOL_SIZE = 4;
+  public static final boolean DEFAULT_SHARDED = false;
+  public static final int DEFAULT_MAX_WAIT_QUEUE_SIZE = -1;
+  public static final int DEFAULT_MIN_IDLE = 0;
+  public static final long DEFAULT_MAX_IDLE_TIME = 0;
+  public static final long DEFAULT_MAX_LIFETIME = 0;
+  public static final long DEFAULT_VALIDATION_INTERVAL = 0;
+  public static final long DEFAULT_ACQUIRE_TIMEOUT = 0;
+  public static final long DEFAULT_CONNECT_RETRY_DELAY = 100;
+  public static final int DEFAULT_MAX_CONNECT_RETRIES = 0;
+  public static final boolean DEFAULT_MULTIPLEXED = false;
 
   private int maxSize = DEFAULT_MAX_POOL_SIZE;
+  private boolean sharded = DEFAULT_SHARDED;
+  private int maxWaitQueueSize = DEFAULT_MAX_WAIT_QUEUE_SIZE;
+  private int minIdle = DEFAULT_MIN_IDLE;
+  private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+  private long maxLifetime = DEFAULT_MAX_LIFETIME;
+  private long validationInterval = DEFAULT_VALIDATION_INTERVAL;
+  private long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+  private long connectRetryDelay = DEFAULT_CONNECT_RETRY_DELAY;
+  private int maxConnectRetries = DEFAULT_MAX_CONNECT_RETRIES;
+  private boolean multiplexed = DEFAULT_MULTIPLEXED;
 
   public PgPoolOptions() {
   }
@@ -64,11 +85,31 @@ public class PgPoolOptions extends PgConnectOptions {
   public PgPoolOptions(PgPoolOptions other) {
     super(other);
     maxSize = other.maxSize;
+    sharded = other.sharded;
+    maxWaitQueueSize = other.maxWaitQueueSize;
+    minIdle = other.minIdle;
+    maxIdleTime = other.maxIdleTime;
+    maxLifetime = other.maxLifetime;
+    validationInterval = other.validationInterval;
+    acquireTimeout = other.acquireTimeout;
+    connectRetryDelay = other.connectRetryDelay;
+    maxConnectRetries = other.maxConnectRetries;
+    multiplexed = other.multiplexed;
   }
 
   public PgPoolOptions(PgConnectOptions other) {
     super(other);
     maxSize = DEFAULT_MAX_POOL_SIZE;
+    sharded = DEFAULT_SHARDED;
+    maxWaitQueueSize = DEFAULT_MAX_WAIT_QUEUE_SIZE;
+    minIdle = DEFAULT_MIN_IDLE;
+    maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    maxLifetime = DEFAULT_MAX_LIFETIME;
+    validationInterval = DEFAULT_VALIDATION_INTERVAL;
+    acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+    connectRetryDelay = DEFAULT_CONNECT_RETRY_DELAY;
+    maxConnectRetries = DEFAULT_MAX_CONNECT_RETRIES;
+    multiplexed = DEFAULT_MULTIPLEXED;
   }
 
   public int getMaxSize() {
@@ -83,6 +124,196 @@ public class PgPoolOptions extends PgConnectOptions {
     return this;
   }
 
+  public boolean getSharded() {
+    return sharded;
+  }
+
+  /**
+   * Set whether the pool keeps one shard of connections per event loop context using it. A shard owns the
+   * connections created on its event loop so commands scheduled from this event loop do not hop to another
+   * thread, a shard that runs dry borrows an idle connection from another shard. The max size still bounds
+   * the total number of connections of the pool.
+   *
+   * @param sharded whether the pool is sharded
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setSharded(boolean sharded) {
+    this.sharded = sharded;
+    return this;
+  }
+
+  public int getMaxWaitQueueSize() {
+    return maxWaitQueueSize;
+  }
+
+  /**
+   * Set the maximum number of waiters for a connection of the pool, {@code -1} means unbounded. The waiters served
+   * by the connections being created are not counted, when the queue is full an acquisition fails right away.
+   *
+   * @param maxWaitQueueSize the maximum wait queue size
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMaxWaitQueueSize(int maxWaitQueueSize) {
+    if (maxWaitQueueSize < -1) {
+      throw new IllegalArgumentException("Max wait queue size cannot be < -1");
+    }
+    this.maxWaitQueueSize = maxWaitQueueSize;
+    return this;
+  }
+
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  /**
+   * Set the number of idle connections the pool keeps open, they are opened when the pool is created and
+   * re-opened after they are closed. A sharded pool keeps this number of idle connections per shard.
+   *
+   * @param minIdle the minimum number of idle connections
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMinIdle(int minIdle) {
+    if (minIdle < 0) {
+      throw new IllegalArgumentException("Min idle cannot be negative");
+    }
+    this.minIdle = minIdle;
+    return this;
+  }
+
+  public long getMaxIdleTime() {
+    return maxIdleTime;
+  }
+
+  /**
+   * Set the time in milliseconds after which an idle connection is closed, {@code 0} keeps idle connections open.
+   * The pool never closes the idle connections below {@link #getMinIdle()}.
+   *
+   * @param maxIdleTime the max idle time
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMaxIdleTime(long maxIdleTime) {
+    if (maxIdleTime < 0) {
+      throw new IllegalArgumentException("Max idle time cannot be negative");
+    }
+    this.maxIdleTime = maxIdleTime;
+    return this;
+  }
+
+  public long getMaxLifetime() {
+    return maxLifetime;
+  }
+
+  /**
+   * Set the time in milliseconds after which a connection is closed and replaced, {@code 0} means no limit.
+   * The lifetime of each connection is shortened by a random amount of up to 10% so the connections are
+   * not recycled at once, a connection in use is closed when it is released.
+   *
+   * @param maxLifetime the max lifetime
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMaxLifetime(long maxLifetime) {
+    if (maxLifetime < 0) {
+      throw new IllegalArgumentException("Max lifetime cannot be negative");
+    }
+    this.maxLifetime = maxLifetime;
+    return this;
+  }
+
+  public long getValidationInterval() {
+    return validationInterval;
+  }
+
+  /**
+   * Set the time in milliseconds after which an idle connection is validated with a {@code SELECT 1} query,
+   * {@code 0} disables validation. A connection failing the validation is closed.
+   *
+   * @param validationInterval the validation interval
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setValidationInterval(long validationInterval) {
+    if (validationInterval < 0) {
+      throw new IllegalArgumentException("Validation interval cannot be negative");
+    }
+    this.validationInterval = validationInterval;
+    return this;
+  }
+
+  public long getAcquireTimeout() {
+    return acquireTimeout;
+  }
+
+  /**
+   * Set the time in milliseconds a request waits for a connection of the pool before it fails, {@code 0} means
+   * it waits until a connection is available.
+   *
+   * @param acquireTimeout the acquire timeout
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setAcquireTimeout(long acquireTimeout) {
+    if (acquireTimeout < 0) {
+      throw new IllegalArgumentException("Acquire timeout cannot be negative");
+    }
+    this.acquireTimeout = acquireTimeout;
+    return this;
+  }
+
+  public long getConnectRetryDelay() {
+    return connectRetryDelay;
+  }
+
+  /**
+   * Set the time in milliseconds the pool waits before it opens a connection again after it failed to open one,
+   * the delay doubles after each consecutive failure. See {@link #setMaxConnectRetries(int)}.
+   *
+   * @param connectRetryDelay the connect retry delay
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setConnectRetryDelay(long connectRetryDelay) {
+    if (connectRetryDelay < 0) {
+      throw new IllegalArgumentException("Connect retry delay cannot be negative");
+    }
+    this.connectRetryDelay = connectRetryDelay;
+    return this;
+  }
+
+  public int getMaxConnectRetries() {
+    return maxConnectRetries;
+  }
+
+  /**
+   * Set the number of consecutive times the pool opens a connection again for the requests waiting for one after it
+   * failed to open one. The requests whose {@link #setAcquireTimeout(long) acquire timeout} has passed fail with the
+   * connect failure, the other requests fail when there is no retry left.
+   *
+   * @param maxConnectRetries the max number of connect retries
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMaxConnectRetries(int maxConnectRetries) {
+    if (maxConnectRetries < 0) {
+      throw new IllegalArgumentException("Max connect retries cannot be negative");
+    }
+    this.maxConnectRetries = maxConnectRetries;
+    return this;
+  }
+
+  public boolean isMultiplexed() {
+    return multiplexed;
+  }
+
+  /**
+   * Set whether the queries run directly on the pool share its idle connections instead of acquiring one. A query is
+   * pipelined on the idle connection with the fewest commands in flight, a new connection is opened when all of them
+   * reached their pipelining limit. The connections obtained with {@link PgPool#getConnection} and the transactions
+   * still use a connection exclusively.
+   *
+   * @param multiplexed whether the pool is multiplexed
+   * @return a reference to this, so the API can be used fluently
+   */
+  public PgPoolOptions setMultiplexed(boolean multiplexed) {
+    this.multiplexed = multiplexed;
+    return this;
+  }
+
   @Override
   public PgPoolOptions setHost(String host) {
     return (PgPoolOptions) super.setHost(host);
@@ -113,11 +344,87 @@ public class PgPoolOptions extends PgConnectOptions {
     return (PgPoolOptions) super.setPipeliningLimit(pipeliningLimit);
   }
 
+  @Override
+  public PgPoolOptions setAdaptivePipelining(boolean adaptivePipelining) {
+    return (PgPoolOptions) super.setAdaptivePipelining(adaptivePipelining);
+  }
+
+  @Override
+  public PgPoolOptions setMinPipeliningLimit(int minPipeliningLimit) {
+    return (PgPoolOptions) super.setMinPipeliningLimit(minPipeliningLimit);
+  }
+
   @Override
   public PgPoolOptions setCachePreparedStatements(boolean cachePreparedStatements) {
     return (PgPoolOptions) super.setCachePreparedStatements(cachePreparedStatements);
   }
 
+  @Override
+  public PgPoolOptions setPreparedStatementCacheMaxSize(int preparedStatementCacheMaxSize) {
+    return (PgPoolOptions) super.setPreparedStatementCacheMaxSize(preparedStatementCacheMaxSize);
+  }
+
+  @Override
+  public PgPoolOptions setPreparedStatementCacheSqlLimit(int preparedStatementCacheSqlLimit) {
+    return (PgPoolOptions) super.setPreparedStatementCacheSqlLimit(preparedStatementCacheSqlLimit);
+  }
+
+  @Override
+  public PgPoolOptions setLazyRowDecoding(boolean lazyRowDecoding) {
+    return (PgPoolOptions) super.setLazyRowDecoding(lazyRowDecoding);
+  }
+
+  @Override
+  public PgPoolOptions setInferParameterTypes(boolean inferParameterTypes) {
+    return (PgPoolOptions) super.setInferParameterTypes(inferParameterTypes);
+  }
+
+  @Override
+  public PgPoolOptions setReuseWriteBuffer(boolean reuseWriteBuffer) {
+    return (PgPoolOptions) super.setReuseWriteBuffer(reuseWriteBuffer);
+  }
+
+  @Override
+  public PgPoolOptions setCoalesceWrites(boolean coalesceWrites) {
+    return (PgPoolOptions) super.setCoalesceWrites(coalesceWrites);
+  }
+
+  @Override
+  public PgPoolOptions setQueryTimeout(long queryTimeout) {
+    return (PgPoolOptions) super.setQueryTimeout(queryTimeout);
+  }
+
+  @Override
+  public PgPoolOptions setMaxPendingCommands(int maxPendingCommands) {
+    return (PgPoolOptions) super.setMaxPendingCommands(maxPendingCommands);
+  }
+
+  @Override
+  public PgPoolOptions setMaxQueueTime(long maxQueueTime) {
+    return (PgPoolOptions) super.setMaxQueueTime(maxQueueTime);
+  }
+
+  @Override
+  public PgPoolOptions setWaitForWritability(boolean waitForWritability) {
+    return (PgPoolOptions) super.setWaitForWritability(waitForWritability);
+  }
+
+  @Override
+  public PgPoolOptions setTargetSessionAttrs(String targetSessionAttrs) {
+    return (PgPoolOptions) super.setTargetSessionAttrs(targetSessionAttrs);
+  }
+
+  @Override
+  public PgPoolOptions setLoadBalanceHosts(String loadBalanceHosts) {
+    return (PgPoolOptions) super.setLoadBalanceHosts(loadBalanceHosts);
+  }
+
+  @GenIgnore
+  @Override
+  public PgPoolOptions addCodec(PgCodec<?> codec) {
+    return (PgPoolOptions) super.addCodec(codec);
+  }
+
   @Override
   public PgPoolOptions setSendBufferSize(int sendBufferSize) {
     return (PgPoolOptions) super.setSendBufferSize(sendBufferSize);
@@ -329,6 +636,16 @@ public class PgPoolOptions extends PgConnectOptions {
     PgPoolOptions that = (PgPoolOptions) o;
 
     if (maxSize != that.maxSize) return false;
+    if (sharded != that.sharded) return false;
+    if (maxWaitQueueSize != that.maxWaitQueueSize) return false;
+    if (minIdle != that.minIdle) return false;
+    if (maxIdleTime != that.maxIdleTime) return false;
+    if (maxLifetime != that.maxLifetime) return false;
+    if (validationInterval != that.validationInterval) return false;
+    if (acquireTimeout != that.acquireTimeout) return false;
+    if (connectRetryDelay != that.connectRetryDelay) return false;
+    if (maxConnectRetries != that.maxConnectRetries) return false;
+    if (multiplexed != that.multiplexed) return false;
 
     return true;
   }
@@ -337,6 +654,16 @@ public class PgPoolOptions extends PgConnectOptions {
   public int hashCode() {
     int result = super.hashCode();
     result = 31 * result + maxSize;
+    result = 31 * result + (sharded ? 1 : 0);
+    result = 31 * result + maxWaitQueueSize;
+    result = 31 * result + minIdle;
+    result = 31 * result + (int) (maxIdleTime ^ (maxIdleTime >>> 32));
+    result = 31 * result + (int) (maxLifetime ^ (maxLifetime >>> 32));
+    result = 31 * result + (int) (validationInterval ^ (validationInterval >>> 32));
+    result = 31 * result + (int) (acquireTimeout ^ (acquireTimeout >>> 32));
+    result = 31 * result + (int) (connectRetryDelay ^ (connectRetryDelay >>> 32));
+    result = 31 * result + maxConnectRetries;
+    result = 31 * result + (multiplexed ? 1 : 0);
     return result;
   }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.codegen.annotations.CacheReturn;
+import io.vertx.codegen.annotations.GenIgnore;
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * A pool routing its operations to a primary server and its read-only work to replica servers.
+ * <p>
+ * The operations of this pool run on the primary, the operations of the {@link #readOnly()} pool run on
+ * the replicas: each operation is sent to the next replica in turn. A replica that fails to provide a
+ * connection is skipped for a while and the operations fall back to the primary when no replica is available.
+ */
+@VertxGen
+public interface PgRoutingPool extends PgPool {
+
+  @Override
+  PgRoutingPool preparedQuery(String sql, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingPool preparedQuery(String sql, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingPool query(String sql, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingPool query(String sql, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingPool preparedQuery(String sql, Tuple arguments, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingPool preparedQuery(String sql, Tuple arguments, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingPool preparedBatch(String sql, List<Tuple> batch, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgClient preparedBatch(String sql, List<Tuple> batch, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  /**
+   * Get the pool running read-only work on the replicas. The queries and the transactions begun with this pool
+   * must not modify the database, closing this pool closes the routing pool.
+   *
+   * @return the read-only pool
+   */
+  @CacheReturn
+  PgPool readOnly();
+
+  /**
+   * Create a session reading its own writes on the replicas, the replicas report their replay position
+   * with {@code pg_last_wal_replay_lsn()} ({@code pg_last_xlog_replay_location()} before Postgres 10) every 100 ms.
+   *
+   * @return the session
+   */
+  PgRoutingSession session();
+
+  /**
+   * Like {@link #session()} with a session that observes at least the WAL position {@code lsn}.
+   *
+   * @param lsn the WAL position, as given by {@link PgRoutingSession#lsn()}
+   * @return the session
+   */
+  PgRoutingSession session(long lsn);
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.codegen.annotations.CacheReturn;
+import io.vertx.codegen.annotations.GenIgnore;
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * A logical session of a {@link PgRoutingPool} that reads its own writes on the replicas.
+ * <p>
+ * The queries of the session run on the primary, each query is followed on the same connection by
+ * {@code SELECT pg_current_wal_lsn()} ({@code pg_current_xlog_location()} before Postgres 10) so the session
+ * knows the WAL position of its writes before the query result is delivered. The queries of the {@link #readOnly()}
+ * client run on a replica whose replay position has caught up with this position, or on the primary when no
+ * replica has.
+ */
+@VertxGen
+public interface PgRoutingSession extends PgClient {
+
+  @Override
+  PgRoutingSession preparedQuery(String sql, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingSession preparedQuery(String sql, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingSession query(String sql, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingSession query(String sql, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingSession preparedQuery(String sql, Tuple arguments, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingSession preparedQuery(String sql, Tuple arguments, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  @Override
+  PgRoutingSession preparedBatch(String sql, List<Tuple> batch, Handler<AsyncResult<PgRowSet>> handler);
+
+  @Override
+  @GenIgnore
+  <R> PgRoutingSession preparedBatch(String sql, List<Tuple> batch, Collector<Row, ?, R> collector, Handler<AsyncResult<PgResult<R>>> handler);
+
+  /**
+   * @return the client running the read-only queries of this session
+   */
+  @CacheReturn
+  PgClient readOnly();
+
+  /**
+   * @return the WAL position the reads of this session must observe, it can be used to create a session
+   *         in another process with {@link PgRoutingPool#session(long)}
+   */
+  long lsn();
+
+}
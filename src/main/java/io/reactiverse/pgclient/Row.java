@@ -47,6 +47,69 @@ public interface Row extends Tuple {
    */
   Boolean getBoolean(String name);
 
+  /**
+   * Test whether the value of a column is {@code null}.
+   *
+   * @param name the column
+   * @return {@code true} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  boolean isNull(String name);
+
+  /**
+   * Get a boolean value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code false} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  boolean getBooleanValue(String name);
+
+  /**
+   * Get a short value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code 0} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  short getShortValue(String name);
+
+  /**
+   * Get an integer value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code 0} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  int getIntValue(String name);
+
+  /**
+   * Get a long value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code 0} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  long getLongValue(String name);
+
+  /**
+   * Get a float value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code 0} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  float getFloatValue(String name);
+
+  /**
+   * Get a double value of a column without boxing it.
+   *
+   * @param name the column
+   * @return the value or {@code 0} when the value is {@code null}
+   * @throws java.util.NoSuchElementException when the column does not exist
+   */
+  double getDoubleValue(String name);
+
   /**
    * Get an object value at {@code pos}.
    *
@@ -172,6 +172,62 @@ public interface Tuple {
    */
   Boolean getBoolean(int pos);
 
+  /**
+   * Test whether the value at {@code pos} is {@code null}.
+   *
+   * @param pos the position
+   * @return {@code true} when the value is {@code null}
+   */
+  boolean isNull(int pos);
+
+  /**
+   * Get a boolean value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code false} when the value is {@code null}
+   */
+  boolean getBooleanValue(int pos);
+
+  /**
+   * Get a short value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code 0} when the value is {@code null}
+   */
+  short getShortValue(int pos);
+
+  /**
+   * Get an integer value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code 0} when the value is {@code null}
+   */
+  int getIntValue(int pos);
+
+  /**
+   * Get a long value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code 0} when the value is {@code null}
+   */
+  long getLongValue(int pos);
+
+  /**
+   * Get a float value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code 0} when the value is {@code null}
+   */
+  float getFloatValue(int pos);
+
+  /**
+   * Get a double value at {@code pos} without boxing it.
+   *
+   * @param pos the position
+   * @return the value or {@code 0} when the value is {@code null}
+   */
+  double getDoubleValue(int pos);
+
   /**
    * Get an object value at {@code pos}.
    *
@@ -523,6 +579,60 @@ public interface Tuple {
   @Fluent
   Tuple addValue(Object value);
 
+  /**
+   * Add a boolean value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addBooleanValue(boolean value);
+
+  /**
+   * Add a short value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addShortValue(short value);
+
+  /**
+   * Add an integer value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addIntValue(int value);
+
+  /**
+   * Add a long value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addLongValue(long value);
+
+  /**
+   * Add a float value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addFloatValue(float value);
+
+  /**
+   * Add a double value at the end of the tuple without boxing it.
+   *
+   * @param value the value
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  Tuple addDoubleValue(double value);
+
   /**
    * Add a short value at the end of the tuple.
    *
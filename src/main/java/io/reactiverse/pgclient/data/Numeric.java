@@ -115,6 +115,8 @@ public final class Numeric extends Number {
       return new BigDecimal((BigInteger)value);
     } else if (isNaN()) {
       return null;
+    } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return BigDecimal.valueOf(value.longValue());
     } else {
       return new BigDecimal(value.toString());
     }
@@ -22,25 +22,338 @@ import io.reactiverse.pgclient.data.Numeric;
 import io.reactiverse.pgclient.Tuple;
 import io.reactiverse.pgclient.data.Interval;
 import io.reactiverse.pgclient.data.Point;
+import io.reactiverse.pgclient.impl.codec.DataType;
 import io.vertx.core.buffer.Buffer;
 
 import java.math.BigDecimal;
 import java.time.*;
 import java.time.temporal.Temporal;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.RandomAccess;
 import java.util.UUID;
 
-public class ArrayTuple extends ArrayList<Object> implements Tuple {
+/**
+ * The tuple implementation.
+ * <p>
+ * Fixed width values (booleans, integers and floating point numbers) can be stored in a {@code long} slot
+ * instead of being boxed, the value is boxed when it is read as an object and the primitive accessors
+ * read the slot directly. Other values are stored as objects.
+ */
+public class ArrayTuple extends AbstractList<Object> implements Tuple, RandomAccess {
 
   public static Tuple EMPTY = new ArrayTuple(0);
 
+  private static final Object[] EMPTY_VALUES = new Object[0];
+
+  /**
+   * The kinds of values stored in a slot, the slot holds the bits of the binary format of the value.
+   */
+  public enum Slot {
+
+    BOOL(DataType.BOOL), INT2(DataType.INT2), INT4(DataType.INT4), INT8(DataType.INT8), FLOAT4(DataType.FLOAT4), FLOAT8(DataType.FLOAT8);
+
+    public final DataType type;
+
+    Slot(DataType type) {
+      this.type = type;
+    }
+
+    public static Slot of(DataType type) {
+      switch (type) {
+        case BOOL:
+          return BOOL;
+        case INT2:
+          return INT2;
+        case INT4:
+          return INT4;
+        case INT8:
+          return INT8;
+        case FLOAT4:
+          return FLOAT4;
+        case FLOAT8:
+          return FLOAT8;
+        default:
+          return null;
+      }
+    }
+
+    public Object box(long bits) {
+      switch (this) {
+        case BOOL:
+          return bits != 0;
+        case INT2:
+          return (short) bits;
+        case INT4:
+          return (int) bits;
+        case INT8:
+          return bits;
+        case FLOAT4:
+          return Float.intBitsToFloat((int) bits);
+        default:
+          return Double.longBitsToDouble(bits);
+      }
+    }
+
+    long toLong(long bits) {
+      switch (this) {
+        case BOOL:
+          throw new ClassCastException("Boolean cannot be cast to a number");
+        case FLOAT4:
+          return (long) Float.intBitsToFloat((int) bits);
+        case FLOAT8:
+          return (long) Double.longBitsToDouble(bits);
+        default:
+          return bits;
+      }
+    }
+
+    double toDouble(long bits) {
+      switch (this) {
+        case BOOL:
+          throw new ClassCastException("Boolean cannot be cast to a number");
+        case FLOAT4:
+          return Float.intBitsToFloat((int) bits);
+        case FLOAT8:
+          return Double.longBitsToDouble(bits);
+        default:
+          return bits;
+      }
+    }
+  }
+
+  private Object[] values; // A Slot when the value is stored in the slots array
+  private long[] slots; // Allocated with the first slot value
+  private int size;
+
   public ArrayTuple(int len) {
-    super(len);
+    values = len == 0 ? EMPTY_VALUES : new Object[len];
   }
 
   public ArrayTuple(Collection<?> c) {
-    super(c);
+    if (c instanceof ArrayTuple) {
+      ArrayTuple that = (ArrayTuple) c;
+      values = Arrays.copyOf(that.values, that.size);
+      slots = that.slots != null ? Arrays.copyOf(that.slots, that.size) : null;
+      size = that.size;
+    } else {
+      values = c.toArray();
+      size = values.length;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private int checkIndex(int pos) {
+    if (pos < 0 || pos >= size) {
+      throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + size);
+    }
+    return pos;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      int len = Math.max(capacity, values.length + (values.length >> 1) + 1);
+      values = Arrays.copyOf(values, len);
+      if (slots != null) {
+        slots = Arrays.copyOf(slots, len);
+      }
+    }
+  }
+
+  @Override
+  public Object get(int pos) {
+    return value(checkIndex(pos));
+  }
+
+  private Object value(int pos) {
+    Object val = values[pos];
+    if (val instanceof Slot) {
+      return ((Slot) val).box(slots[pos]);
+    }
+    return val;
+  }
+
+  @Override
+  public Object set(int pos, Object value) {
+    Object prev = value(checkIndex(pos));
+    values[pos] = value;
+    return prev;
+  }
+
+  @Override
+  public void add(int pos, Object value) {
+    if (pos < 0 || pos > size) {
+      throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + size);
+    }
+    ensureCapacity(size + 1);
+    if (pos < size) {
+      System.arraycopy(values, pos, values, pos + 1, size - pos);
+      if (slots != null) {
+        System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+      }
+    }
+    values[pos] = value;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Object remove(int pos) {
+    Object prev = value(checkIndex(pos));
+    int moved = size - pos - 1;
+    if (moved > 0) {
+      System.arraycopy(values, pos + 1, values, pos, moved);
+      if (slots != null) {
+        System.arraycopy(slots, pos + 1, slots, pos, moved);
+      }
+    }
+    values[--size] = null;
+    modCount++;
+    return prev;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * @return the value at {@code pos} as stored, a {@link Slot} when the value is stored in a slot
+   */
+  Object rawValue(int pos) {
+    return values[checkIndex(pos)];
+  }
+
+  /**
+   * @return the kind of the value at {@code pos} when it is stored in a slot, otherwise {@code null}
+   */
+  public Slot slot(int pos) {
+    Object val = values[checkIndex(pos)];
+    return val instanceof Slot ? (Slot) val : null;
+  }
+
+  /**
+   * @return the bits of the value stored in the slot at {@code pos}
+   */
+  public long slotBits(int pos) {
+    return slots[checkIndex(pos)];
+  }
+
+  private void putSlot(int pos, Slot slot, long bits) {
+    if (slots == null) {
+      slots = new long[values.length];
+    }
+    values[pos] = slot;
+    slots[pos] = bits;
+  }
+
+  /**
+   * Store a value unboxed in a slot at the end of the tuple.
+   */
+  public void addSlot(Slot slot, long bits) {
+    ensureCapacity(size + 1);
+    putSlot(size++, slot, bits);
+    modCount++;
+  }
+
+  /**
+   * Store a value unboxed in the slot at {@code pos}.
+   */
+  public void setSlot(int pos, Slot slot, long bits) {
+    putSlot(checkIndex(pos), slot, bits);
+  }
+
+  @Override
+  public boolean isNull(int pos) {
+    return rawValue(pos) == null;
+  }
+
+  @Override
+  public boolean getBooleanValue(int pos) {
+    Slot slot = slot(pos);
+    if (slot == Slot.BOOL) {
+      return slots[pos] != 0;
+    }
+    Object val = get(pos);
+    return val != null && (Boolean) val;
+  }
+
+  @Override
+  public short getShortValue(int pos) {
+    return (short) getLongValue(pos);
+  }
+
+  @Override
+  public int getIntValue(int pos) {
+    return (int) getLongValue(pos);
+  }
+
+  @Override
+  public long getLongValue(int pos) {
+    Slot slot = slot(pos);
+    if (slot != null) {
+      return slot.toLong(slots[pos]);
+    }
+    Object val = get(pos);
+    return val == null ? 0L : ((Number) val).longValue();
+  }
+
+  @Override
+  public float getFloatValue(int pos) {
+    return (float) getDoubleValue(pos);
+  }
+
+  @Override
+  public double getDoubleValue(int pos) {
+    Slot slot = slot(pos);
+    if (slot != null) {
+      return slot.toDouble(slots[pos]);
+    }
+    Object val = get(pos);
+    return val == null ? 0D : ((Number) val).doubleValue();
+  }
+
+  @Override
+  public Tuple addBooleanValue(boolean value) {
+    addSlot(Slot.BOOL, value ? 1 : 0);
+    return this;
+  }
+
+  @Override
+  public Tuple addShortValue(short value) {
+    addSlot(Slot.INT2, value);
+    return this;
+  }
+
+  @Override
+  public Tuple addIntValue(int value) {
+    addSlot(Slot.INT4, value);
+    return this;
+  }
+
+  @Override
+  public Tuple addLongValue(long value) {
+    addSlot(Slot.INT8, value);
+    return this;
+  }
+
+  @Override
+  public Tuple addFloatValue(float value) {
+    addSlot(Slot.FLOAT4, Float.floatToRawIntBits(value));
+    return this;
+  }
+
+  @Override
+  public Tuple addDoubleValue(double value) {
+    addSlot(Slot.FLOAT8, Double.doubleToRawLongBits(value));
+    return this;
   }
 
   @Override
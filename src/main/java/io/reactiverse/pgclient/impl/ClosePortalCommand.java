@@ -25,11 +25,12 @@ import io.vertx.core.Handler;
  */
 class ClosePortalCommand extends CommandBase<Void> {
 
-  private final String portal;
+  final String portal;
 
   ClosePortalCommand(String portal, Handler<? super CommandResponse<Void>> handler) {
     super(handler);
     this.portal = portal;
+    this.internal = true;
   }
 
   @Override
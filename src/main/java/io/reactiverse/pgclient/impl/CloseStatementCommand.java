@@ -17,7 +17,8 @@
 
 package io.reactiverse.pgclient.impl;
 
-import io.reactiverse.pgclient.impl.codec.decoder.InboundMessage;
+import io.reactiverse.pgclient.PgException;
+import io.reactiverse.pgclient.impl.codec.decoder.ErrorResponse;
 import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
 import io.vertx.core.Handler;
 
@@ -26,20 +27,37 @@ import io.vertx.core.Handler;
  */
 class CloseStatementCommand extends CommandBase<Void> {
 
+  private final long statement; // 0 means there is nothing to close
+
   CloseStatementCommand(Handler<? super CommandResponse<Void>> handler) {
+    this(0, handler);
+  }
+
+  CloseStatementCommand(long statement, Handler<? super CommandResponse<Void>> handler) {
     super(handler);
+    this.statement = statement;
+    this.internal = true;
   }
 
   @Override
   void exec(MessageEncoder out) {
-    /*
-    if (conn.psCache == null) {
-      conn.writeMessage(new Close().setStatement(statement));
-      conn.writeMessage(Sync.INSTANCE);
+    if (statement == 0) {
+      // Unnamed statements don't need to be closed and named statements are owned by the cache
+      CommandResponse<Void> resp = CommandResponse.success(null);
+      completionHandler.handle(resp);
     } else {
+      out.writeCloseStatement(statement);
+      out.writeSync();
     }
-    */
-    CommandResponse<Void> resp = CommandResponse.success(null);
-    completionHandler.handle(resp);
+  }
+
+  @Override
+  public void handleCloseComplete() {
+    // Expected
+  }
+
+  @Override
+  public void handleErrorResponse(ErrorResponse errorResponse) {
+    failure = new PgException(errorResponse);
   }
 }
@@ -17,6 +17,7 @@
 
 package io.reactiverse.pgclient.impl;
 
+import io.netty.buffer.ByteBuf;
 import io.reactiverse.pgclient.impl.codec.TxStatus;
 import io.reactiverse.pgclient.impl.codec.decoder.ErrorResponse;
 import io.reactiverse.pgclient.impl.codec.decoder.NoticeResponse;
@@ -24,6 +25,7 @@ import io.reactiverse.pgclient.impl.codec.decoder.ParameterDescription;
 import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
 import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
 import io.vertx.core.Handler;
+import io.vertx.core.impl.NoStackTraceThrowable;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -31,11 +33,19 @@ import io.vertx.core.Handler;
 
 public abstract class CommandBase<R> {
 
+  static final String COPY_IN_NOT_SUPPORTED = "COPY FROM STDIN is only supported by PgConnection#copyIn";
+
   public Handler<? super CommandResponse<R>> completionHandler;
   public Handler<NoticeResponse> noticeHandler;
   Handler<? super CommandResponse<R>> handler;
   Throwable failure;
   R result;
+  long execTime;
+  long timerId = -1;
+  long queueTime;
+  boolean discarded;
+  boolean internal; // Releases backend resources or introspects types, never rejected by the pending/queue time bounds
+  MessageEncoder out; // The encoder of the connection executing the command
 
   public CommandBase(Handler<? super CommandResponse<R>> handler) {
     this.handler = handler;
@@ -65,6 +75,24 @@ public abstract class CommandBase<R> {
     System.out.println(getClass().getSimpleName() + " should handle message " + rowDescription);
   }
 
+  public void handleCopyInResponse() {
+    // The backend waits for COPY data that this command cannot provide, the COPY fails and the connection remains usable
+    out.writeCopyFail(COPY_IN_NOT_SUPPORTED);
+    out.flush();
+  }
+
+  public void handleCopyOutResponse() {
+    // The backend sends COPY data that this command cannot consume, the data is dropped and the command fails
+    failure = new NoStackTraceThrowable("COPY TO STDOUT is only supported by PgConnection#copyOut");
+  }
+
+  public void handleCopyData(ByteBuf data) {
+    // Dropped, see handleCopyOutResponse
+  }
+
+  public void handleCopyDone() {
+  }
+
   public void handleNoData() {
     System.out.println(getClass().getSimpleName() + " should handle message NoData");
   }
@@ -131,4 +159,14 @@ public abstract class CommandBase<R> {
   final void fail(Throwable err) {
     handler.handle(CommandResponse.failure(err));
   }
+
+  /**
+   * Fail the command while it is in flight, its response is discarded when it is received.
+   */
+  final void discard(Throwable err) {
+    Handler<? super CommandResponse<R>> h = handler;
+    discarded = true;
+    handler = resp -> {};
+    h.handle(CommandResponse.failure(err));
+  }
 }
@@ -17,12 +17,42 @@
 
 package io.reactiverse.pgclient.impl;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
 public interface Connection {
 
   void init(Holder holder);
 
   boolean isSsl();
 
+  int pipeliningLimit();
+
+  /**
+   * @return the number of commands scheduled on this connection that are not yet completed
+   */
+  int load();
+
+  long preparedStatementCacheHits();
+
+  long preparedStatementCacheMisses();
+
+  long preparedStatementCacheEvictions();
+
+  void cancelRequest(Handler<AsyncResult<Void>> handler);
+
+  /**
+   * @return whether the responses of commands that timed out are still expected, the next commands would be
+   *         queued behind them
+   */
+  boolean isDraining();
+
+  /**
+   * Set a handler called once the connection is not {@link #isDraining() draining}, it is called immediately
+   * when the connection is not draining.
+   */
+  void drained(Handler<Void> handler);
+
   void schedule(CommandBase<?> cmd);
 
   void close(Holder holder);
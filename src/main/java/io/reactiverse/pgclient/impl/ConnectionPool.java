@@ -18,11 +18,18 @@
 package io.reactiverse.pgclient.impl;
 
 import io.vertx.core.*;
+import io.vertx.core.impl.NoStackTraceThrowable;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -30,29 +37,271 @@ import java.util.function.Consumer;
  */
 public class ConnectionPool {
 
+  /**
+   * The lifetime of a connection is shortened by a random amount up to this fraction so the connections
+   * created together are not recycled together.
+   */
+  private static final double LIFETIME_JITTER = 0.1;
+
+  // The connect retry delay stops doubling after this many failures
+  private static final int MAX_RETRY_BACKOFF = 10;
+
   private final Consumer<Handler<AsyncResult<Connection>>> connector;
   private final int maxSize;
-  private final ArrayDeque<Future<Connection>> waiters = new ArrayDeque<>();
+  private final int maxWaitQueueSize;
+  private final Semaphore permits;
+  private final int minIdle;
+  private final long maxIdleTime;
+  private final long maxLifetime;
+  private final long validationInterval;
+  private final long connectRetryDelay;
+  private final int maxConnectRetries;
+  private final BiConsumer<Long, Handler<Void>> timer;
+  private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
   private final Set<PooledConnection> all = new HashSet<>();
   private final ArrayDeque<PooledConnection> available = new ArrayDeque<>();
   private int size;
+  private int connecting;
+  private int connectFailures; // Consecutive connect failures
+  private boolean retryScheduled;
   private boolean checkInProgress;
   private boolean closed;
+  private Handler<Void> capacityHandler;
 
   public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize) {
+    this(connector, maxSize, -1, null);
+  }
+
+  public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize, int maxWaitQueueSize) {
+    this(connector, maxSize, maxWaitQueueSize, null);
+  }
+
+  public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize, Semaphore permits) {
+    this(connector, maxSize, -1, permits);
+  }
+
+  /**
+   * Create a pool whose connections also count against a budget shared with other pools, a permit
+   * is taken before connecting and given back when the connection is closed or fails to connect.
+   */
+  public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize, int maxWaitQueueSize, Semaphore permits) {
+    this(connector, maxSize, maxWaitQueueSize, permits, 0, 0, 0, 0);
+  }
+
+  /**
+   * Create a pool managing the lifecycle of its connections, the durations are in milliseconds and {@code 0}
+   * disables the corresponding check. The checks are performed by {@link #evict(long)}.
+   *
+   * @param minIdle the number of idle connections the pool keeps open
+   * @param maxIdleTime the time after which an idle connection above {@code minIdle} is closed
+   * @param maxLifetime the time after which a connection is closed, shortened by a random jitter
+   * @param validationInterval the time after which an idle connection is validated with a query
+   */
+  public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize, int maxWaitQueueSize, Semaphore permits,
+                        int minIdle, long maxIdleTime, long maxLifetime, long validationInterval) {
+    this(connector, maxSize, maxWaitQueueSize, permits, minIdle, maxIdleTime, maxLifetime, validationInterval, 0, 0, null);
+  }
+
+  /**
+   * Create a pool retrying to connect for its waiters after a failure. Each failure fails the waiters whose deadline
+   * has passed and a new connection is attempted after {@code connectRetryDelay} milliseconds, doubled after each
+   * consecutive failure. When {@code maxConnectRetries} consecutive failures have been retried, the next failure fails
+   * all the waiters.
+   *
+   * @param connectRetryDelay the delay before a connection is attempted again
+   * @param maxConnectRetries the number of consecutive failures that are retried
+   * @param timer calls the handler after a delay in milliseconds, {@code null} retries immediately
+   */
+  public ConnectionPool(Consumer<Handler<AsyncResult<Connection>>> connector, int maxSize, int maxWaitQueueSize, Semaphore permits,
+                        int minIdle, long maxIdleTime, long maxLifetime, long validationInterval,
+                        long connectRetryDelay, int maxConnectRetries, BiConsumer<Long, Handler<Void>> timer) {
     this.maxSize = maxSize;
+    this.maxWaitQueueSize = maxWaitQueueSize;
     this.connector = connector;
+    this.permits = permits;
+    this.minIdle = Math.min(minIdle, maxSize);
+    this.maxIdleTime = TimeUnit.MILLISECONDS.toNanos(maxIdleTime);
+    this.maxLifetime = TimeUnit.MILLISECONDS.toNanos(maxLifetime);
+    this.validationInterval = TimeUnit.MILLISECONDS.toNanos(validationInterval);
+    this.connectRetryDelay = connectRetryDelay;
+    this.maxConnectRetries = maxConnectRetries;
+    this.timer = timer;
   }
 
   public int available() {
     return available.size();
   }
 
+  /**
+   * @return the number of waiters not yet served
+   */
+  public int waiters() {
+    return waiters.size();
+  }
+
+  /**
+   * @return the number of connections, including the ones being connected
+   */
+  public int size() {
+    return size;
+  }
+
   public void acquire(Handler<AsyncResult<Connection>> holder) {
+    acquire(holder, 0);
+  }
+
+  /**
+   * Acquire a connection, the waiter fails when the pool fails to connect after its {@code deadline}.
+   *
+   * @param holder the waiter
+   * @param deadline the deadline in nanoseconds, as given by {@link System#nanoTime()}, {@code 0} means none
+   */
+  public void acquire(Handler<AsyncResult<Connection>> holder, long deadline) {
     if (closed) {
       throw new IllegalStateException("Connection pool closed");
     }
-    waiters.add(Future.<Connection>future().setHandler(holder));
+    waiters.add(new Waiter(holder, deadline));
+    check();
+    // The waiters served by the connections being created don't count
+    if (maxWaitQueueSize >= 0 && waiters.size() - connecting > maxWaitQueueSize) {
+      waiters.pollLast().handler.handle(Future.failedFuture(new NoStackTraceThrowable("Connection pool reached max wait queue size of " + maxWaitQueueSize)));
+    }
+  }
+
+  /**
+   * Remove a waiter that is not yet served, e.g when its acquisition timed out.
+   *
+   * @param holder the waiter
+   * @return {@code true} when the waiter was removed, {@code false} when it was already served
+   */
+  public boolean cancel(Handler<AsyncResult<Connection>> holder) {
+    return waiters.removeIf(waiter -> waiter.handler == holder);
+  }
+
+  /**
+   * Remove the oldest waiter so another pool can serve it.
+   *
+   * @return the waiter or {@code null} when there is none
+   */
+  public Handler<AsyncResult<Connection>> poll() {
+    Waiter waiter = waiters.poll();
+    return waiter != null ? waiter.handler : null;
+  }
+
+  /**
+   * Set a handler called when the pool has capacity it does not use: a connection is idle after the waiters
+   * have been served or a permit shared with other pools is given back.
+   */
+  public void capacityHandler(Handler<Void> handler) {
+    capacityHandler = handler;
+  }
+
+  private void handleCapacity() {
+    Handler<Void> handler = capacityHandler;
+    if (handler != null && !closed) {
+      handler.handle(null);
+    }
+  }
+
+  /**
+   * Schedule a command on the least loaded idle connection without acquiring it, the command is pipelined with
+   * the commands other callers scheduled on this connection. When every idle connection has reached its pipelining
+   * limit, a new connection is opened if the pool can grow and the command is queued on the least loaded connection.
+   *
+   * @param cmd the command
+   * @return {@code false} when the pool has no idle connection, the caller should acquire a connection instead
+   */
+  public boolean schedule(CommandBase<?> cmd) {
+    Connection conn = select();
+    if (conn == null) {
+      return false;
+    }
+    schedule(cmd, conn);
+    return true;
+  }
+
+  /**
+   * Select the idle connection {@link #schedule(CommandBase)} schedules a command on.
+   *
+   * @return the connection or {@code null} when the pool has no idle connection
+   */
+  public Connection select() {
+    if (closed) {
+      return null;
+    }
+    PooledConnection target = null;
+    int min = Integer.MAX_VALUE;
+    for (PooledConnection pooled : available) {
+      if (pooled.isDraining()) {
+        continue;
+      }
+      int load = pooled.load();
+      if (load < min) {
+        target = pooled;
+        min = load;
+      }
+    }
+    if (target == null) {
+      return null;
+    }
+    if (min >= target.pipeliningLimit() && connecting == 0) {
+      connect();
+    }
+    if (maxIdleTime > 0 || validationInterval > 0) {
+      long now = System.nanoTime();
+      target.idleSince = now;
+      target.validatedAt = now;
+    }
+    return target;
+  }
+
+  /**
+   * Schedule a command on a pooled connection without acquiring it, e.g the execution of a statement prepared
+   * on a connection returned by {@link #select()}. When the connection was acquired meanwhile, the command is
+   * scheduled once the connection is released. This must be called on the context of the pool of the connection.
+   *
+   * @param cmd the command
+   * @param conn the connection
+   */
+  public static void schedule(CommandBase<?> cmd, Connection conn) {
+    PooledConnection pooled = (PooledConnection) conn;
+    if (pooled.holder != null) {
+      pooled.deferred.add(cmd);
+    } else {
+      pooled.schedule(cmd);
+    }
+  }
+
+  /**
+   * Open connections until the pool has {@code minIdle} idle connections.
+   */
+  public void fill() {
+    check();
+  }
+
+  /**
+   * Close the idle connections that expired, validate the idle connections that were not used recently and open
+   * connections to get back to {@code minIdle} idle connections. The connections in use that expired are closed
+   * when they are released.
+   *
+   * @param now the current time in nanoseconds, as given by {@link System#nanoTime()}
+   */
+  public void evict(long now) {
+    if (closed) {
+      return;
+    }
+    int idle = available.size();
+    for (Iterator<PooledConnection> it = available.iterator();it.hasNext();) {
+      PooledConnection pooled = it.next();
+      if (pooled.isExpired(now) || (maxIdleTime > 0 && idle > minIdle && now - pooled.idleSince >= maxIdleTime)) {
+        it.remove();
+        idle--;
+        pooled.close();
+      } else if (validationInterval > 0 && now - pooled.validatedAt >= validationInterval) {
+        it.remove();
+        pooled.validate(now);
+      }
+    }
     check();
   }
 
@@ -65,9 +314,9 @@ public class ConnectionPool {
       pooled.close();
     }
     Future<Connection> failure = Future.failedFuture("Connection pool close");
-    for (Future<Connection> pending : waiters) {
+    for (Waiter pending : waiters) {
       try {
-        pending.handle(failure);
+        pending.handler.handle(failure);
       } catch (Exception ignore) {
       }
     }
@@ -76,10 +325,38 @@ public class ConnectionPool {
   private class PooledConnection implements Connection, Connection.Holder  {
 
     private final Connection conn;
+    private final long expiresAt;
+    private long idleSince;
+    private long validatedAt;
     private Holder holder;
+    private final ArrayDeque<CommandBase<?>> deferred = new ArrayDeque<>(); // Waiting for the holder to release it
 
-    PooledConnection(Connection conn) {
+    PooledConnection(Connection conn, long now) {
       this.conn = conn;
+      this.expiresAt = maxLifetime > 0 ? now + maxLifetime - (long) (maxLifetime * LIFETIME_JITTER * ThreadLocalRandom.current().nextDouble()) : 0;
+      this.idleSince = now;
+      this.validatedAt = now;
+    }
+
+    private boolean isExpired(long now) {
+      return expiresAt != 0 && now - expiresAt >= 0;
+    }
+
+    /**
+     * Check the connection with a query, it goes back to the pool when the query succeeds and is closed otherwise.
+     */
+    private void validate(long now) {
+      conn.schedule(new SimpleQueryCommand<>("SELECT 1", false, PgRowSetImpl.COLLECTOR, (updated, size, desc, rows) -> {}, ar -> {
+        if (ar.succeeded()) {
+          validatedAt = now;
+          if (all.contains(this) && !closed) {
+            available.add(this);
+            check();
+          }
+        } else if (all.contains(this)) {
+          close();
+        }
+      }));
     }
 
     @Override
@@ -92,6 +369,46 @@ public class ConnectionPool {
       return conn.isSsl();
     }
 
+    @Override
+    public int pipeliningLimit() {
+      return conn.pipeliningLimit();
+    }
+
+    @Override
+    public int load() {
+      return conn.load();
+    }
+
+    @Override
+    public long preparedStatementCacheHits() {
+      return conn.preparedStatementCacheHits();
+    }
+
+    @Override
+    public long preparedStatementCacheMisses() {
+      return conn.preparedStatementCacheMisses();
+    }
+
+    @Override
+    public long preparedStatementCacheEvictions() {
+      return conn.preparedStatementCacheEvictions();
+    }
+
+    @Override
+    public void cancelRequest(Handler<AsyncResult<Void>> handler) {
+      conn.cancelRequest(handler);
+    }
+
+    @Override
+    public boolean isDraining() {
+      return conn.isDraining();
+    }
+
+    @Override
+    public void drained(Handler<Void> handler) {
+      conn.drained(handler);
+    }
+
     @Override
     public void schedule(CommandBase<?> cmd) {
       conn.schedule(cmd);
@@ -125,12 +442,22 @@ public class ConnectionPool {
     public void handleClosed() {
       if (all.remove(this)) {
         size--;
+        if (permits != null) {
+          permits.release();
+        }
         if (holder == null) {
           available.remove(this);
         } else {
           holder.handleClosed();
         }
+        CommandBase<?> cmd;
+        while ((cmd = deferred.poll()) != null) {
+          cmd.fail(new NoStackTraceThrowable("Connection closed"));
+        }
         check();
+        if (permits != null) {
+          handleCapacity();
+        }
       } else {
         throw new IllegalStateException();
       }
@@ -152,9 +479,26 @@ public class ConnectionPool {
   }
 
   private void release(PooledConnection proxy) {
-    if (all.contains(proxy)) {
-      available.add(proxy);
-      check();
+    if (proxy.isDraining()) {
+      // Kept out of the pool until the responses of the commands that timed out are received
+      proxy.drained(v -> release(proxy));
+    } else if (all.contains(proxy)) {
+      CommandBase<?> cmd;
+      while ((cmd = proxy.deferred.poll()) != null) {
+        proxy.schedule(cmd);
+      }
+      long now = System.nanoTime();
+      if (proxy.isExpired(now)) {
+        proxy.close();
+      } else {
+        proxy.idleSince = now;
+        proxy.validatedAt = now;
+        available.add(proxy);
+        check();
+        if (available.size() > 0) {
+          handleCapacity();
+        }
+      }
     }
   }
 
@@ -168,33 +512,98 @@ public class ConnectionPool {
         while (waiters.size() > 0) {
           if (available.size() > 0) {
             PooledConnection proxy = available.poll();
-            Future<Connection> waiter = waiters.poll();
-            waiter.complete(proxy);
-          } else {
-            if (size < maxSize) {
-              size++;
-              connector.accept(ar -> {
-                if (ar.succeeded()) {
-                  Connection conn = ar.result();
-                  PooledConnection proxy = new PooledConnection(conn);
-                  all.add(proxy);
-                  conn.init(proxy);
-                  release(proxy);
-                } else {
-                  Future<Connection> waiter;
-                  while ((waiter = waiters.poll()) != null) {
-                    waiter.fail(ar.cause());
-                  }
-                }
-              });
-            } else {
-              break;
-            }
+            Waiter waiter = waiters.poll();
+            waiter.handler.handle(Future.succeededFuture(proxy));
+          } else if (!connect()) {
+            break;
           }
         }
+        // Pre-warm the idle connections, the waiters have been served at this point
+        int idle = available.size() + connecting;
+        while (idle < minIdle && connect()) {
+          idle++;
+        }
       } finally {
         checkInProgress = false;
       }
     }
   }
+
+  private void handleConnectFailure(Throwable cause) {
+    if (closed) {
+      return;
+    }
+    List<Waiter> failed = new ArrayList<>();
+    if (++connectFailures > maxConnectRetries) {
+      // No retry left, the next acquisition starts over
+      connectFailures = 0;
+      failed.addAll(waiters);
+      waiters.clear();
+    } else {
+      long now = System.nanoTime();
+      for (Iterator<Waiter> it = waiters.iterator();it.hasNext();) {
+        Waiter waiter = it.next();
+        if (waiter.deadline != 0 && now - waiter.deadline >= 0) {
+          it.remove();
+          failed.add(waiter);
+        }
+      }
+      if (waiters.size() > 0) {
+        long delay = connectRetryDelay << Math.min(connectFailures - 1, MAX_RETRY_BACKOFF);
+        if (delay > 0 && timer != null) {
+          retryScheduled = true;
+          timer.accept(delay, v -> {
+            retryScheduled = false;
+            check();
+          });
+        } else {
+          check();
+        }
+      }
+    }
+    for (Waiter waiter : failed) {
+      waiter.handler.handle(Future.failedFuture(cause));
+    }
+  }
+
+  private boolean connect() {
+    if (!retryScheduled && size < maxSize && (permits == null || permits.tryAcquire())) {
+      size++;
+      connecting++;
+      connector.accept(ar -> {
+        connecting--;
+        if (ar.succeeded()) {
+          connectFailures = 0;
+          Connection conn = ar.result();
+          PooledConnection proxy = new PooledConnection(conn, System.nanoTime());
+          all.add(proxy);
+          conn.init(proxy);
+          release(proxy);
+        } else {
+          size--;
+          if (permits != null) {
+            permits.release();
+          }
+          handleConnectFailure(ar.cause());
+          if (permits != null) {
+            handleCapacity();
+          }
+        }
+      });
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private static class Waiter {
+
+    private final Handler<AsyncResult<Connection>> handler;
+    private final long deadline;
+
+    private Waiter(Handler<AsyncResult<Connection>> handler, long deadline) {
+      this.handler = handler;
+      this.deadline = deadline;
+    }
+  }
 }
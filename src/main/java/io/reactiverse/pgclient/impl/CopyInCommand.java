@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.PgException;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.ErrorResponse;
+import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.ParamEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.Query;
+import io.reactiverse.pgclient.impl.codec.util.Util;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.impl.NoStackTraceThrowable;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Executes a {@code COPY FROM STDIN} statement with the data of a stream, the stream is paused when
+ * the socket cannot be written.
+ *
+ * The stream provides either raw COPY data buffers or tuples encoded in the binary COPY format.
+ */
+class CopyInCommand<T> extends CommandBase<Integer> {
+
+  private static final int FLUSH_THRESHOLD = 16 * 1024;
+
+  private final String sql;
+  private final ReadStream<T> stream;
+  private final ParamEncoder[] encoders; // null when the stream provides raw COPY data
+  SocketConnection conn;
+  private boolean copying;
+  private boolean paused;
+  private boolean flushScheduled;
+
+  CopyInCommand(String sql, ReadStream<T> stream, DataType[] types, Handler<? super CommandResponse<Integer>> handler) {
+    super(handler);
+    this.sql = sql;
+    this.stream = stream;
+    this.encoders = types != null ? ParamEncoder.of(types, null) : null;
+  }
+
+  @Override
+  void exec(MessageEncoder out) {
+    out.writeQuery(new Query(sql));
+  }
+
+  @Override
+  public void handleCopyInResponse() {
+    copying = true;
+    if (encoders != null) {
+      out.writeCopyBinaryHeader();
+    }
+    stream.exceptionHandler(err -> onContext(() -> abort(err)));
+    stream.endHandler(v -> onContext(this::end));
+    stream.handler(item -> onContext(() -> write(item)));
+    stream.resume();
+  }
+
+  private void onContext(Runnable action) {
+    Context context = conn.context();
+    if (Vertx.currentContext() == context) {
+      action.run();
+    } else {
+      context.runOnContext(v -> action.run());
+    }
+  }
+
+  private void write(T item) {
+    if (!copying) {
+      return;
+    }
+    if (encoders == null) {
+      out.writeCopyData(((Buffer) item).getByteBuf());
+    } else {
+      List<Object> values = (List<Object>) item;
+      if (!prepare(values)) {
+        abort(new NoStackTraceThrowable(Util.buildInvalidArgsError(values.stream(), Stream.of(encoders).map(ParamEncoder::javaType))));
+        return;
+      }
+      out.writeCopyBinaryTuple(encoders, values);
+    }
+    if (out.size() >= FLUSH_THRESHOLD) {
+      flush();
+    } else if (!flushScheduled) {
+      // Coalesce the items delivered during the same event loop task
+      flushScheduled = true;
+      conn.context().runOnContext(v -> {
+        flushScheduled = false;
+        flush();
+      });
+    }
+  }
+
+  private boolean prepare(List<Object> values) {
+    if (values.size() != encoders.length) {
+      return false;
+    }
+    for (int i = 0;i < encoders.length;i++) {
+      if (!encoders[i].prepare(values, i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void flush() {
+    out.flush();
+    if (copying && !paused && conn.writeQueueFull()) {
+      paused = true;
+      stream.pause();
+      conn.drainHandler(v -> {
+        conn.drainHandler(null);
+        paused = false;
+        if (copying) {
+          stream.resume();
+        }
+      });
+    }
+  }
+
+  private void end() {
+    if (copying) {
+      stop();
+      if (encoders != null) {
+        out.writeCopyBinaryTrailer();
+      }
+      out.writeCopyDone();
+      out.flush();
+    }
+  }
+
+  private void abort(Throwable err) {
+    if (copying) {
+      stop();
+      failure = err;
+      out.writeCopyFail(err.getMessage() != null ? err.getMessage() : err.getClass().getName());
+      out.flush();
+    }
+  }
+
+  /**
+   * Stop reading the stream.
+   */
+  void stop() {
+    copying = false;
+    stream.handler(null);
+    stream.endHandler(null);
+    stream.exceptionHandler(null);
+    if (paused) {
+      paused = false;
+      conn.drainHandler(null);
+    }
+  }
+
+  @Override
+  public void handleCommandComplete(int updated) {
+    result = updated;
+  }
+
+  @Override
+  public void handleErrorResponse(ErrorResponse errorResponse) {
+    if (copying) {
+      stop();
+    }
+    if (failure == null) {
+      failure = new PgException(errorResponse);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgException;
+import io.reactiverse.pgclient.impl.codec.decoder.ColumnDecoder;
+import io.reactiverse.pgclient.impl.codec.decoder.ErrorResponse;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.Query;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Executes a {@code COPY TO STDOUT} statement and emits the COPY data to a {@link CopyOutStreamImpl}.
+ *
+ * The stream receives either the raw COPY data buffers or the rows decoded from the binary COPY format.
+ */
+class CopyOutCommand<T> extends CommandBase<Integer> {
+
+  private static final int BINARY_SIGNATURE_LENGTH = 11;
+
+  private final String sql;
+  private final RowDescription desc; // null when the stream receives raw COPY data
+  private final CopyOutStreamImpl<T> stream;
+  SocketConnection conn;
+  private boolean header;
+
+  CopyOutCommand(String sql, RowDescription desc, CopyOutStreamImpl<T> stream) {
+    super(stream::handleEnd);
+    this.sql = sql;
+    this.desc = desc;
+    this.stream = stream;
+  }
+
+  @Override
+  void exec(MessageEncoder out) {
+    out.writeQuery(new Query(sql));
+  }
+
+  @Override
+  public void handleCopyOutResponse() {
+    stream.init(this);
+  }
+
+  @Override
+  public void handleCopyData(ByteBuf data) {
+    if (desc == null) {
+      stream.handleItem((T) Buffer.buffer(Unpooled.copiedBuffer(data)));
+    } else {
+      if (!header) {
+        header = true;
+        data.skipBytes(BINARY_SIGNATURE_LENGTH + 4);
+        int extensionLength = data.readInt();
+        data.skipBytes(extensionLength);
+      }
+      while (data.isReadable()) {
+        int len = data.readShort();
+        if (len == -1) {
+          // Trailer
+          break;
+        }
+        ColumnDecoder[] decoders = desc.decoders();
+        RowImpl row = new RowImpl(desc);
+        for (int c = 0;c < len;c++) {
+          int length = data.readInt();
+          if (length == -1) {
+            row.add(null);
+          } else {
+            decoders[c].add(row, length, data);
+          }
+        }
+        stream.handleItem((T) row);
+      }
+    }
+  }
+
+  /**
+   * Stop decoding the messages received from the backend.
+   */
+  void pauseRead() {
+    conn.pauseRead();
+  }
+
+  /**
+   * Decode the messages received from the backend again.
+   */
+  void resumeRead() {
+    conn.resumeRead();
+  }
+
+  @Override
+  public void handleCommandComplete(int updated) {
+    result = updated;
+  }
+
+  @Override
+  public void handleErrorResponse(ErrorResponse errorResponse) {
+    failure = new PgException(errorResponse);
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.PgStream;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayDeque;
+
+/**
+ * The stream of a {@code COPY TO STDOUT} statement.
+ *
+ * The COPY is started when a handler is set. Pausing the stream stops decoding the messages received from
+ * the backend and reading the socket, so the backend stops sending data when the socket buffers are full.
+ */
+public class CopyOutStreamImpl<T> implements PgStream<T> {
+
+  private final Context context;
+  private final Handler<CopyOutStreamImpl<T>> start;
+  private final ArrayDeque<T> pending = new ArrayDeque<>(1);
+  private CopyOutCommand<T> cmd;
+  private Handler<T> handler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<AsyncResult<Void>> closeHandler;
+  private boolean started;
+  private boolean paused;
+  private boolean readPaused;
+  private boolean closed;
+  private boolean ended;
+  private AsyncResult<Integer> pendingEnd;
+
+  /**
+   * @param context the connection context
+   * @param start called to schedule the COPY statement when a handler is set
+   */
+  CopyOutStreamImpl(Context context, Handler<CopyOutStreamImpl<T>> start) {
+    this.context = context;
+    this.start = start;
+  }
+
+  @Override
+  public synchronized PgStream<T> exceptionHandler(Handler<Throwable> handler) {
+    exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public PgStream<T> handler(Handler<T> handler) {
+    synchronized (this) {
+      this.handler = handler;
+      if (handler == null || started || closed) {
+        return this;
+      }
+      started = true;
+    }
+    start.handle(this);
+    return this;
+  }
+
+  @Override
+  public synchronized PgStream<T> pause() {
+    // The socket read is paused when the next item is received
+    paused = true;
+    return this;
+  }
+
+  @Override
+  public PgStream<T> resume() {
+    synchronized (this) {
+      paused = false;
+    }
+    onContext(this::drain);
+    return this;
+  }
+
+  @Override
+  public synchronized PgStream<T> endHandler(Handler<Void> handler) {
+    endHandler = handler;
+    return this;
+  }
+
+  @Override
+  public void close() {
+    close(ar -> {});
+  }
+
+  @Override
+  public void close(Handler<AsyncResult<Void>> completionHandler) {
+    boolean running;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      closeHandler = completionHandler;
+      running = started && !ended;
+    }
+    if (running) {
+      // The remaining COPY data is read and discarded
+      onContext(this::drain);
+    } else {
+      completionHandler.handle(Future.succeededFuture());
+    }
+  }
+
+  private void onContext(Runnable action) {
+    if (Vertx.currentContext() == context) {
+      action.run();
+    } else {
+      context.runOnContext(v -> action.run());
+    }
+  }
+
+  void init(CopyOutCommand<T> cmd) {
+    this.cmd = cmd;
+  }
+
+  void handleItem(T item) {
+    Handler<T> h;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      if (paused || !pending.isEmpty()) {
+        pending.add(item);
+        pauseRead();
+        return;
+      }
+      h = handler;
+    }
+    if (h != null) {
+      h.handle(item);
+    }
+  }
+
+  private void pauseRead() {
+    if (!readPaused) {
+      readPaused = true;
+      cmd.pauseRead();
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      T item;
+      Handler<T> h;
+      synchronized (this) {
+        if (closed) {
+          pending.clear();
+        } else if (paused) {
+          return;
+        }
+        item = pending.poll();
+        if (item == null) {
+          break;
+        }
+        h = handler;
+      }
+      if (h != null) {
+        h.handle(item);
+      }
+    }
+    if (readPaused) {
+      readPaused = false;
+      cmd.resumeRead();
+    }
+    AsyncResult<Integer> ar;
+    synchronized (this) {
+      ar = pendingEnd;
+      pendingEnd = null;
+    }
+    if (ar != null) {
+      handleEnd(ar);
+    }
+  }
+
+  void handleEnd(AsyncResult<Integer> ar) {
+    Handler<AsyncResult<Void>> closeHandler;
+    Handler<Void> endHandler;
+    Handler<Throwable> exceptionHandler;
+    synchronized (this) {
+      if (!pending.isEmpty() && !closed) {
+        // Delivered when the pending items are drained
+        pendingEnd = ar;
+        return;
+      }
+      closeHandler = this.closeHandler;
+      endHandler = this.endHandler;
+      exceptionHandler = this.exceptionHandler;
+      this.closeHandler = null;
+      this.endHandler = null;
+      this.exceptionHandler = null;
+      this.handler = null;
+      ended = true;
+    }
+    if (closeHandler != null) {
+      closeHandler.handle(ar.succeeded() ? Future.succeededFuture() : Future.failedFuture(ar.cause()));
+    } else if (ar.succeeded()) {
+      if (endHandler != null) {
+        endHandler.handle(null);
+      }
+    } else if (exceptionHandler != null) {
+      exceptionHandler.handle(ar.cause());
+    }
+  }
+}
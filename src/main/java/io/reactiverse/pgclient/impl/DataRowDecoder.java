@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.impl.codec.decoder.RowDecoder;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+
+/**
+ * A collector container that decodes the {@code DataRow} messages itself, the {@link RowResultDecoder} does not
+ * create rows when the container of the collector implements this interface.
+ */
+public interface DataRowDecoder extends RowDecoder {
+
+  /**
+   * Called once before the rows of a result are decoded.
+   *
+   * @param desc the description of the rows, {@code null} when the statement returns no rows
+   */
+  void init(RowDescription desc);
+
+}
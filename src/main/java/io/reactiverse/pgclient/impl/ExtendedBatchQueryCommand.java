@@ -57,8 +57,7 @@ public class ExtendedBatchQueryCommand<T> extends ExtendedQueryCommandBase<T> {
   @Override
   void exec(MessageEncoder out) {
     if (suspended) {
-      out.writeExecute(portal, fetch);
-      out.writeSync();
+      out.writeExecuteSync(portal, fetch);
     } else {
       if (ps.bind.statement == 0) {
         out.writeParse(new Parse(ps.sql));
@@ -56,15 +56,13 @@ public class ExtendedQueryCommand<T> extends ExtendedQueryCommandBase<T> {
   @Override
   void exec(MessageEncoder out) {
     if (suspended) {
-      out.writeExecute(portal, fetch);
-      out.writeSync();
+      out.writeExecuteSync(portal, fetch);
     } else {
       if (ps.bind.statement == 0) {
         out.writeParse(new Parse(ps.sql));
       }
       out.writeBind(ps.bind, portal, (List<Object>) params);
-      out.writeExecute(portal, fetch);
-      out.writeSync();
+      out.writeExecuteSync(portal, fetch);
     }
   }
 }
@@ -55,6 +55,22 @@ abstract class ExtendedQueryCommandBase<R> extends QueryCommandBase<R> {
     return ps.sql;
   }
 
+  @Override
+  void decodeLazily() {
+    // Rows of a portal are handed to a cursor or a stream that outlive the result handler
+    if (portal == null) {
+      super.decodeLazily();
+    }
+  }
+
+  @Override
+  public void handleCopyInResponse() {
+    // The Sync following the Execute is ignored in copy-in mode, another Sync ends the failed COPY
+    out.writeCopyFail(COPY_IN_NOT_SUPPORTED);
+    out.writeSync();
+    out.flush();
+  }
+
   @Override
   public void handleParseComplete() {
     // Response to Parse
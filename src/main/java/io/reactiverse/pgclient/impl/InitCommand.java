@@ -40,7 +40,6 @@ public class InitCommand extends CommandBase<Connection> {
   private final String password;
   private final String database;
   private String encoding;
-  private MessageEncoder out;
 
   InitCommand(
     SocketConnection conn,
@@ -57,7 +56,6 @@ public class InitCommand extends CommandBase<Connection> {
 
   @Override
   void exec(MessageEncoder out) {
-    this.out = out;
     out.writeStartupMessage(new StartupMessage(username, database));
   }
 
@@ -88,6 +86,8 @@ public class InitCommand extends CommandBase<Connection> {
 
   @Override
   public void handleBackendKeyData(int processId, int secretKey) {
+    conn.processId = processId;
+    conn.secretKey = secretKey;
   }
 
   @Override
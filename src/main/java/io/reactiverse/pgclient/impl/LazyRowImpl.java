@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.reactiverse.pgclient.impl.codec.decoder.ColumnDecoder;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+
+/**
+ * A row that keeps a slice of the {@code DataRow} message and decodes a column the first time it is read.
+ * <p>
+ * The slice is released with the row set, after this the columns that were not read cannot be decoded anymore.
+ */
+class LazyRowImpl extends RowImpl {
+
+  private static final Object UNDECODED = new Object();
+
+  private final int[] offsets;
+  private ByteBuf data;
+
+  LazyRowImpl(RowDescription desc, int len, ByteBuf in) {
+    super(desc);
+    int start = in.readerIndex();
+    offsets = new int[len];
+    for (int c = 0; c < len; ++c) {
+      int offset = in.readerIndex() - start;
+      int length = in.readInt();
+      if (length == -1) {
+        add(null);
+      } else {
+        offsets[c] = offset;
+        add(UNDECODED);
+        in.skipBytes(length);
+      }
+    }
+    data = in.retainedSlice(start, in.readerIndex() - start);
+  }
+
+  @Override
+  public Object get(int pos) {
+    if (rawValue(pos) == UNDECODED) {
+      decode(pos);
+    }
+    return super.get(pos);
+  }
+
+  @Override
+  public Slot slot(int pos) {
+    if (rawValue(pos) == UNDECODED) {
+      decode(pos);
+    }
+    return super.slot(pos);
+  }
+
+  private void decode(int pos) {
+    if (data == null) {
+      throw new IllegalStateException("Row has been released");
+    }
+    int offset = offsets[pos];
+    int length = data.getInt(offset);
+    data.setIndex(offset + 4, offset + 4 + length);
+    desc.decoders()[pos].set(this, pos, length, data);
+  }
+
+  void release() {
+    if (data != null) {
+      data.release();
+      data = null;
+    }
+  }
+}
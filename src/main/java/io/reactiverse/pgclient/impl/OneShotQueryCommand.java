@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.Row;
+import io.reactiverse.pgclient.Tuple;
+import io.reactiverse.pgclient.data.Json;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+import io.reactiverse.pgclient.impl.codec.encoder.Bind;
+import io.reactiverse.pgclient.impl.codec.encoder.Describe;
+import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.Parse;
+import io.reactiverse.pgclient.impl.codec.encoder.ParamEncoder;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+
+/**
+ * Executes a query with the unnamed statement in a single round trip: the parameter types are inferred
+ * from the values instead of being described by the server and the result is described by the portal.
+ */
+class OneShotQueryCommand<T> extends QueryCommandBase<T> {
+
+  private static final Map<Class<?>, DataType> PARAMETER_TYPES = new HashMap<>();
+
+  static {
+    // Only the Java types mapped to a single data type are inferred
+    Set<Class<?>> ambiguous = new HashSet<>();
+    for (DataType dataType : DataType.values()) {
+      if (!ambiguous.contains(dataType.type) && PARAMETER_TYPES.put(dataType.type, dataType) != null) {
+        PARAMETER_TYPES.remove(dataType.type);
+        ambiguous.add(dataType.type);
+      }
+    }
+  }
+
+  /**
+   * Infer the parameter types of the {@code values}, {@code null}, {@code String} and {@code Json} values are
+   * typed as {@link DataType#UNKNOWN} and are sent as text.
+   *
+   * @return the types or {@code null} when a value type cannot be inferred
+   */
+  static DataType[] inferParameterTypes(List<Object> values) {
+    DataType[] types = new DataType[values.size()];
+    for (int i = 0;i < types.length;i++) {
+      Object value = values.get(i);
+      DataType type;
+      if (value == null || value instanceof String || value instanceof Json) {
+        type = DataType.UNKNOWN;
+      } else {
+        type = PARAMETER_TYPES.get(value.getClass());
+        if (type == null) {
+          return null;
+        }
+      }
+      types[i] = type;
+    }
+    return types;
+  }
+
+  private final String sql;
+  private final Tuple params;
+  private final DataType[] paramTypes;
+  private final Bind bind;
+  private final boolean singleton;
+
+  OneShotQueryCommand(String sql,
+                      Tuple params,
+                      DataType[] paramTypes,
+                      boolean singleton,
+                      Collector<Row, ?, T> collector,
+                      QueryResultHandler<T> resultHandler,
+                      Handler<AsyncResult<Boolean>> handler) {
+    super(collector, resultHandler, handler);
+    this.sql = sql;
+    this.params = params;
+    this.paramTypes = paramTypes;
+    // The result columns are not known yet, they are requested in text format
+    this.bind = new Bind(0, ParamEncoder.of(paramTypes, null), null);
+    this.singleton = singleton;
+  }
+
+  @Override
+  String sql() {
+    return sql;
+  }
+
+  @Override
+  void exec(MessageEncoder out) {
+    out.writeParse(new Parse(sql, 0, paramTypes));
+    out.writeBind(bind, null, (List<Object>) params);
+    out.writeDescribe(new Describe(0, ""));
+    out.writeExecuteSync(null, 0);
+  }
+
+  @Override
+  public void handleParseComplete() {
+    // Response to Parse
+  }
+
+  @Override
+  public void handleBindComplete() {
+    // Response to Bind
+  }
+
+  @Override
+  public void handleRowDescription(RowDescription rowDescription) {
+    // Response to Describe
+    decoder = new RowResultDecoder<>(collector, singleton, rowDescription);
+    decoder.lazy = lazy;
+  }
+
+  @Override
+  public void handleNoData() {
+    // Response to Describe
+  }
+}
@@ -18,11 +18,13 @@
 package io.reactiverse.pgclient.impl;
 
 import io.reactiverse.pgclient.*;
+import io.reactiverse.pgclient.impl.codec.DataType;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collector;
 
@@ -30,6 +32,14 @@ public abstract class PgClientBase<C extends PgClient> implements PgClient {
 
   protected abstract void schedule(CommandBase<?> cmd);
 
+  /**
+   * @return the scheduler of the commands of a single operation, e.g the prepare and execute commands of a prepared
+   *         query, so they are routed together
+   */
+  protected Consumer<CommandBase<?>> scheduler() {
+    return this::schedule;
+  }
+
   @Override
   public C query(String sql, Handler<AsyncResult<PgRowSet>> handler) {
     return query(sql, false,PgRowSetImpl.FACTORY, PgRowSetImpl.COLLECTOR, handler);
@@ -68,7 +78,8 @@ public abstract class PgClientBase<C extends PgClient> implements PgClient {
     Function<R1, R2> factory,
     Collector<Row, ?, R1> collector,
     Handler<AsyncResult<R3>> handler) {
-    schedule(new PrepareStatementCommand(sql, ar -> {
+    Consumer<CommandBase<?>> scheduler = scheduler();
+    PrepareStatementCommand prepare = new PrepareStatementCommand(sql, ar -> {
       if (ar.succeeded()) {
         PreparedStatement ps = ar.result();
         String msg = ps.prepare((List<Object>) arguments);
@@ -76,12 +87,21 @@ public abstract class PgClientBase<C extends PgClient> implements PgClient {
           handler.handle(Future.failedFuture(msg));
         } else {
           PgResultBuilder<R1, R2, R3> b = new PgResultBuilder<>(factory, handler);
-          schedule(new ExtendedQueryCommand<>(ps, arguments, singleton, collector, b, b));
+          scheduler.accept(new ExtendedQueryCommand<>(ps, arguments, singleton, collector, b, b));
         }
       } else {
         handler.handle(Future.failedFuture(ar.cause()));
       }
-    }));
+    });
+    prepare.oneShot = () -> {
+      DataType[] paramTypes = OneShotQueryCommand.inferParameterTypes((List<Object>) arguments);
+      if (paramTypes == null) {
+        return null;
+      }
+      PgResultBuilder<R1, R2, R3> b = new PgResultBuilder<>(factory, handler);
+      return new OneShotQueryCommand<>(sql, arguments, paramTypes, singleton, collector, b, b);
+    };
+    scheduler.accept(prepare);
     return (C) this;
   }
 
@@ -112,7 +132,8 @@ public abstract class PgClientBase<C extends PgClient> implements PgClient {
     Function<R1, R2> factory,
     Collector<Row, ?, R1> collector,
     Handler<AsyncResult<R3>> handler) {
-    schedule(new PrepareStatementCommand(sql, ar -> {
+    Consumer<CommandBase<?>> scheduler = scheduler();
+    scheduler.accept(new PrepareStatementCommand(sql, ar -> {
       if (ar.succeeded()) {
         PreparedStatement ps = ar.result();
         for  (Tuple args : batch) {
@@ -123,7 +144,7 @@ public abstract class PgClientBase<C extends PgClient> implements PgClient {
           }
         }
         PgResultBuilder<R1, R2, R3> b = new PgResultBuilder<>(factory, handler);
-        schedule(new ExtendedBatchQueryCommand<>(
+        scheduler.accept(new ExtendedBatchQueryCommand<>(
           ps,
           batch.iterator(),
           singleton,
@@ -0,0 +1,592 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgColumnSet;
+import io.reactiverse.pgclient.Row;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * The columnar result, the {@code DataRow} messages are decoded directly in the columns.
+ */
+public class PgColumnSetImpl implements PgColumnSet, DataRowDecoder {
+
+  public static final Collector<Row, PgColumnSetImpl, PgColumnSet> COLLECTOR = Collector.of(
+    PgColumnSetImpl::new,
+    PgColumnSetImpl::accumulate,
+    (set1, set2) -> null, // Shall not be invoked as this is sequential
+    PgColumnSetImpl::complete
+  );
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private RowDescription desc;
+  private Column[] columns;
+  private int size;
+
+  @Override
+  public void init(RowDescription desc) {
+    if (columns == null) {
+      this.desc = desc;
+      ColumnDesc[] descs = desc != null ? desc.columns() : new ColumnDesc[0];
+      columns = new Column[descs.length];
+      for (int i = 0;i < descs.length;i++) {
+        columns[i] = Column.create(descs[i]);
+      }
+    }
+  }
+
+  @Override
+  public void decodeRow(int len, ByteBuf in) {
+    ColumnDesc[] descs = desc.columns();
+    for (int c = 0;c < len;c++) {
+      int length = in.readInt();
+      Column column = columns[c];
+      if (length == -1) {
+        column.addNull(size);
+      } else if (descs[c].getDataFormat() == DataFormat.BINARY) {
+        column.decodeBinary(size, length, in);
+      } else {
+        column.decodeText(size, length, in);
+      }
+    }
+    size++;
+  }
+
+  private void accumulate(Row row) {
+    init(((RowImpl) row).desc);
+    for (int c = 0;c < columns.length;c++) {
+      Object value = row.getValue(c);
+      if (value == null) {
+        columns[c].addNull(size);
+      } else {
+        columns[c].add(size, value);
+      }
+    }
+    size++;
+  }
+
+  private PgColumnSet complete() {
+    if (columns == null) {
+      init(null);
+    }
+    for (Column column : columns) {
+      column.trim(size);
+    }
+    return this;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public List<String> columnsNames() {
+    return desc != null ? desc.columnNames() : Collections.emptyList();
+  }
+
+  @Override
+  public int columnIndex(String name) {
+    return desc != null ? desc.columnIndex(name) : -1;
+  }
+
+  private Column column(int column) {
+    if (column < 0 || column >= columns.length) {
+      throw new IndexOutOfBoundsException("Invalid column index " + column);
+    }
+    return columns[column];
+  }
+
+  private <C extends Column> C column(int column, Class<C> type, String stored) {
+    Column col = column(column);
+    if (!type.isInstance(col)) {
+      throw new ClassCastException("Column " + col.desc.getName() + " of type " + col.desc.getDataType() + " is not stored as " + stored);
+    }
+    return type.cast(col);
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Invalid row index " + row);
+    }
+  }
+
+  @Override
+  public boolean isNull(int column, int row) {
+    checkRow(row);
+    return column(column).nulls.get(row);
+  }
+
+  @Override
+  public BitSet getNulls(int column) {
+    return column(column).nulls;
+  }
+
+  @Override
+  public Object getValue(int column, int row) {
+    checkRow(row);
+    Column col = column(column);
+    return col.nulls.get(row) ? null : col.value(row);
+  }
+
+  @Override
+  public boolean[] getBooleanColumn(int column) {
+    return column(column, BooleanColumn.class, "boolean[]").values;
+  }
+
+  @Override
+  public int[] getIntColumn(int column) {
+    return column(column, IntColumn.class, "int[]").values;
+  }
+
+  @Override
+  public long[] getLongColumn(int column) {
+    return column(column, LongColumn.class, "long[]").values;
+  }
+
+  @Override
+  public double[] getDoubleColumn(int column) {
+    return column(column, DoubleColumn.class, "double[]").values;
+  }
+
+  @Override
+  public int[] getStringCodes(int column) {
+    return column(column, StringColumn.class, "dictionary codes").codes;
+  }
+
+  @Override
+  public String[] getStringDictionary(int column) {
+    StringColumn col = column(column, StringColumn.class, "dictionary codes");
+    return Arrays.copyOf(col.dictionary, col.dictionarySize);
+  }
+
+  @Override
+  public Object[] getObjectColumn(int column) {
+    return column(column, ObjectColumn.class, "Object[]").values;
+  }
+
+  private static abstract class Column {
+
+    final ColumnDesc desc;
+    final BitSet nulls = new BitSet();
+
+    Column(ColumnDesc desc) {
+      this.desc = desc;
+    }
+
+    static Column create(ColumnDesc desc) {
+      switch (desc.getDataType()) {
+        case BOOL:
+          return new BooleanColumn(desc);
+        case INT2:
+        case INT4:
+          return new IntColumn(desc);
+        case INT8:
+          return new LongColumn(desc);
+        case FLOAT4:
+        case FLOAT8:
+          return new DoubleColumn(desc);
+        case CHAR:
+        case VARCHAR:
+        case BPCHAR:
+        case TEXT:
+        case NAME:
+          return new StringColumn(desc);
+        case CUSTOM:
+          return new CustomColumn(desc);
+        default:
+          return new ObjectColumn(desc);
+      }
+    }
+
+    void addNull(int row) {
+      nulls.set(row);
+      ensureCapacity(row + 1);
+    }
+
+    void decodeBinary(int row, int length, ByteBuf in) {
+      add(row, DataTypeCodec.decodeBinary(desc.getDataType(), length, in));
+    }
+
+    void decodeText(int row, int length, ByteBuf in) {
+      add(row, DataTypeCodec.decodeText(desc.getDataType(), length, in));
+    }
+
+    static int newCapacity(int capacity, int length) {
+      return Math.max(capacity, Math.max(INITIAL_CAPACITY, length << 1));
+    }
+
+    abstract void ensureCapacity(int capacity);
+
+    abstract void add(int row, Object value);
+
+    abstract Object value(int row);
+
+    abstract void trim(int size);
+  }
+
+  private static class BooleanColumn extends Column {
+
+    boolean[] values = new boolean[0];
+
+    BooleanColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, newCapacity(capacity, values.length));
+      }
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      ensureCapacity(row + 1);
+      values[row] = in.readBoolean();
+    }
+
+    @Override
+    void add(int row, Object value) {
+      ensureCapacity(row + 1);
+      values[row] = (Boolean) value;
+    }
+
+    @Override
+    Object value(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  private static class IntColumn extends Column {
+
+    int[] values = new int[0];
+
+    IntColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, newCapacity(capacity, values.length));
+      }
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      ensureCapacity(row + 1);
+      values[row] = desc.getDataType() == DataType.INT2 ? in.readShort() : in.readInt();
+    }
+
+    @Override
+    void add(int row, Object value) {
+      ensureCapacity(row + 1);
+      values[row] = ((Number) value).intValue();
+    }
+
+    @Override
+    Object value(int row) {
+      return desc.getDataType() == DataType.INT2 ? (Object) (short) values[row] : (Object) values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  private static class LongColumn extends Column {
+
+    long[] values = new long[0];
+
+    LongColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, newCapacity(capacity, values.length));
+      }
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      ensureCapacity(row + 1);
+      values[row] = in.readLong();
+    }
+
+    @Override
+    void add(int row, Object value) {
+      ensureCapacity(row + 1);
+      values[row] = ((Number) value).longValue();
+    }
+
+    @Override
+    Object value(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  private static class DoubleColumn extends Column {
+
+    double[] values = new double[0];
+
+    DoubleColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, newCapacity(capacity, values.length));
+      }
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      ensureCapacity(row + 1);
+      if (desc.getDataType() == DataType.FLOAT4) {
+        values[row] = Float.intBitsToFloat(in.readInt());
+      } else {
+        values[row] = Double.longBitsToDouble(in.readLong());
+      }
+    }
+
+    @Override
+    void add(int row, Object value) {
+      ensureCapacity(row + 1);
+      values[row] = ((Number) value).doubleValue();
+    }
+
+    @Override
+    Object value(int row) {
+      return desc.getDataType() == DataType.FLOAT4 ? (Object) (float) values[row] : (Object) values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  /**
+   * A dictionary encoded string column, the dictionary is an open addressing hash table of the UTF-8 encoded
+   * values so a value already in the dictionary is looked up from the message bytes without decoding it.
+   */
+  private static class StringColumn extends Column {
+
+    int[] codes = new int[0];
+    String[] dictionary = new String[INITIAL_CAPACITY];
+    byte[][] encoded = new byte[INITIAL_CAPACITY][];
+    int[] hashes = new int[INITIAL_CAPACITY];
+    int dictionarySize;
+    int[] table = new int[INITIAL_CAPACITY * 2]; // code + 1, 0 for an empty entry
+
+    StringColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > codes.length) {
+        codes = Arrays.copyOf(codes, newCapacity(capacity, codes.length));
+      }
+    }
+
+    @Override
+    void addNull(int row) {
+      super.addNull(row);
+      codes[row] = -1;
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      ensureCapacity(row + 1);
+      codes[row] = lookup(in, length);
+    }
+
+    @Override
+    void decodeText(int row, int length, ByteBuf in) {
+      // Same encoding in text format
+      decodeBinary(row, length, in);
+    }
+
+    @Override
+    void add(int row, Object value) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      ByteBuf in = Unpooled.wrappedBuffer(bytes);
+      decodeBinary(row, bytes.length, in);
+    }
+
+    private int lookup(ByteBuf in, int length) {
+      int index = in.readerIndex();
+      int hash = 1;
+      for (int i = 0;i < length;i++) {
+        hash = 31 * hash + in.getByte(index + i);
+      }
+      int mask = table.length - 1;
+      int slot = mix(hash) & mask;
+      while (true) {
+        int entry = table[slot];
+        if (entry == 0) {
+          break;
+        }
+        int code = entry - 1;
+        if (hashes[code] == hash && matches(encoded[code], in, index, length)) {
+          in.skipBytes(length);
+          return code;
+        }
+        slot = (slot + 1) & mask;
+      }
+      byte[] bytes = new byte[length];
+      in.readBytes(bytes);
+      int code = dictionarySize++;
+      if (code == dictionary.length) {
+        int len = dictionary.length << 1;
+        dictionary = Arrays.copyOf(dictionary, len);
+        encoded = Arrays.copyOf(encoded, len);
+        hashes = Arrays.copyOf(hashes, len);
+      }
+      dictionary[code] = new String(bytes, StandardCharsets.UTF_8);
+      encoded[code] = bytes;
+      hashes[code] = hash;
+      table[slot] = code + 1;
+      if (dictionarySize * 2 > table.length) {
+        rehash();
+      }
+      return code;
+    }
+
+    private void rehash() {
+      table = new int[table.length << 1];
+      int mask = table.length - 1;
+      for (int code = 0;code < dictionarySize;code++) {
+        int slot = mix(hashes[code]) & mask;
+        while (table[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = code + 1;
+      }
+    }
+
+    private static int mix(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(byte[] bytes, ByteBuf in, int index, int length) {
+      if (bytes.length != length) {
+        return false;
+      }
+      for (int i = 0;i < length;i++) {
+        if (bytes[i] != in.getByte(index + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    Object value(int row) {
+      return dictionary[codes[row]];
+    }
+
+    @Override
+    void trim(int size) {
+      codes = Arrays.copyOf(codes, size);
+      // The lookup structures are not needed anymore
+      encoded = null;
+      hashes = null;
+      table = null;
+    }
+  }
+
+  private static class ObjectColumn extends Column {
+
+    Object[] values = new Object[0];
+
+    ObjectColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (capacity > values.length) {
+        values = Arrays.copyOf(values, newCapacity(capacity, values.length));
+      }
+    }
+
+    @Override
+    void add(int row, Object value) {
+      ensureCapacity(row + 1);
+      values[row] = value;
+    }
+
+    @Override
+    Object value(int row) {
+      return values[row];
+    }
+
+    @Override
+    void trim(int size) {
+      values = Arrays.copyOf(values, size);
+    }
+  }
+
+  private static class CustomColumn extends ObjectColumn {
+
+    CustomColumn(ColumnDesc desc) {
+      super(desc);
+    }
+
+    @Override
+    void decodeBinary(int row, int length, ByteBuf in) {
+      add(row, DataTypeCodec.decodeCustom(desc, length, in));
+    }
+
+    @Override
+    void decodeText(int row, int length, ByteBuf in) {
+      add(row, DataTypeCodec.decodeCustom(desc, length, in));
+    }
+  }
+}
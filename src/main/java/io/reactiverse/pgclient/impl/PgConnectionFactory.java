@@ -17,36 +17,93 @@
 
 package io.reactiverse.pgclient.impl;
 
+import io.reactiverse.pgclient.PgCodec;
 import io.reactiverse.pgclient.PgConnectOptions;
+import io.reactiverse.pgclient.PgRowSet;
+import io.reactiverse.pgclient.impl.codec.DataTypeRegistry;
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.impl.NetSocketInternal;
+import io.vertx.core.impl.NoStackTraceThrowable;
 import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.NetSocket;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  */
 public class PgConnectionFactory {
 
+  // Code of the CancelRequest message, in place of the protocol version of a StartupMessage
+  private static final int CANCEL_REQUEST_CODE = 80877102;
+  private static final String REGISTRIES = "__vertx.pgclient.registries";
+
   private final NetClient client;
   private final Context ctx;
   private final boolean registerCloseHook;
-  private final String host;
-  private final int port;
+  private final SocketAddress[] servers;
+  private final String targetSessionAttrs;
+  private final String loadBalanceHosts;
   private final boolean ssl;
   private final String database;
   private final String username;
   private final String password;
   private final boolean cachePreparedStatements;
+  private final int preparedStatementCacheMaxSize;
+  private final int preparedStatementCacheSqlLimit;
   private final int pipeliningLimit;
-  private final boolean isUsingDomainSocket;
+  private final boolean adaptivePipelining;
+  private final int minPipeliningLimit;
+  private final boolean lazyRowDecoding;
+  private final boolean inferParameterTypes;
+  private final boolean reuseWriteBuffer;
+  private final boolean coalesceWrites;
+  private final long queryTimeout;
+  private final int maxPendingCommands;
+  private final long maxQueueTime;
+  private final boolean waitForWritability;
+  private final DataTypeRegistry registry;
   private final Closeable hook;
+  private int roundRobin;
 
   public PgConnectionFactory(Context context,
                              boolean registerCloseHook,
                              PgConnectOptions options) {
+    this(context, registerCloseHook, options, registry(context.owner(), options));
+  }
+
+  /**
+   * @return the registry shared by the clients of {@code vertx} connecting to the same database with the same codecs,
+   *         so the types of a database are introspected once
+   */
+  public static DataTypeRegistry registry(Vertx vertx, PgConnectOptions options) {
+    StringBuilder key = new StringBuilder()
+      .append(options.isUsingDomainSocket() ? "unix:" : "").append(options.getHost()).append(':').append(options.getPort())
+      .append('/').append(options.getDatabase());
+    for (PgCodec<?> codec : options.getCodecs()) {
+      key.append(';').append(codec.getClass().getName()).append('=').append(codec.typeName());
+    }
+    LocalMap<String, DataTypeRegistry> registries = vertx.sharedData().getLocalMap(REGISTRIES);
+    DataTypeRegistry registry = registries.get(key.toString());
+    if (registry == null) {
+      registry = new DataTypeRegistry(options.getCodecs());
+      DataTypeRegistry prev = registries.putIfAbsent(key.toString(), registry);
+      if (prev != null) {
+        registry = prev;
+      }
+    }
+    return registry;
+  }
+
+  public PgConnectionFactory(Context context,
+                             boolean registerCloseHook,
+                             PgConnectOptions options,
+                             DataTypeRegistry registry) {
 
     hook = this::close;
     this.registerCloseHook = registerCloseHook;
@@ -62,15 +119,28 @@ public class PgConnectionFactory {
     netClientOptions.setSsl(false);
 
     this.ssl = options.isSsl();
-    this.host = options.getHost();
-    this.port = options.getPort();
+    this.servers = servers(options.getHost(), options.getPort(), options.isUsingDomainSocket());
+    this.targetSessionAttrs = options.getTargetSessionAttrs();
+    this.loadBalanceHosts = options.getLoadBalanceHosts();
     this.database = options.getDatabase();
     this.username = options.getUser();
     this.password = options.getPassword();
     this.client = context.owner().createNetClient(netClientOptions);
     this.cachePreparedStatements = options.getCachePreparedStatements();
+    this.preparedStatementCacheMaxSize = options.getPreparedStatementCacheMaxSize();
+    this.preparedStatementCacheSqlLimit = options.getPreparedStatementCacheSqlLimit();
     this.pipeliningLimit = options.getPipeliningLimit();
-    this.isUsingDomainSocket = options.isUsingDomainSocket();
+    this.adaptivePipelining = options.getAdaptivePipelining();
+    this.minPipeliningLimit = Math.min(options.getMinPipeliningLimit(), pipeliningLimit);
+    this.lazyRowDecoding = options.getLazyRowDecoding();
+    this.inferParameterTypes = options.getInferParameterTypes();
+    this.reuseWriteBuffer = options.getReuseWriteBuffer();
+    this.coalesceWrites = options.getCoalesceWrites();
+    this.queryTimeout = options.getQueryTimeout();
+    this.maxPendingCommands = options.getMaxPendingCommands();
+    this.maxQueueTime = options.getMaxQueueTime();
+    this.waitForWritability = options.getWaitForWritability();
+    this.registry = registry;
   }
 
   // Called by hook
@@ -90,19 +160,146 @@ public class PgConnectionFactory {
     if (Vertx.currentContext() != ctx) {
       throw new IllegalStateException();
     }
-    SocketAddress socketAddress;
-    if (!isUsingDomainSocket) {
-      socketAddress = SocketAddress.inetSocketAddress(port, host);
+    if (servers.length == 1 && targetSessionAttrs.equals("any")) {
+      connect(servers[0], completionHandler);
     } else {
-      socketAddress = SocketAddress.domainSocketAddress(host + "/.s.PGSQL." + port);
+      new Attempt(order(), completionHandler).next();
     }
+  }
+
+  /**
+   * @return the servers in the order they should be tried for a new connection
+   */
+  private SocketAddress[] order() {
+    SocketAddress[] order = servers.clone();
+    switch (loadBalanceHosts) {
+      case "random":
+        Random random = ThreadLocalRandom.current();
+        for (int i = order.length - 1;i > 0;i--) {
+          int j = random.nextInt(i + 1);
+          SocketAddress tmp = order[i];
+          order[i] = order[j];
+          order[j] = tmp;
+        }
+        break;
+      case "round-robin":
+        int start = roundRobin++ % order.length;
+        for (int i = 0;i < order.length;i++) {
+          order[i] = servers[(start + i) % order.length];
+        }
+        break;
+    }
+    return order;
+  }
+
+  /**
+   * Tries the servers in turn until one accepts the connection and matches the target session attributes.
+   */
+  private class Attempt {
+
+    private final SocketAddress[] servers;
+    private final Handler<? super CommandResponse<Connection>> completionHandler;
+    private int index;
+    private Throwable failure;
+    private Connection fallback;
+
+    private Attempt(SocketAddress[] servers, Handler<? super CommandResponse<Connection>> completionHandler) {
+      this.servers = servers;
+      this.completionHandler = completionHandler;
+    }
+
+    private void next() {
+      if (index < servers.length) {
+        connect(servers[index++], ar -> {
+          if (ar.succeeded()) {
+            check(ar.result());
+          } else {
+            failure = ar.cause();
+            next();
+          }
+        });
+      } else if (fallback != null) {
+        completionHandler.handle(CommandResponse.success(fallback));
+      } else if (failure != null) {
+        completionHandler.handle(CommandResponse.failure(failure));
+      } else {
+        completionHandler.handle(CommandResponse.failure(new NoStackTraceThrowable("No server matches target_session_attrs=" + targetSessionAttrs)));
+      }
+    }
+
+    private void check(Connection conn) {
+      if (targetSessionAttrs.equals("any")) {
+        completionHandler.handle(CommandResponse.success(conn));
+        return;
+      }
+      QueryResultHandler<PgRowSet> resultHandler = (updated, size, desc, rows) -> {
+        boolean readOnly = "on".equals(rows.iterator().next().getString(0));
+        switch (targetSessionAttrs) {
+          case "read-write":
+          case "primary":
+            accept(conn, !readOnly);
+            break;
+          case "read-only":
+          case "standby":
+            accept(conn, readOnly);
+            break;
+          default:
+            // prefer-standby
+            if (readOnly) {
+              accept(conn, true);
+            } else if (fallback == null) {
+              fallback = conn;
+              next();
+            } else {
+              accept(conn, false);
+            }
+            break;
+        }
+      };
+      conn.schedule(new SimpleQueryCommand<>("SHOW transaction_read_only", false, PgRowSetImpl.COLLECTOR, resultHandler, ar -> {
+        if (ar.failed()) {
+          failure = ar.cause();
+          conn.close(null);
+          next();
+        }
+      }));
+    }
+
+    private void accept(Connection conn, boolean matches) {
+      if (matches) {
+        if (fallback != null) {
+          fallback.close(null);
+        }
+        completionHandler.handle(CommandResponse.success(conn));
+      } else {
+        conn.close(null);
+        next();
+      }
+    }
+  }
+
+  private void connect(SocketAddress server, Handler<? super CommandResponse<Connection>> completionHandler) {
     Future<NetSocket> fut = Future.<NetSocket>future().setHandler(ar -> {
       if (ar.succeeded()) {
         NetSocketInternal socket = (NetSocketInternal) ar.result();
         SocketConnection conn = new SocketConnection(
           socket,
           cachePreparedStatements,
+          preparedStatementCacheMaxSize,
+          preparedStatementCacheSqlLimit,
           pipeliningLimit,
+          adaptivePipelining ? new PipeliningLimiter(minPipeliningLimit, pipeliningLimit) : null,
+          lazyRowDecoding,
+          inferParameterTypes,
+          reuseWriteBuffer,
+          coalesceWrites,
+          queryTimeout,
+          maxPendingCommands,
+          maxQueueTime,
+          waitForWritability,
+          this,
+          server,
+          registry,
           ssl,
           ctx);
         conn.initiateProtocolOrSsl(username, password, database, completionHandler);
@@ -111,10 +308,67 @@ public class PgConnectionFactory {
       }
     });
     try {
-      client.connect(socketAddress, null, fut);
+      client.connect(server, null, fut);
+    } catch (Exception e) {
+      // Client is closed
+      fut.fail(e);
+    }
+  }
+
+  /**
+   * Send a {@code CancelRequest} for the backend process identified by {@code processId} and {@code secretKey},
+   * the request is sent on a new connection that the server closes after reading it.
+   */
+  void cancelRequest(SocketAddress server, int processId, int secretKey, Handler<AsyncResult<Void>> handler) {
+    Future<NetSocket> fut = Future.<NetSocket>future().setHandler(ar -> {
+      if (ar.succeeded()) {
+        NetSocket socket = ar.result();
+        socket.closeHandler(v -> handler.handle(Future.succeededFuture()));
+        socket.write(Buffer.buffer(16)
+          .appendInt(16)
+          .appendInt(CANCEL_REQUEST_CODE)
+          .appendInt(processId)
+          .appendInt(secretKey));
+      } else {
+        handler.handle(Future.failedFuture(ar.cause()));
+      }
+    });
+    try {
+      client.connect(server, null, fut);
     } catch (Exception e) {
       // Client is closed
       fut.fail(e);
     }
   }
+
+  /**
+   * Parse the servers of a comma separated list like {@code host1:5432,[::1]:5433,host3}, the servers without
+   * a port use the default {@code port}.
+   */
+  static SocketAddress[] servers(String host, int port, boolean isUsingDomainSocket) {
+    if (isUsingDomainSocket) {
+      return new SocketAddress[] { SocketAddress.domainSocketAddress(host + "/.s.PGSQL." + port) };
+    }
+    String[] list = host.split(",");
+    SocketAddress[] servers = new SocketAddress[list.length];
+    for (int i = 0;i < list.length;i++) {
+      String server = list[i].trim();
+      String serverHost = server;
+      int serverPort = port;
+      int idx;
+      if (server.startsWith("[")) {
+        idx = server.indexOf(']');
+        serverHost = server.substring(1, idx);
+        if (idx + 1 < server.length()) {
+          serverPort = Integer.parseInt(server.substring(idx + 2));
+        }
+      } else if ((idx = server.indexOf(':')) != -1 && idx == server.lastIndexOf(':')) {
+        // Bare IPv6 addresses have several colons and no port
+        serverHost = server.substring(0, idx);
+        serverPort = Integer.parseInt(server.substring(idx + 1));
+      }
+      servers[i] = SocketAddress.inetSocketAddress(serverPort, serverHost);
+    }
+    return servers;
+  }
 }
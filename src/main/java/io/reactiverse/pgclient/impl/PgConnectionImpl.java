@@ -18,7 +18,15 @@
 package io.reactiverse.pgclient.impl;
 
 import io.reactiverse.pgclient.*;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -82,6 +90,32 @@ public class PgConnectionImpl extends PgClientBase<PgConnectionImpl> implements
     return conn.isSsl();
   }
 
+  @Override
+  public int pipeliningLimit() {
+    return conn.pipeliningLimit();
+  }
+
+  @Override
+  public long preparedStatementCacheHits() {
+    return conn.preparedStatementCacheHits();
+  }
+
+  @Override
+  public long preparedStatementCacheMisses() {
+    return conn.preparedStatementCacheMisses();
+  }
+
+  @Override
+  public long preparedStatementCacheEvictions() {
+    return conn.preparedStatementCacheEvictions();
+  }
+
+  @Override
+  public PgConnection cancelRequest(Handler<AsyncResult<Void>> handler) {
+    conn.cancelRequest(handler);
+    return this;
+  }
+
   @Override
   public PgConnection closeHandler(Handler<Void> handler) {
     closeHandler = handler;
@@ -150,4 +184,78 @@ public class PgConnectionImpl extends PgClientBase<PgConnectionImpl> implements
     }));
     return this;
   }
+
+  @Override
+  public PgConnection copyIn(String sql, ReadStream<Buffer> stream, Handler<AsyncResult<Integer>> handler) {
+    stream.pause();
+    schedule(new CopyInCommand<>(sql, stream, null, handler));
+    return this;
+  }
+
+  @Override
+  public PgConnection copyIn(String table, List<String> columns, ReadStream<Tuple> stream, Handler<AsyncResult<Integer>> handler) {
+    String name = quoteName(table);
+    String cols = columns.stream().map(PgConnectionImpl::quoteIdentifier).collect(Collectors.joining(", "));
+    stream.pause();
+    schedule(new PrepareStatementCommand("SELECT " + (columns.isEmpty() ? "*" : cols) + " FROM " + name, ar -> {
+      if (ar.succeeded()) {
+        RowDescription rowDesc = ar.result().rowDesc;
+        DataType[] types = new DataType[rowDesc.columns().length];
+        for (int i = 0;i < types.length;i++) {
+          DataType type = rowDesc.columns()[i].getDataType();
+          if (!type.supportsBinary || type == DataType.RECORD || type == DataType.RECORD_ARRAY || type == DataType.CUSTOM) {
+            handler.handle(Future.failedFuture("Column " + rowDesc.columns()[i].getName() + " of type " + type + " cannot be copied in binary format"));
+            return;
+          }
+          types[i] = type;
+        }
+        String sql = "COPY " + name + (columns.isEmpty() ? "" : " (" + cols + ")") + " FROM STDIN (FORMAT binary)";
+        schedule(new CopyInCommand<>(sql, stream, types, handler));
+      } else {
+        handler.handle(Future.failedFuture(ar.cause()));
+      }
+    }));
+    return this;
+  }
+
+  /**
+   * Quote a table name, the schema of a qualified name is quoted separately.
+   */
+  private static String quoteName(String table) {
+    int idx = table.indexOf('.');
+    return idx == -1 ? quoteIdentifier(table) : quoteIdentifier(table.substring(0, idx)) + "." + quoteIdentifier(table.substring(idx + 1));
+  }
+
+  private static String quoteIdentifier(String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+
+  @Override
+  public PgStream<Buffer> copyOut(String sql) {
+    return new CopyOutStreamImpl<>(context, stream -> schedule(new CopyOutCommand<>(sql, null, stream)));
+  }
+
+  @Override
+  public PgStream<Row> copyOutRows(String query) {
+    return new CopyOutStreamImpl<>(context, stream -> {
+      schedule(new PrepareStatementCommand(query, ar -> {
+        if (ar.succeeded()) {
+          RowDescription rowDesc = ar.result().rowDesc;
+          if (rowDesc == null) {
+            stream.handleEnd(Future.failedFuture("Query does not return rows"));
+            return;
+          }
+          for (ColumnDesc column : rowDesc.columns()) {
+            if (!column.getDataType().supportsBinary) {
+              stream.handleEnd(Future.failedFuture("Column " + column.getName() + " of type " + column.getDataType() + " cannot be copied in binary format"));
+              return;
+            }
+          }
+          schedule(new CopyOutCommand<>("COPY (" + query + ") TO STDOUT (FORMAT binary)", rowDesc, stream));
+        } else {
+          stream.handleEnd(Future.failedFuture(ar.cause()));
+        }
+      }));
+    });
+  }
 }
@@ -33,13 +33,16 @@ import static java.lang.String.*;
  * @author Billy Yuan <billy112487983@gmail.com>
  */
 public class PgConnectionUriParser {
-  private static final String FULL_URI_REGEX = "^postgre(?:s|sql)://(?:(\\w+(?::\\S+)?)@)?([0-9.]+|\\[[A-Za-z0-9:]+]|[A-Za-z0-9.%\\-_]+)?(?::(\\d+))?(?:/([A-Za-z0-9_\\-]+))?(?:\\?(.*))?$";
+  private static final String HOST_REGEX = "(?:[0-9.]+|\\[[A-Za-z0-9:]+]|[A-Za-z0-9.%\\-_]+)";
+  private static final String HOST_LIST_REGEX = HOST_REGEX + "(?::\\d+)?(?:," + HOST_REGEX + "(?::\\d+)?)+";
+  private static final String FULL_URI_REGEX = "^postgre(?:s|sql)://(?:(\\w+(?::\\S+)?)@)?(?:(" + HOST_LIST_REGEX + ")|(" + HOST_REGEX + ")?(?::(\\d+))?)(?:/([A-Za-z0-9_\\-]+))?(?:\\?(.*))?$";
 
   private static final int USER_INFO_GROUP = 1;
-  private static final int NET_LOCATION_GROUP = 2;
-  private static final int PORT_GROUP = 3;
-  private static final int DATABASE_GROUP = 4;
-  private static final int PARAMETER_GROUP = 5;
+  private static final int HOST_LIST_GROUP = 2;
+  private static final int NET_LOCATION_GROUP = 3;
+  private static final int PORT_GROUP = 4;
+  private static final int DATABASE_GROUP = 5;
+  private static final int PARAMETER_GROUP = 6;
 
   public static JsonObject parse(String connectionUri) {
     // if we get any exception during the parsing, then we throw an IllegalArgumentException.
@@ -61,6 +64,9 @@ public class PgConnectionUriParser {
       // parse the user and password
       parseUserandPassword(matcher.group(USER_INFO_GROUP), configuration);
 
+      // parse the list of hosts with their port
+      parseHostList(matcher.group(HOST_LIST_GROUP), configuration);
+
       // parse the IP address/host/unix domainSocket address
       parseNetLocation(matcher.group(NET_LOCATION_GROUP), configuration);
 
@@ -105,6 +111,13 @@ public class PgConnectionUriParser {
     parseNetLocationValue(decodeUrl(hostInfo), configuration);
   }
 
+  private static void parseHostList(String hostListInfo, JsonObject configuration) {
+    if (hostListInfo == null || hostListInfo.isEmpty()) {
+      return;
+    }
+    configuration.put("host", decodeUrl(hostListInfo));
+  }
+
   private static void parsePort(String portInfo, JsonObject configuration) {
     if (portInfo == null || portInfo.isEmpty()) {
       return;
@@ -162,6 +175,12 @@ public class PgConnectionUriParser {
           case "dbname":
             configuration.put("database", value);
             break;
+          case "target_session_attrs":
+            configuration.put("targetSessionAttrs", value);
+            break;
+          case "load_balance_hosts":
+            configuration.put("loadBalanceHosts", value);
+            break;
           default:
             configuration.put(key, value);
             break;
@@ -171,7 +190,7 @@ public class PgConnectionUriParser {
   }
 
   private static void parseNetLocationValue(String hostValue, JsonObject configuration) {
-    if (isRegardedAsIpv6Address(hostValue)) {
+    if (isRegardedAsIpv6Address(hostValue) && !hostValue.contains(",")) {
       configuration.put("host", hostValue.substring(1, hostValue.length() - 1));
     } else {
       configuration.put("host", hostValue);
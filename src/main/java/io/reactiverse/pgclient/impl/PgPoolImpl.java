@@ -18,23 +18,33 @@
 package io.reactiverse.pgclient.impl;
 
 import io.reactiverse.pgclient.*;
+import io.reactiverse.pgclient.impl.codec.DataTypeRegistry;
 import io.vertx.core.*;
+import io.vertx.core.impl.NoStackTraceThrowable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Todo :
- *
- * - handle timeout when acquiring a connection
- * - for per statement pooling, have several physical connection and use the less busy one to avoid head of line blocking effect
- *
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
  * @author <a href="mailto:emad.albloushi@gmail.com">Emad Alblueshi</a>
  */
 public class PgPoolImpl extends PgClientBase<PgPoolImpl> implements PgPool {
 
-  private final Context context;
-  private final PgConnectionFactory factory;
-  private final ConnectionPool pool;
+  private static final long MIN_EVICTION_PERIOD = 100;
+
+  private final PgPoolOptions options;
+  private final Shard shard;
+  private final Map<Context, Shard> shards;
+  private final Semaphore permits;
   private final boolean closeVertx;
+  private final DataTypeRegistry registry;
+  private volatile boolean closed;
+  private PgPoolImpl fallback;
+  private Handler<Throwable> fallbackHandler;
 
   public PgPoolImpl(Vertx vertx, boolean closeVertx, PgPoolOptions options) {
     int maxSize = options.getMaxSize();
@@ -44,19 +54,115 @@ public class PgPoolImpl extends PgClientBase<PgPoolImpl> implements PgPool {
     if (options.isUsingDomainSocket() && !vertx.isNativeTransportEnabled()) {
       throw new VertxException("Native transport is not available");
     }
-    this.context = vertx.getOrCreateContext();
-    this.factory = new PgConnectionFactory(context, Vertx.currentContext() != null, options);
-    this.pool = new ConnectionPool(factory::connect, maxSize);
+    this.options = options;
     this.closeVertx = closeVertx;
+    this.registry = PgConnectionFactory.registry(vertx, options);
+    if (options.getSharded()) {
+      this.permits = new Semaphore(maxSize);
+      this.shards = new ConcurrentHashMap<>();
+    } else {
+      this.permits = null;
+      this.shards = null;
+    }
+    this.shard = new Shard(vertx.getOrCreateContext(), Vertx.currentContext() != null);
+    if (shards != null) {
+      shards.put(shard.context, shard);
+    }
+  }
+
+  /**
+   * Serve the operations this pool fails to acquire a connection for with another pool, the {@code handler}
+   * is notified with the acquisition failure. This must be set before the pool is used.
+   */
+  void fallback(PgPoolImpl fallback, Handler<Throwable> handler) {
+    this.fallback = fallback;
+    this.fallbackHandler = handler;
+  }
+
+  /**
+   * @return the shard of the current event loop context or the default shard
+   */
+  private Shard shard() {
+    if (shards != null && !closed) {
+      Context current = Vertx.currentContext();
+      if (current != null && current.isEventLoopContext()) {
+        return shards.computeIfAbsent(current, ctx -> new Shard(ctx, false));
+      }
+    }
+    return shard;
+  }
+
+  /**
+   * Select the shard that should serve an acquisition initiated on the {@code local} shard. The local shard
+   * is used when it has an idle connection or can still create one, otherwise an idle connection is stolen
+   * from another shard. When nothing is idle the acquisition waits on the local shard, unless it has no
+   * connection at all in which case it waits on a shard that owns connections.
+   *
+   * The state of the other shards is read without synchronization, it is only a hint and the acquisition
+   * itself always happens on the context of the selected shard.
+   */
+  private Shard select(Shard local) {
+    if (shards == null || local.pool.available() > 0 || permits.availablePermits() > 0) {
+      return local;
+    }
+    for (Shard other : shards.values()) {
+      if (other != local && other.pool.available() > 0) {
+        return other;
+      }
+    }
+    if (local.pool.size() == 0) {
+      for (Shard other : shards.values()) {
+        if (other.pool.size() > 0) {
+          return other;
+        }
+      }
+    }
+    return local;
+  }
+
+  /**
+   * @return the period in milliseconds of the eviction task of the shards or {@code 0} when it is not needed
+   */
+  private long evictionPeriod() {
+    long period = Long.MAX_VALUE;
+    for (long interval : new long[] { options.getMaxIdleTime(), options.getMaxLifetime(), options.getValidationInterval() }) {
+      if (interval > 0) {
+        period = Math.min(period, interval);
+      }
+    }
+    if (period == Long.MAX_VALUE) {
+      return options.getMinIdle() > 0 ? MIN_EVICTION_PERIOD * 10 : 0;
+    }
+    return Math.max(MIN_EVICTION_PERIOD, period / 2);
   }
 
   @Override
   public void getConnection(Handler<AsyncResult<PgConnection>> handler) {
-    Context current = Vertx.currentContext();
-    if (current == context) {
-      pool.acquire(new ConnectionWaiter(handler));
+    if (fallback != null) {
+      Handler<AsyncResult<PgConnection>> next = handler;
+      handler = ar -> {
+        if (ar.succeeded()) {
+          next.handle(ar);
+        } else {
+          fallbackHandler.handle(ar.cause());
+          fallback.getConnection(next);
+        }
+      };
+    }
+    doGetConnection(handler);
+  }
+
+  private void doGetConnection(Handler<AsyncResult<PgConnection>> handler) {
+    Shard local = shard();
+    if (Vertx.currentContext() == local.context) {
+      Shard target = select(local);
+      if (target == local) {
+        local.getConnection(handler);
+      } else {
+        target.context.runOnContext(v -> target.getConnection(handler));
+      }
     } else {
-      context.runOnContext(v -> getConnection(handler));
+      local.context.runOnContext(v -> local.getConnection(handler));
     }
   }
 
@@ -75,21 +181,271 @@ public class PgPoolImpl extends PgClientBase<PgPoolImpl> implements PgPool {
 
   @Override
   protected void schedule(CommandBase<?> cmd) {
-    Context current = Vertx.currentContext();
-    if (current == context) {
-      pool.acquire(new CommandWaiter() {
+    schedule(cmd, null);
+  }
+
+  /**
+   * Schedule a command followed by the {@code next} command on the same connection, when {@code next} is not
+   * {@code null}.
+   */
+  void schedule(CommandBase<?> cmd, CommandBase<?> next) {
+    schedule(cmd, next, null);
+  }
+
+  /**
+   * Like {@link #schedule(CommandBase, CommandBase)}, the connection is recorded by {@code op} when it is not
+   * {@code null}.
+   */
+  private void schedule(CommandBase<?> cmd, CommandBase<?> next, Operation op) {
+    Shard local = shard();
+    if (Vertx.currentContext() == local.context) {
+      Shard target = select(local);
+      if (target == local) {
+        local.schedule(cmd, next, op);
+      } else {
+        target.context.runOnContext(v -> target.schedule(cmd, next, op));
+      }
+    } else {
+      local.context.runOnContext(v -> local.schedule(cmd, next, op));
+    }
+  }
+
+  @Override
+  protected Consumer<CommandBase<?>> scheduler() {
+    Operation op = operation();
+    return op != null ? op : super.scheduler();
+  }
+
+  /**
+   * @return a new operation or {@code null} when the pool is not multiplexed, its commands then acquire a connection
+   */
+  Operation operation() {
+    return options.isMultiplexed() ? new Operation() : null;
+  }
+
+  /**
+   * Schedules the commands of an operation of a multiplexed pool on the connection of its first command, e.g the
+   * execute command of a prepared query on the connection the statement was prepared on.
+   */
+  class Operation implements Consumer<CommandBase<?>> {
+
+    private volatile Context context;
+    private volatile Connection conn;
+
+    private void pin(Connection conn) {
+      this.context = Vertx.currentContext();
+      this.conn = conn;
+    }
+
+    @Override
+    public void accept(CommandBase<?> cmd) {
+      accept(cmd, null);
+    }
+
+    /**
+     * Schedule a command followed by the {@code next} command, when {@code next} is not {@code null}.
+     */
+    void accept(CommandBase<?> cmd, CommandBase<?> next) {
+      if (conn == null) {
+        schedule(cmd, next, this);
+      } else if (Vertx.currentContext() != context) {
+        // The connection is used on the context of its shard
+        context.runOnContext(v -> accept(cmd, next));
+      } else {
+        ConnectionPool.schedule(cmd, conn);
+        if (next != null) {
+          ConnectionPool.schedule(next, conn);
+        }
+      }
+    }
+  }
+
+  /**
+   * A connection pool bound to a context, all its operations happen on this context.
+   */
+  private class Shard {
+
+    private final Context context;
+    private final PgConnectionFactory factory;
+    private final ConnectionPool pool;
+    private long timerId = -1;
+    private boolean closed;
+
+    private Shard(Context context, boolean registerCloseHook) {
+      this.context = context;
+      this.factory = new PgConnectionFactory(context, registerCloseHook, options, registry);
+      this.pool = new ConnectionPool(factory::connect, options.getMaxSize(), options.getMaxWaitQueueSize(), permits,
+        options.getMinIdle(), options.getMaxIdleTime(), options.getMaxLifetime(), options.getValidationInterval(),
+        options.getConnectRetryDelay(), options.getMaxConnectRetries(), (delay, handler) -> context.owner().setTimer(delay, id -> handler.handle(null)));
+      long period = evictionPeriod();
+      if (options.getMinIdle() > 0 || period > 0) {
+        context.runOnContext(v -> {
+          if (!closed) {
+            pool.fill();
+            if (period > 0) {
+              timerId = context.owner().setPeriodic(period, id -> pool.evict(System.nanoTime()));
+            }
+          }
+        });
+      }
+      if (shards != null) {
+        pool.capacityHandler(v -> handleCapacity());
+      }
+    }
+
+    /**
+     * Called when this shard has an idle connection or gave a permit back: the other shards that have waiters
+     * are signaled so they can move them to this shard or use the permit. A shard left without connection nor
+     * waiter is removed, it is created again the next time its context uses the pool.
+     */
+    private void handleCapacity() {
+      for (Shard other : shards.values()) {
+        if (other != this && other.pool.waiters() > 0) {
+          other.context.runOnContext(v -> other.rebalance(this));
+        }
+      }
+      if (this != shard && pool.size() == 0 && pool.waiters() == 0) {
+        context.runOnContext(v -> {
+          if (!closed && pool.size() == 0 && pool.waiters() == 0 && shards.remove(context, this)) {
+            close();
+          }
+        });
+      }
+    }
+
+    /**
+     * Use a permit another shard gave back and move waiters to the {@code target} shard that has idle connections.
+     */
+    private void rebalance(Shard target) {
+      if (closed) {
+        return;
+      }
+      pool.fill();
+      for (int n = target.pool.available();n > 0 && pool.waiters() > 0;n--) {
+        Handler<AsyncResult<Connection>> waiter = pool.poll();
+        target.context.runOnContext(v -> target.enqueue(waiter));
+      }
+    }
+
+    private void getConnection(Handler<AsyncResult<PgConnection>> handler) {
+      acquire(new ConnectionWaiter(handler));
+    }
+
+    private void schedule(CommandBase<?> cmd, CommandBase<?> next, Operation op) {
+      if (next == null && options.isMultiplexed()) {
+        Connection conn = pool.select();
+        if (conn != null) {
+          // Pinned before scheduling, a cached statement is prepared right away
+          if (op != null) {
+            op.pin(conn);
+          }
+          pool.schedule(cmd, conn);
+          return;
+        }
+      }
+      acquire(new CommandWaiter() {
         @Override
         protected void onSuccess(Connection conn) {
+          if (op != null) {
+            // The waiter may have been moved to the shard of another context
+            op.pin(conn);
+          }
           conn.schedule(cmd);
+          if (next != null) {
+            conn.schedule(next);
+          }
           conn.close(this);
         }
         @Override
         protected void onFailure(Throwable cause) {
-          cmd.fail(cause);
+          if (fallback != null) {
+            fallbackHandler.handle(cause);
+            fallback.schedule(cmd, next, op);
+          } else {
+            cmd.fail(cause);
+            if (next != null) {
+              next.fail(cause);
+            }
+          }
         }
       });
-    } else {
-      context.runOnContext(v -> schedule(cmd));
+    }
+
+    private void acquire(Handler<AsyncResult<Connection>> waiter) {
+      long timeout = options.getAcquireTimeout();
+      if (timeout > 0) {
+        TimeoutWaiter timeoutWaiter = new TimeoutWaiter(waiter, timeout);
+        enqueue(timeoutWaiter);
+        if (!timeoutWaiter.completed) {
+          timeoutWaiter.timerId = context.owner().setTimer(timeout, id -> timeoutWaiter.expire());
+        }
+      } else {
+        enqueue(waiter);
+      }
+    }
+
+    private void enqueue(Handler<AsyncResult<Connection>> waiter) {
+      if (closed && !PgPoolImpl.this.closed) {
+        // The shard was removed, the waiter goes to the shard that replaces it
+        shard().enqueue(waiter);
+        return;
+      }
+      if (waiter instanceof TimeoutWaiter) {
+        TimeoutWaiter timeoutWaiter = (TimeoutWaiter) waiter;
+        timeoutWaiter.current = this;
+        pool.acquire(waiter, timeoutWaiter.deadline);
+      } else {
+        pool.acquire(waiter);
+      }
+    }
+
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (timerId != -1) {
+        context.owner().cancelTimer(timerId);
+      }
+      pool.close();
+      factory.close();
+    }
+  }
+
+  /**
+   * A waiter whose acquisition is cancelled by a timer unless the pool serves it before.
+   */
+  private class TimeoutWaiter implements Handler<AsyncResult<Connection>> {
+
+    private final Handler<AsyncResult<Connection>> waiter;
+    private final long timeout;
+    private final long deadline;
+    private volatile Shard current; // The shard the waiter waits on, it changes when the waiter is moved
+    private long timerId = -1;
+    private boolean completed;
+
+    private TimeoutWaiter(Handler<AsyncResult<Connection>> waiter, long timeout) {
+      this.waiter = waiter;
+      this.timeout = timeout;
+      this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    private void expire() {
+      Shard shard = current;
+      if (Vertx.currentContext() != shard.context) {
+        shard.context.runOnContext(v -> expire());
+      } else if (shard.pool.cancel(this)) {
+        waiter.handle(Future.failedFuture(new NoStackTraceThrowable("Timeout acquiring a connection after " + timeout + " ms")));
+      }
+    }
+
+    @Override
+    public void handle(AsyncResult<Connection> ar) {
+      completed = true;
+      if (timerId != -1) {
+        shard.context.owner().cancelTimer(timerId);
+      }
+      waiter.handle(ar);
     }
   }
 
@@ -143,8 +499,9 @@ public class PgPoolImpl extends PgClientBase<PgPoolImpl> implements PgPool {
     @Override
     public void handle(AsyncResult<Connection> ar) {
       if (ar.succeeded()) {
+        // Served on the context of the shard owning the connection, the waiter might have moved between shards
         Connection conn = ar.result();
-        PgConnectionImpl holder = new PgConnectionImpl(context, conn);
+        PgConnectionImpl holder = new PgConnectionImpl(Vertx.currentContext(), conn);
         conn.init(holder);
         handler.handle(Future.succeededFuture(holder));
       } else {
@@ -156,14 +513,21 @@ public class PgPoolImpl extends PgClientBase<PgPoolImpl> implements PgPool {
   @Override
   public void close() {
     Context current = Vertx.currentContext();
-    if (current == context) {
-      pool.close();
-      factory.close();
+    if (current == shard.context) {
+      closed = true;
+      if (shards != null) {
+        for (Shard other : shards.values()) {
+          if (other != shard) {
+            other.context.runOnContext(v -> other.close());
+          }
+        }
+      }
+      shard.close();
       if (closeVertx) {
-        context.owner().close();
+        shard.context.owner().close();
       }
     } else {
-      context.runOnContext(v -> close());
+      shard.context.runOnContext(v -> close());
     }
   }
 }
@@ -47,4 +47,10 @@ public abstract class PgResultBase<T, R extends PgResultBase<T, R>> implements P
   public R next() {
     return next;
   }
+
+  /**
+   * Release the resources retained by this result.
+   */
+  void release() {
+  }
 }
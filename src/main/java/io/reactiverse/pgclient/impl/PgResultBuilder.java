@@ -63,7 +63,13 @@ public class PgResultBuilder<T, R extends PgResultBase<T, R>, L extends PgResult
   @Override
   public void handle(AsyncResult<Boolean> res) {
     suspended = res.succeeded() && res.result();
-    handler.handle((AsyncResult<L>) res.map(first));
+    try {
+      handler.handle((AsyncResult<L>) res.map(first));
+    } finally {
+      for (R r = first; r != null; r = r.next) {
+        r.release();
+      }
+    }
   }
 
   public boolean isSuspended() {
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.*;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A pool routing its operations to a primary pool and its read-only operations to replica pools.
+ */
+public class PgRoutingPoolImpl extends PgClientBase<PgRoutingPoolImpl> implements PgRoutingPool {
+
+  /**
+   * How long a replica that failed to provide a connection is not used, in milliseconds.
+   */
+  private static final long REPLICA_RETRY_DELAY = 1000;
+
+  /**
+   * How often the replicas are asked for their replay position once a session exists, in milliseconds.
+   */
+  private static final long LSN_POLL_INTERVAL = 100;
+
+  /**
+   * The WAL functions are named {@code xlog} and {@code location} before Postgres 10.
+   */
+  private static final int PG_10 = 100000;
+
+  private final Vertx vertx;
+  private final PgPoolImpl primary;
+  private final Replica[] replicas;
+  private final ReadOnlyPool readOnly = new ReadOnlyPool();
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicBoolean polling = new AtomicBoolean();
+  private volatile long pollTimerId = -1;
+  private volatile int serverVersion; // 0 until known, the replicas run the major version of the primary
+
+  public PgRoutingPoolImpl(Vertx vertx, PgPoolOptions primary, List<PgPoolOptions> replicas) {
+    this.vertx = vertx;
+    this.primary = new PgPoolImpl(vertx, false, primary);
+    this.replicas = new Replica[replicas.size()];
+    for (int i = 0;i < this.replicas.length;i++) {
+      this.replicas[i] = new Replica(new PgPoolImpl(vertx, false, replicas.get(i)));
+    }
+  }
+
+  /**
+   * Select the next replica that is available, or the primary when no replica is available.
+   */
+  private PgPoolImpl select() {
+    return select(0);
+  }
+
+  /**
+   * Select the next replica that is available and replayed the WAL up to {@code lsn}, or the primary when
+   * no replica is.
+   */
+  private PgPoolImpl select(long lsn) {
+    int len = replicas.length;
+    if (len > 0) {
+      long now = System.currentTimeMillis();
+      int start = next.getAndIncrement();
+      for (int i = 0;i < len;i++) {
+        Replica replica = replicas[Math.floorMod(start + i, len)];
+        if (replica.retryAt <= now && (lsn == 0 || replica.replayLsn >= lsn)) {
+          return replica.pool;
+        }
+      }
+    }
+    return primary;
+  }
+
+  /**
+   * Parse a WAL position formatted like {@code 16/B374D848}.
+   */
+  static long parseLsn(String lsn) {
+    int idx = lsn.indexOf('/');
+    return (Long.parseLong(lsn.substring(0, idx), 16) << 32) | Long.parseLong(lsn.substring(idx + 1), 16);
+  }
+
+  /**
+   * Resolve the {@code server_version_num} of the primary.
+   */
+  private void serverVersion(Handler<AsyncResult<Integer>> handler) {
+    int version = serverVersion;
+    if (version != 0) {
+      handler.handle(Future.succeededFuture(version));
+      return;
+    }
+    primary.query("SHOW server_version_num", ar -> {
+      if (ar.succeeded()) {
+        int v = Integer.parseInt(ar.result().iterator().next().getString(0));
+        serverVersion = v;
+        handler.handle(Future.succeededFuture(v));
+      } else {
+        handler.handle(Future.failedFuture(ar.cause()));
+      }
+    });
+  }
+
+  private void poll() {
+    serverVersion(ar -> {
+      if (ar.succeeded()) {
+        poll(ar.result() >= PG_10 ? "SELECT pg_last_wal_replay_lsn()" : "SELECT pg_last_xlog_replay_location()");
+      }
+    });
+  }
+
+  private void poll(String sql) {
+    for (Replica replica : replicas) {
+      replica.pool.query(sql, ar -> {
+        if (ar.succeeded()) {
+          String lsn = ar.result().iterator().next().getString(0);
+          // null when the query fell back to the primary
+          replica.replayLsn = lsn != null ? parseLsn(lsn) : -1;
+        } else {
+          replica.replayLsn = -1;
+        }
+      });
+    }
+  }
+
+  @Override
+  protected void schedule(CommandBase<?> cmd) {
+    primary.schedule(cmd);
+  }
+
+  @Override
+  protected Consumer<CommandBase<?>> scheduler() {
+    return primary.scheduler();
+  }
+
+  @Override
+  public PgPool readOnly() {
+    return readOnly;
+  }
+
+  @Override
+  public PgRoutingSession session() {
+    return session(0);
+  }
+
+  @Override
+  public PgRoutingSession session(long lsn) {
+    if (replicas.length > 0 && polling.compareAndSet(false, true)) {
+      poll();
+      pollTimerId = vertx.setPeriodic(LSN_POLL_INTERVAL, id -> poll());
+    }
+    return new Session(lsn);
+  }
+
+  @Override
+  public void getConnection(Handler<AsyncResult<PgConnection>> handler) {
+    primary.getConnection(handler);
+  }
+
+  @Override
+  public void begin(Handler<AsyncResult<PgTransaction>> handler) {
+    primary.begin(handler);
+  }
+
+  @Override
+  public void close() {
+    if (pollTimerId != -1) {
+      vertx.cancelTimer(pollTimerId);
+    }
+    primary.close();
+    for (Replica replica : replicas) {
+      replica.pool.close();
+    }
+  }
+
+  private class Replica {
+
+    private final PgPoolImpl pool;
+    private volatile long retryAt;
+    private volatile long replayLsn = -1;
+
+    private Replica(PgPoolImpl pool) {
+      this.pool = pool;
+      pool.fallback(primary, err -> retryAt = System.currentTimeMillis() + REPLICA_RETRY_DELAY);
+    }
+  }
+
+  private class Session extends PgClientBase<Session> implements PgRoutingSession {
+
+    private final AtomicLong lsn;
+    private final ReadOnlySession readOnly = new ReadOnlySession();
+
+    private Session(long lsn) {
+      this.lsn = new AtomicLong(lsn);
+    }
+
+    @Override
+    public PgClient readOnly() {
+      return readOnly;
+    }
+
+    @Override
+    public long lsn() {
+      return lsn.get();
+    }
+
+    @Override
+    protected void schedule(CommandBase<?> cmd) {
+      schedule(cmd, null);
+    }
+
+    @Override
+    protected Consumer<CommandBase<?>> scheduler() {
+      PgPoolImpl.Operation op = primary.operation();
+      return op != null ? cmd -> schedule(cmd, op) : this::schedule;
+    }
+
+    private void schedule(CommandBase<?> cmd, PgPoolImpl.Operation op) {
+      if (cmd instanceof QueryCommandBase) {
+        capture(cmd, op);
+      } else if (op != null) {
+        op.accept(cmd);
+      } else {
+        primary.schedule(cmd);
+      }
+    }
+
+    private void capture(CommandBase<?> cmd, PgPoolImpl.Operation op) {
+      serverVersion(ar -> {
+        if (ar.succeeded()) {
+          capture(cmd, op, ar.result() >= PG_10 ? "SELECT pg_current_wal_lsn()" : "SELECT pg_current_xlog_location()");
+        } else {
+          cmd.fail(ar.cause());
+        }
+      });
+    }
+
+    /**
+     * Schedule the command followed by {@code SELECT pg_current_wal_lsn()} on the same connection, the command
+     * response is delivered once the session position is updated.
+     */
+    private <R> void capture(CommandBase<R> cmd, PgPoolImpl.Operation op, String sql) {
+      Handler<? super CommandResponse<R>> handler = cmd.handler;
+      List<CommandResponse<R>> response = new ArrayList<>(1);
+      cmd.handler = response::add;
+      QueryResultHandler<PgRowSet> resultHandler = (updated, size, desc, rows) -> {
+        long current = parseLsn(rows.iterator().next().getString(0));
+        lsn.accumulateAndGet(current, Math::max);
+      };
+      SimpleQueryCommand<PgRowSet> next = new SimpleQueryCommand<>(sql, false, PgRowSetImpl.COLLECTOR, resultHandler, ar -> {
+        if (response.size() > 0) {
+          handler.handle(response.get(0));
+        } else {
+          handler.handle(CommandResponse.failure(ar.cause()));
+        }
+      });
+      if (op != null) {
+        op.accept(cmd, next);
+      } else {
+        primary.schedule(cmd, next);
+      }
+    }
+
+    private class ReadOnlySession extends PgClientBase<ReadOnlySession> {
+      @Override
+      protected void schedule(CommandBase<?> cmd) {
+        select(lsn.get()).schedule(cmd);
+      }
+
+      @Override
+      protected Consumer<CommandBase<?>> scheduler() {
+        return select(lsn.get()).scheduler();
+      }
+    }
+  }
+
+  private class ReadOnlyPool extends PgClientBase<ReadOnlyPool> implements PgPool {
+
+    @Override
+    protected void schedule(CommandBase<?> cmd) {
+      select().schedule(cmd);
+    }
+
+    @Override
+    protected Consumer<CommandBase<?>> scheduler() {
+      return select().scheduler();
+    }
+
+    @Override
+    public void getConnection(Handler<AsyncResult<PgConnection>> handler) {
+      select().getConnection(handler);
+    }
+
+    @Override
+    public void begin(Handler<AsyncResult<PgTransaction>> handler) {
+      select().begin(handler);
+    }
+
+    @Override
+    public void close() {
+      PgRoutingPoolImpl.this.close();
+    }
+  }
+}
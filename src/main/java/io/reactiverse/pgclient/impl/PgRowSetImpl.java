@@ -50,6 +50,15 @@ class PgRowSetImpl extends PgResultBase<PgRowSet, PgRowSetImpl> implements PgRow
     return this;
   }
 
+  @Override
+  void release() {
+    for (RowImpl r = head; r != null; r = r.next) {
+      if (r instanceof LazyRowImpl) {
+        ((LazyRowImpl) r).release();
+      }
+    }
+  }
+
   @Override
   public PgIterator iterator() {
     return new PgIterator() {
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.impl;
+
+/**
+ * Tunes the number of commands in flight on a connection from their latency, with an additive increase /
+ * multiplicative decrease policy.
+ * <p>
+ * The latency of a command is the time between its execution and its response, so it includes the time spent
+ * behind the commands executed before on the connection. The smoothed latency is compared to a baseline, the lowest
+ * latency observed during the last window of samples:
+ * <ul>
+ *   <li>when it exceeds twice the baseline the commands are queuing behind slower ones, the limit is decreased by
+ *   10% at most once per latency period</li>
+ *   <li>otherwise when the pipeline is full, the limit is increased by one after a limit worth of samples</li>
+ * </ul>
+ */
+class PipeliningLimiter {
+
+  private static final double TOLERANCE = 2.0;
+  private static final double BACKOFF = 0.9;
+  private static final double SMOOTHING = 0.2;
+  private static final int BASELINE_WINDOW = 1000;
+
+  private final int min;
+  private final int max;
+  private double limit;
+  private double latency = -1;
+  private long baseline = Long.MAX_VALUE;
+  private long windowBaseline = Long.MAX_VALUE;
+  private int samples;
+  private long lastDecrease;
+
+  PipeliningLimiter(int min, int max) {
+    if (min < 1 || min > max) {
+      throw new IllegalArgumentException("Invalid pipelining limit bounds [" + min + "," + max + "]");
+    }
+    this.min = min;
+    this.max = max;
+    this.limit = min;
+  }
+
+  /**
+   * @return the current limit
+   */
+  int limit() {
+    return (int) limit;
+  }
+
+  /**
+   * Update the limit with the latency of a command.
+   *
+   * @param sample the latency of the command in nanoseconds
+   * @param inflight the number of commands in flight when the command completed, including itself
+   * @param now the current time in nanoseconds
+   */
+  void update(long sample, int inflight, long now) {
+    // The baseline is renewed after each window so it follows the changes of the backend
+    windowBaseline = Math.min(windowBaseline, sample);
+    if (++samples == BASELINE_WINDOW) {
+      baseline = windowBaseline;
+      windowBaseline = Long.MAX_VALUE;
+      samples = 0;
+    } else {
+      baseline = Math.min(baseline, sample);
+    }
+    latency = latency < 0 ? sample : latency + SMOOTHING * (sample - latency);
+    if (latency > baseline * TOLERANCE) {
+      if (now - lastDecrease >= latency) {
+        limit = Math.max(min, limit * BACKOFF);
+        lastDecrease = now;
+      }
+    } else if (inflight >= (int) limit) {
+      limit = Math.min(max, limit + 1 / limit);
+    }
+  }
+}
@@ -27,11 +27,14 @@ import io.reactiverse.pgclient.impl.codec.encoder.Describe;
 import io.reactiverse.pgclient.impl.codec.encoder.Parse;
 import io.vertx.core.Handler;
 
+import java.util.function.Supplier;
+
 public class PrepareStatementCommand extends CommandBase<PreparedStatement> {
 
   final String sql;
   long statement; // 0 means unamed statement otherwise CString
   SocketConnection.CachedPreparedStatement cached;
+  Supplier<QueryCommandBase<?>> oneShot; // The query executed instead of this command when the statement is not cached
   private ParameterDescription parameterDesc;
   private RowDescription rowDesc;
 
@@ -31,7 +31,7 @@ class PreparedStatement {
   private static final ColumnDesc[] EMPTY_COLUMNS = new ColumnDesc[0];
 
   final String sql;
-  final Bind bind;
+  Bind bind;
   private final ParameterDescription paramDesc;
   final RowDescription rowDesc;
 
@@ -47,14 +47,26 @@ class PreparedStatement {
           c.getDataType(),
           c.getLength(),
           c.getTypeModifier(),
-          c.getDataType().supportsBinary ? DataFormat.BINARY : DataFormat.TEXT))
+          c.getDataType().supportsBinary ? DataFormat.BINARY : DataFormat.TEXT,
+          c.getCodec()))
         .toArray(ColumnDesc[]::new));
     }
 
     this.paramDesc = paramDesc;
     this.rowDesc = rowDesc;
     this.sql = sql;
-    this.bind = new Bind(statement, paramDesc != null ? paramDesc.getParamDataTypes() : null, rowDesc != null ? rowDesc.columns() : EMPTY_COLUMNS);
+    this.bind = new Bind(
+      statement,
+      paramDesc != null ? paramDesc.getParamEncoders() : null,
+      rowDesc != null ? rowDesc.columns() : EMPTY_COLUMNS);
+  }
+
+  /**
+   * Called when the statement is evicted from the cache, the following executions parse the query again
+   * as the unnamed statement.
+   */
+  void evict() {
+    bind = new Bind(0, bind.paramEncoders, bind.resultColumns);
   }
 
   String prepare(List<Object> values) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.impl;
+
+import io.vertx.core.Handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of the prepared statements of a connection, the least recently used statement is
+ * handed to the eviction handler when the cache is full.
+ */
+class PreparedStatementCache extends LinkedHashMap<String, SocketConnection.CachedPreparedStatement> {
+
+  private final int capacity;
+  private final Handler<SocketConnection.CachedPreparedStatement> evictionHandler;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  PreparedStatementCache(int capacity, Handler<SocketConnection.CachedPreparedStatement> evictionHandler) {
+    super(16, 0.75f, true);
+    this.capacity = capacity;
+    this.evictionHandler = evictionHandler;
+  }
+
+  SocketConnection.CachedPreparedStatement lookup(String sql) {
+    SocketConnection.CachedPreparedStatement cached = get(sql);
+    if (cached != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return cached;
+  }
+
+  @Override
+  protected boolean removeEldestEntry(Map.Entry<String, SocketConnection.CachedPreparedStatement> eldest) {
+    if (size() > capacity) {
+      evictions++;
+      evictionHandler.handle(eldest.getValue());
+      return true;
+    }
+    return false;
+  }
+
+  long hits() {
+    return hits;
+  }
+
+  long misses() {
+    return misses;
+  }
+
+  long evictions() {
+    return evictions;
+  }
+}
@@ -35,6 +35,7 @@ public abstract class QueryCommandBase<T> extends CommandBase<Boolean> {
   public RowResultDecoder<?, T> decoder;
   final QueryResultHandler<T> resultHandler;
   final Collector<Row, ?, T> collector;
+  boolean lazy;
 
   QueryCommandBase(Collector<Row, ?, T> collector, QueryResultHandler<T> resultHandler, Handler<AsyncResult<Boolean>> handler) {
     super(handler);
@@ -44,8 +45,31 @@ public abstract class QueryCommandBase<T> extends CommandBase<Boolean> {
 
   abstract String sql();
 
+  /**
+   * Decode the columns of the row set lazily, this has no effect for custom collectors.
+   */
+  void decodeLazily() {
+    if (collector == PgRowSetImpl.COLLECTOR) {
+      lazy = true;
+      if (decoder != null) {
+        decoder.lazy = true;
+      }
+    }
+  }
+
+  void releaseRows() {
+    if (decoder != null) {
+      decoder.release();
+    }
+  }
+
   @Override
   public void handleCommandComplete(int updated) {
+    if (discarded || failure != null) {
+      // Nobody will read the result
+      releaseRows();
+      return;
+    }
     this.result = false;
     T result;
     int size;
@@ -65,6 +89,7 @@ public abstract class QueryCommandBase<T> extends CommandBase<Boolean> {
 
   @Override
   public void handleErrorResponse(ErrorResponse errorResponse) {
+    releaseRows();
     failure = new PgException(errorResponse);
   }
 
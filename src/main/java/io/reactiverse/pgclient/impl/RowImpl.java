@@ -29,13 +29,14 @@ import io.vertx.core.buffer.Buffer;
 import java.math.BigDecimal;
 import java.time.*;
 import java.time.temporal.Temporal;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 public class RowImpl extends ArrayTuple implements Row {
 
   // Linked list
   RowImpl next;
-  private final RowDescription desc;
+  final RowDescription desc;
 
   public RowImpl(RowDescription desc) {
     super(desc.columns().length);
@@ -59,6 +60,49 @@ public class RowImpl extends ArrayTuple implements Row {
     return pos == -1 ? null : getBoolean(pos);
   }
 
+  private int columnIndex(String name) {
+    int pos = desc.columnIndex(name);
+    if (pos == -1) {
+      throw new NoSuchElementException("Column " + name + " does not exist");
+    }
+    return pos;
+  }
+
+  @Override
+  public boolean isNull(String name) {
+    return isNull(columnIndex(name));
+  }
+
+  @Override
+  public boolean getBooleanValue(String name) {
+    return getBooleanValue(columnIndex(name));
+  }
+
+  @Override
+  public short getShortValue(String name) {
+    return getShortValue(columnIndex(name));
+  }
+
+  @Override
+  public int getIntValue(String name) {
+    return getIntValue(columnIndex(name));
+  }
+
+  @Override
+  public long getLongValue(String name) {
+    return getLongValue(columnIndex(name));
+  }
+
+  @Override
+  public float getFloatValue(String name) {
+    return getFloatValue(columnIndex(name));
+  }
+
+  @Override
+  public double getDoubleValue(String name) {
+    return getDoubleValue(columnIndex(name));
+  }
+
   @Override
   public Object getValue(String name) {
     int pos = desc.columnIndex(name);
@@ -18,9 +18,7 @@
 package io.reactiverse.pgclient.impl;
 
 import io.reactiverse.pgclient.Row;
-import io.reactiverse.pgclient.impl.codec.ColumnDesc;
-import io.reactiverse.pgclient.impl.codec.DataFormat;
-import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+import io.reactiverse.pgclient.impl.codec.decoder.ColumnDecoder;
 import io.reactiverse.pgclient.impl.codec.decoder.RowDecoder;
 import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
 import io.netty.buffer.ByteBuf;
@@ -37,7 +35,8 @@ public class RowResultDecoder<C, R> implements RowDecoder {
   private RowDescription desc;
   private int size;
   private C container;
-  private Row row;
+  private DataRowDecoder direct;
+  boolean lazy;
 
   RowResultDecoder(Collector<Row, C, R> collector, boolean singleton, RowDescription desc) {
     this.collector = collector;
@@ -57,44 +56,62 @@ public class RowResultDecoder<C, R> implements RowDecoder {
   @Override
   public void decodeRow(int len, ByteBuf in) {
     if (container == null) {
-      container = collector.supplier().get();
+      container = supply();
     }
-    if (singleton) {
-      if (row == null) {
-        row = new RowImpl(desc);
-      } else {
-        row.clear();
-      }
+    if (direct != null) {
+      // The container decodes the row without creating it
+      direct.decodeRow(len, in);
+      size++;
+      return;
+    }
+    RowImpl row;
+    if (lazy && !singleton) {
+      row = new LazyRowImpl(desc, len, in);
     } else {
       row = new RowImpl(desc);
-    }
-    Row row = new RowImpl(desc);
-    for (int c = 0; c < len; ++c) {
-      int length = in.readInt();
-      Object decoded = null;
-      if (length != -1) {
-        ColumnDesc columnDesc = desc.columns()[c];
-        if (columnDesc.getDataFormat() == DataFormat.BINARY) {
-          decoded = DataTypeCodec.decodeBinary(columnDesc.getDataType(), length, in);
+      ColumnDecoder[] decoders = desc.decoders();
+      for (int c = 0; c < len; ++c) {
+        int length = in.readInt();
+        if (length == -1) {
+          row.add(null);
         } else {
-          decoded = DataTypeCodec.decodeText(columnDesc.getDataType(), length, in);
+          decoders[c].add(row, length, in);
         }
       }
-      row.addValue(decoded);
     }
     accumulator.accept(container, row);
     size++;
   }
 
+  private C supply() {
+    C c = collector.supplier().get();
+    if (c instanceof DataRowDecoder) {
+      direct = (DataRowDecoder) c;
+      direct.init(desc);
+    }
+    return c;
+  }
+
   R complete() {
     if (container == null) {
-      container = collector.supplier().get();
+      container = supply();
     }
     return collector.finisher().apply(container);
   }
 
   void reset() {
     container = null;
+    direct = null;
     size = 0;
   }
+
+  /**
+   * Release the rows accumulated so far when the result won't be delivered.
+   */
+  void release() {
+    if (container instanceof PgRowSetImpl) {
+      ((PgRowSetImpl) container).release();
+    }
+    reset();
+  }
 }
@@ -58,6 +58,7 @@ class SimpleQueryCommand<T> extends QueryCommandBase<T> {
   @Override
   public void handleRowDescription(RowDescription rowDescription) {
     decoder = new RowResultDecoder<>(collector, singleton, rowDescription);
+    decoder.lazy = lazy;
   }
 
   public String getSql() {
@@ -17,6 +17,9 @@
 
 package io.reactiverse.pgclient.impl;
 
+import io.reactiverse.pgclient.PgRowSet;
+import io.reactiverse.pgclient.impl.codec.DataTypeRegistry;
+import io.reactiverse.pgclient.impl.codec.TxStatus;
 import io.reactiverse.pgclient.impl.codec.decoder.MessageDecoder;
 import io.reactiverse.pgclient.impl.codec.decoder.InitiateSslHandler;
 import io.reactiverse.pgclient.impl.codec.decoder.NoticeResponse;
@@ -26,11 +29,12 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.DecoderException;
 import io.vertx.core.*;
 import io.vertx.core.impl.NetSocketInternal;
+import io.vertx.core.impl.NoStackTraceThrowable;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.net.SocketAddress;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -39,6 +43,9 @@ public class SocketConnection implements Connection {
 
   private static final Logger logger = LoggerFactory.getLogger(SocketConnection.class);
 
+  // Pending bytes flushed right away when coalescing writes
+  private static final int COALESCE_FLUSH_THRESHOLD = 16 * 1024;
+
   enum Status {
 
     CLOSED, CONNECTED, CLOSING
@@ -52,22 +59,72 @@ public class SocketConnection implements Connection {
   private final Context context;
   private Status status = Status.CONNECTED;
   private Holder holder;
-  private final Map<String, CachedPreparedStatement> psCache;
+  private final PreparedStatementCache psCache;
+  private final int psCacheSqlLimit;
   private final StringLongSequence psSeq = new StringLongSequence();
+  private final ArrayDeque<Long> psIds = new ArrayDeque<>(); // Ids of closed statements
+  private final Map<String, Portal> portals = new HashMap<>(); // Open portals of cached statements
   private final int pipeliningLimit;
+  private final PipeliningLimiter limiter;
+  private final boolean lazyRowDecoding;
+  private final boolean inferParameterTypes;
+  private final boolean reuseWriteBuffer;
+  private final boolean coalesceWrites;
+  private final long queryTimeout;
+  private final int maxPendingCommands;
+  private final long maxQueueNanos;
+  private final boolean waitForWritability;
+  private Handler<Void> drainHandler;
+  private int discarded; // Commands in flight that timed out
+  private Handler<Void> drainedHandler;
+  private CommandBase<?> cancelled; // The command a CancelRequest was sent for
+  private int cancelling; // The CancelRequest and the response of the cancelled command to wait for before sending commands
+  private final PgConnectionFactory factory;
+  private final SocketAddress server;
+  int processId;
+  int secretKey;
+  private boolean flushScheduled;
+  private final DataTypeRegistry registry;
   private MessageDecoder decoder;
   private MessageEncoder encoder;
 
   public SocketConnection(NetSocketInternal socket,
                           boolean cachePreparedStatements,
+                          int preparedStatementCacheSize,
+                          int preparedStatementCacheSqlLimit,
                           int pipeliningLimit,
+                          PipeliningLimiter limiter,
+                          boolean lazyRowDecoding,
+                          boolean inferParameterTypes,
+                          boolean reuseWriteBuffer,
+                          boolean coalesceWrites,
+                          long queryTimeout,
+                          int maxPendingCommands,
+                          long maxQueueTime,
+                          boolean waitForWritability,
+                          PgConnectionFactory factory,
+                          SocketAddress server,
+                          DataTypeRegistry registry,
                           boolean ssl,
                           Context context) {
     this.socket = socket;
     this.ssl = ssl;
     this.context = context;
-    this.psCache = cachePreparedStatements ? new ConcurrentHashMap<>() : null;
+    this.psCache = cachePreparedStatements ? new PreparedStatementCache(preparedStatementCacheSize, this::evict) : null;
+    this.psCacheSqlLimit = preparedStatementCacheSqlLimit;
     this.pipeliningLimit = pipeliningLimit;
+    this.limiter = limiter;
+    this.lazyRowDecoding = lazyRowDecoding;
+    this.inferParameterTypes = inferParameterTypes;
+    this.reuseWriteBuffer = reuseWriteBuffer;
+    this.coalesceWrites = coalesceWrites;
+    this.queryTimeout = queryTimeout;
+    this.maxPendingCommands = maxPendingCommands;
+    this.maxQueueNanos = maxQueueTime * 1000000;
+    this.waitForWritability = waitForWritability;
+    this.factory = factory;
+    this.server = server;
+    this.registry = registry;
   }
 
   public Context context() {
@@ -97,13 +154,14 @@ public class SocketConnection implements Connection {
   }
 
   private void initiateProtocol(String username, String password, String database, Handler<? super CommandResponse<Connection>> completionHandler) {
-    decoder = new MessageDecoder(inflight, socket.channelHandlerContext().alloc());
-    encoder = new MessageEncoder(socket.channelHandlerContext());
+    decoder = new MessageDecoder(inflight, socket.channelHandlerContext().alloc(), registry);
+    encoder = new MessageEncoder(socket.channelHandlerContext(), reuseWriteBuffer);
 
     ChannelPipeline pipeline = socket.channelHandlerContext().pipeline();
     pipeline.addBefore("handler", "decoder", decoder);
 
     socket.closeHandler(this::handleClosed);
+    socket.drainHandler(this::handleDrained);
     socket.exceptionHandler(this::handleException);
     socket.messageHandler(msg -> {
       try {
@@ -112,14 +170,43 @@ public class SocketConnection implements Connection {
         handleException(e);
       }
     });
-    schedule(new InitCommand(this, username, password, database, completionHandler));
+    schedule(new InitCommand(this, username, password, database, ar -> {
+      if (ar.succeeded() && registry.introspect()) {
+        // The first connection introspects the types of the database, a failure is not fatal
+        schedule(introspectTypes(null, v -> {
+          if (v.failed()) {
+            // Let the next connection introspect the types
+            registry.introspectionFailed();
+          }
+          completionHandler.handle(ar);
+        }));
+      } else {
+        completionHandler.handle(ar);
+      }
+    }));
   }
 
-  static class CachedPreparedStatement implements Handler<CommandResponse<PreparedStatement>> {
+  private CommandBase<?> introspectTypes(int[] oids, Handler<AsyncResult<Boolean>> handler) {
+    QueryResultHandler<PgRowSet> resultHandler = (updatedCount, size, desc, rows) -> registry.load(oids, rows);
+    SimpleQueryCommand<PgRowSet> cmd = new SimpleQueryCommand<>(registry.query(oids), false, PgRowSetImpl.COLLECTOR, resultHandler, handler);
+    cmd.internal = true;
+    return cmd;
+  }
+
+  class CachedPreparedStatement implements Handler<CommandResponse<PreparedStatement>> {
 
+    private final String sql;
+    private final long statement;
+    private boolean evicted;
+    private int portals; // Closing the statement closes its portals, it is deferred until they are closed
     private CommandResponse<PreparedStatement> resp;
     private final ArrayDeque<Handler<? super CommandResponse<PreparedStatement>>> waiters = new ArrayDeque<>();
 
+    CachedPreparedStatement(String sql, long statement) {
+      this.sql = sql;
+      this.statement = statement;
+    }
+
     void get(Handler<? super CommandResponse<PreparedStatement>> handler) {
       if (resp != null) {
         handler.handle(resp);
@@ -131,6 +218,15 @@ public class SocketConnection implements Connection {
     @Override
     public void handle(CommandResponse<PreparedStatement> event) {
       resp = event;
+      if (resp.succeeded()) {
+        if (evicted) {
+          resp.result().evict();
+        }
+      } else if (!evicted) {
+        // Don't keep failures in the cache
+        psCache.remove(sql);
+        psIds.add(statement);
+      }
       Handler<? super CommandResponse<PreparedStatement>> waiter;
       while ((waiter = waiters.poll()) != null) {
         waiter.handle(resp);
@@ -138,10 +234,94 @@ public class SocketConnection implements Connection {
     }
   }
 
+  /**
+   * A portal bound to a cached statement.
+   */
+  private static class Portal {
+
+    private final CachedPreparedStatement statement;
+    private boolean bound; // The backend has processed the Bind
+
+    Portal(CachedPreparedStatement statement) {
+      this.statement = statement;
+    }
+  }
+
+  private void evict(CachedPreparedStatement cached) {
+    cached.evicted = true;
+    if (cached.resp != null && cached.resp.succeeded()) {
+      cached.resp.result().evict();
+    }
+    if (cached.portals == 0) {
+      closeStatement(cached);
+    }
+  }
+
+  private void closeStatement(CachedPreparedStatement cached) {
+    // Closing is pipelined after the commands that still use the statement
+    schedule(new CloseStatementCommand(cached.statement, ar -> {
+      // A statement that failed to close still exists on the backend, its id cannot be reused
+      if (ar.succeeded()) {
+        psIds.add(cached.statement);
+      }
+    }));
+  }
+
+  private void openPortal(ExtendedQueryCommandBase<?> cmd) {
+    CachedPreparedStatement cached = psCache.get(cmd.ps.sql);
+    if (cached != null && cached.statement == cmd.ps.bind.statement) {
+      cached.portals++;
+      portals.put(cmd.portal, new Portal(cached));
+    }
+  }
+
+  private void closePortal(String name) {
+    Portal portal = portals.remove(name);
+    if (portal != null && --portal.statement.portals == 0 && portal.statement.evicted) {
+      closeStatement(portal.statement);
+    }
+  }
+
+  public long preparedStatementCacheHits() {
+    return psCache != null ? psCache.hits() : 0L;
+  }
+
+  public long preparedStatementCacheMisses() {
+    return psCache != null ? psCache.misses() : 0L;
+  }
+
+  public long preparedStatementCacheEvictions() {
+    return psCache != null ? psCache.evictions() : 0L;
+  }
+
   public boolean isSsl() {
     return socket.isSsl();
   }
 
+  public int pipeliningLimit() {
+    return limiter != null ? limiter.limit() : pipeliningLimit;
+  }
+
+  public int load() {
+    return inflight.size() + pending.size();
+  }
+
+  public void cancelRequest(Handler<AsyncResult<Void>> handler) {
+    factory.cancelRequest(server, processId, secretKey, handler);
+  }
+
+  public boolean isDraining() {
+    return discarded > 0;
+  }
+
+  public void drained(Handler<Void> handler) {
+    if (discarded == 0) {
+      handler.handle(null);
+    } else {
+      drainedHandler = handler;
+    }
+  }
+
   public void upgradeToSSL(Handler<Void> handler) {
     socket.upgradeToSsl(v -> {
       handler.handle(null);
@@ -176,16 +356,25 @@ public class SocketConnection implements Connection {
     // Special handling for cache
     if (cmd instanceof PrepareStatementCommand) {
       PrepareStatementCommand psCmd = (PrepareStatementCommand) cmd;
-      Map<String, SocketConnection.CachedPreparedStatement> psCache = this.psCache;
-      if (psCache != null) {
-        SocketConnection.CachedPreparedStatement cached = psCache.get(psCmd.sql);
+      PreparedStatementCache psCache = this.psCache;
+      if (psCache == null || psCmd.sql.length() > psCacheSqlLimit) {
+        // The statement won't be cached, execute the query directly when possible
+        if (inferParameterTypes && psCmd.oneShot != null) {
+          QueryCommandBase<?> oneShot = psCmd.oneShot.get();
+          if (oneShot != null) {
+            cmd = oneShot;
+          }
+        }
+      } else {
+        CachedPreparedStatement cached = psCache.lookup(psCmd.sql);
         if (cached != null) {
           Handler<? super CommandResponse<PreparedStatement>> handler = psCmd.handler;
           cached.get(handler);
           return;
         } else {
-          psCmd.statement = psSeq.next();
-          psCmd.cached = cached = new SocketConnection.CachedPreparedStatement();
+          Long id = psIds.poll();
+          psCmd.statement = id != null ? id : psSeq.next();
+          psCmd.cached = cached = new CachedPreparedStatement(psCmd.sql, psCmd.statement);
           psCache.put(psCmd.sql, cached);
           Handler<? super CommandResponse<PreparedStatement>> a = psCmd.handler;
           psCmd.cached.get(a);
@@ -194,8 +383,35 @@ public class SocketConnection implements Connection {
       }
     }
 
+    if (psCache != null && cmd instanceof ExtendedQueryCommandBase) {
+      ExtendedQueryCommandBase<?> queryCmd = (ExtendedQueryCommandBase<?>) cmd;
+      if (queryCmd.portal != null && !queryCmd.suspended && queryCmd.ps.bind.statement != 0) {
+        openPortal(queryCmd);
+      }
+    }
+
+    if (lazyRowDecoding && cmd instanceof QueryCommandBase) {
+      ((QueryCommandBase<?>) cmd).decodeLazily();
+    } else if (cmd instanceof CopyInCommand) {
+      ((CopyInCommand<?>) cmd).conn = this;
+    } else if (cmd instanceof CopyOutCommand) {
+      ((CopyOutCommand<?>) cmd).conn = this;
+    }
+
     //
     if (status == Status.CONNECTED) {
+      // Only a command that has to wait counts against the pending bound
+      if (!cmd.internal && maxPendingCommands >= 0 && pending.size() >= maxPendingCommands && (!pending.isEmpty() || isBlocked())) {
+        cmd.fail(new NoStackTraceThrowable("Connection reached max pending commands of " + maxPendingCommands));
+        return;
+      }
+      if (maxQueueNanos > 0 && !cmd.internal) {
+        cmd.queueTime = System.nanoTime();
+      }
+      if (queryTimeout > 0 && cmd instanceof QueryCommandBase) {
+        CommandBase<?> c = cmd;
+        cmd.timerId = context.owner().setTimer(queryTimeout, id -> handleTimeout(c));
+      }
       pending.add(cmd);
       checkPending();
     } else {
@@ -203,23 +419,124 @@ public class SocketConnection implements Connection {
     }
   }
 
+  boolean writeQueueFull() {
+    return socket.writeQueueFull();
+  }
+
+  void drainHandler(Handler<Void> handler) {
+    drainHandler = handler;
+  }
+
+  private void handleDrained(Void v) {
+    Handler<Void> handler = drainHandler;
+    if (handler != null) {
+      handler.handle(null);
+    }
+    if (waitForWritability) {
+      checkPending();
+    }
+  }
+
+  void pauseRead() {
+    decoder.pause();
+    socket.pause();
+  }
+
+  void resumeRead() {
+    socket.resume();
+    decoder.resume();
+  }
+
   private void checkPending() {
-    if (inflight.size() < pipeliningLimit) {
+    int limit = pipeliningLimit();
+    if (inflight.size() < limit && cancelling == 0) {
       CommandBase<?> cmd;
-      while (inflight.size() < pipeliningLimit && (cmd = pending.poll()) != null) {
+      while (!isBlocked() && (cmd = pending.poll()) != null) {
+        if (maxQueueNanos > 0 && cmd.queueTime != 0 && System.nanoTime() - cmd.queueTime > maxQueueNanos) {
+          // Not sent, the caller has waited too long
+          if (cmd.timerId != -1) {
+            context.owner().cancelTimer(cmd.timerId);
+          }
+          cmd.fail(new NoStackTraceThrowable("Command waited more than " + maxQueueNanos / 1000000 + "ms to be sent"));
+          continue;
+        }
+        if (limiter != null) {
+          cmd.execTime = System.nanoTime();
+        }
         inflight.add(cmd);
         decoder.run(cmd);
+        cmd.out = encoder;
         cmd.exec(encoder);
       }
+      flush();
+    }
+  }
+
+  /**
+   * @return whether a command scheduled now has to wait before being sent
+   */
+  private boolean isBlocked() {
+    // Nothing can be sent while the backend expects COPY data
+    return cancelling > 0
+      || inflight.size() >= pipeliningLimit()
+      || inflight.peekLast() instanceof CopyInCommand
+      || (waitForWritability && socket.writeQueueFull());
+  }
+
+  private void flush() {
+    if (!coalesceWrites || encoder.size() >= COALESCE_FLUSH_THRESHOLD) {
       encoder.flush();
+    } else if (!flushScheduled) {
+      // Flush after the current event loop task, the commands scheduled until then are written together
+      flushScheduled = true;
+      socket.channelHandlerContext().executor().execute(() -> {
+        flushScheduled = false;
+        encoder.flush();
+      });
     }
   }
 
   private void handleMessage(Object msg) {
     if (msg instanceof CommandResponse) {
+      int size = inflight.size();
       CommandBase cmd = inflight.poll();
+      if (cmd.timerId != -1) {
+        context.owner().cancelTimer(cmd.timerId);
+      }
+      if (cmd == cancelled) {
+        cancelled = null;
+        cancelling--;
+      }
+      if (cmd.discarded) {
+        discarded--;
+      }
+      CommandBase<?> next = inflight.peek();
+      if (next != null && next.discarded) {
+        // The backend executes a command that timed out while it was waiting
+        checkCancel(next);
+      }
+      if (limiter != null && !(cmd instanceof CopyInCommand || cmd instanceof CopyOutCommand)) {
+        // COPY commands last as long as their stream, their latency is not relevant
+        long now = System.nanoTime();
+        limiter.update(now - cmd.execTime, size, now);
+      }
+      if (!portals.isEmpty()) {
+        checkPortals(cmd, ((CommandResponse<?>) msg).txStatus());
+      }
+      if (status == Status.CONNECTED && ((CommandResponse<?>) msg).txStatus() == TxStatus.IDLE) {
+        // Introspect the types unknown to the registry outside of a transaction
+        int[] oids = registry.takeMissing();
+        if (oids != null) {
+          pending.addFirst(introspectTypes(oids, ar -> {}));
+        }
+      }
       checkPending();
       cmd.handler.handle(msg);
+      if (discarded == 0 && drainedHandler != null) {
+        Handler<Void> handler = drainedHandler;
+        drainedHandler = null;
+        handler.handle(null);
+      }
     } else if (msg instanceof NotificationResponse) {
       handleNotification((NotificationResponse) msg);
     } else if (msg instanceof NoticeResponse) {
@@ -227,6 +544,62 @@ public class SocketConnection implements Connection {
     }
   }
 
+  private void checkPortals(CommandBase<?> cmd, TxStatus txStatus) {
+    if (cmd instanceof ClosePortalCommand) {
+      closePortal(((ClosePortalCommand) cmd).portal);
+    } else if (cmd instanceof ExtendedQueryCommandBase) {
+      ExtendedQueryCommandBase<?> queryCmd = (ExtendedQueryCommandBase<?>) cmd;
+      Portal portal = queryCmd.portal != null && !queryCmd.suspended ? portals.get(queryCmd.portal) : null;
+      if (portal != null) {
+        portal.bound = true;
+      }
+    }
+    if (txStatus == TxStatus.IDLE) {
+      // The end of the transaction closes the portals bound so far
+      List<String> closed = new ArrayList<>();
+      portals.forEach((name, portal) -> {
+        if (portal.bound) {
+          closed.add(name);
+        }
+      });
+      closed.forEach(this::closePortal);
+    }
+  }
+
+  private void handleTimeout(CommandBase<?> cmd) {
+    cmd.timerId = -1;
+    Throwable err = new NoStackTraceThrowable("Query timed out after " + queryTimeout + "ms");
+    // Cancel before the handler is called, the commands it schedules are sent after the cancellation
+    if (pending.remove(cmd)) {
+      CommandBase<?> head = inflight.peek();
+      if (head != null && head.discarded) {
+        checkCancel(head);
+      }
+      cmd.fail(err);
+    } else if (inflight.contains(cmd)) {
+      discarded++;
+      checkCancel(cmd);
+      cmd.discard(err);
+    }
+  }
+
+  /**
+   * Send a CancelRequest for a command that timed out when it is the only command the backend would cancel, i.e
+   * it is the last command in flight and no command is pending. Nothing is sent until the CancelRequest has
+   * completed and the response of the command has been received, so a late cancellation cannot hit another command.
+   */
+  private void checkCancel(CommandBase<?> cmd) {
+    if (cancelling == 0 && inflight.size() == 1 && inflight.peek() == cmd && pending.isEmpty()) {
+      cancelled = cmd;
+      cancelling = 2;
+      cancelRequest(ar -> context.runOnContext(v -> {
+        if (--cancelling == 0 && status != Status.CLOSED) {
+          checkPending();
+        }
+      }));
+    }
+  }
+
   private void handleNotification(NotificationResponse response) {
     if (holder != null) {
       holder.handleNotification(response.getProcessId(), response.getChannel(), response.getPayload());
@@ -280,10 +653,19 @@ public class SocketConnection implements Connection {
       for (ArrayDeque<CommandBase<?>> q : Arrays.asList(inflight, pending)) {
         CommandBase<?> cmd;
         while ((cmd = q.poll()) != null) {
+          if (cmd instanceof QueryCommandBase) {
+            ((QueryCommandBase<?>) cmd).releaseRows();
+          } else if (cmd instanceof CopyInCommand) {
+            ((CopyInCommand<?>) cmd).stop();
+          }
           CommandBase<?> c = cmd;
           context.runOnContext(v -> c.fail(cause));
         }
       }
+      drainedHandler = null;
+      if (encoder != null) {
+        encoder.close();
+      }
       if (holder != null) {
         holder.handleClosed();
       }
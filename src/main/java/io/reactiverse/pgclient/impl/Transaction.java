@@ -23,6 +23,7 @@ import io.vertx.core.impl.NoStackTraceThrowable;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.function.Supplier;
 
 class Transaction extends PgClientBase<Transaction> implements PgTransaction {
 
@@ -80,6 +81,9 @@ class Transaction extends PgClientBase<Transaction> implements PgTransaction {
           if (isComplete(cmd)) {
             status = ST_COMPLETED;
           } else {
+            if (cmd instanceof PrepareStatementCommand) {
+              wrapOneShot((PrepareStatementCommand) cmd);
+            }
             wrap(cmd);
             status = ST_PROCESSING;
           }
@@ -109,6 +113,23 @@ class Transaction extends PgClientBase<Transaction> implements PgTransaction {
     checkPending();
   }
 
+  /**
+   * The connection may execute the query directly instead of the prepare command, this query must be
+   * wrapped as well.
+   */
+  private void wrapOneShot(PrepareStatementCommand cmd) {
+    Supplier<QueryCommandBase<?>> oneShot = cmd.oneShot;
+    if (oneShot != null) {
+      cmd.oneShot = () -> {
+        QueryCommandBase<?> query = oneShot.get();
+        if (query != null) {
+          wrap(query);
+        }
+        return query;
+      };
+    }
+  }
+
   private <T> void wrap(CommandBase<T> cmd) {
     Handler<? super CommandResponse<T>> handler = cmd.handler;
     cmd.handler = ar -> {
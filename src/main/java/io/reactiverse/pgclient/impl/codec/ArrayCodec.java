@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgCodec;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The codec of the one dimensional arrays of a type decoded with a {@link PgCodec}.
+ */
+class ArrayCodec<T> implements PgCodec<T[]> {
+
+  private final int elementOid;
+  private final PgCodec<T> element;
+  private final Class<T[]> type;
+
+  @SuppressWarnings("unchecked")
+  ArrayCodec(int elementOid, PgCodec<T> element) {
+    this.elementOid = elementOid;
+    this.element = element;
+    this.type = (Class<T[]>) Array.newInstance(element.type(), 0).getClass();
+  }
+
+  @Override
+  public String typeName() {
+    return "_" + element.typeName();
+  }
+
+  @Override
+  public Class<T[]> type() {
+    return type;
+  }
+
+  @Override
+  public void encodeBinary(T[] values, ByteBuf buff) {
+    int startIndex = buff.writerIndex();
+    buff.writeInt(1);             // ndim
+    buff.writeInt(0);             // dataoffset
+    buff.writeInt(elementOid);    // elemtype
+    buff.writeInt(values.length); // dimension
+    buff.writeInt(1);             // lower bnds
+    for (T value : values) {
+      if (value == null) {
+        buff.setInt(startIndex + 4, 1);
+        buff.writeInt(-1);
+      } else {
+        int idx = buff.writerIndex();
+        buff.writeInt(0);
+        element.encodeBinary(value, buff);
+        buff.setInt(idx, buff.writerIndex() - idx - 4);
+      }
+    }
+  }
+
+  @Override
+  public T[] decodeBinary(int len, ByteBuf buff) {
+    int dim = buff.readInt();    // ndim
+    buff.skipBytes(8);           // dataoffset, elemtype
+    if (dim == 0) {
+      return newArray(0);
+    }
+    if (dim != 1) {
+      throw new UnsupportedOperationException("Only arrays of dimension 1 are supported");
+    }
+    int length = buff.readInt(); // dimensions
+    buff.skipBytes(4);           // lower bnds
+    T[] array = newArray(length);
+    for (int i = 0;i < length;i++) {
+      int l = buff.readInt();
+      if (l != -1) {
+        int idx = buff.readerIndex();
+        array[i] = element.decodeBinary(l, buff);
+        buff.readerIndex(idx + l);
+      }
+    }
+    return array;
+  }
+
+  @Override
+  public T[] decodeText(int len, ByteBuf buff) {
+    String s = buff.readCharSequence(len, StandardCharsets.UTF_8).toString();
+    List<T> list = new ArrayList<>();
+    if (s.length() > 2) {
+      StringBuilder sb = new StringBuilder();
+      boolean quoted = false;
+      boolean escaped = false;
+      for (int i = 1;i < s.length();i++) {
+        char c = s.charAt(i);
+        if (quoted) {
+          if (c == '\\') {
+            sb.append(s.charAt(++i));
+          } else if (c == '"') {
+            quoted = false;
+          } else {
+            sb.append(c);
+          }
+        } else if (c == '"') {
+          quoted = escaped = true;
+        } else if (c == ',' || i == s.length() - 1) {
+          String elt = sb.toString();
+          if (!escaped && elt.equalsIgnoreCase("NULL")) {
+            list.add(null);
+          } else {
+            ByteBuf tmp = Unpooled.copiedBuffer(elt, StandardCharsets.UTF_8);
+            list.add(element.decodeText(tmp.readableBytes(), tmp));
+          }
+          sb.setLength(0);
+          escaped = false;
+        } else {
+          sb.append(c);
+        }
+      }
+    }
+    return list.toArray(newArray(list.size()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private T[] newArray(int size) {
+    return (T[]) Array.newInstance(element.type(), size);
+  }
+}
@@ -17,6 +17,8 @@
 
 package io.reactiverse.pgclient.impl.codec;
 
+import io.reactiverse.pgclient.PgCodec;
+
 import java.util.Objects;
 
 /**
@@ -32,8 +34,13 @@ public class ColumnDesc {
   private final short relationAttributeNo;
   private final short length;
   private final int typeModifier;
+  private final PgCodec<?> codec;
 
   public ColumnDesc(String name, int relationId, short relationAttributeNo, DataType dataType, short length, int typeModifier, DataFormat dataFormat) {
+    this(name, relationId, relationAttributeNo, dataType, length, typeModifier, dataFormat, null);
+  }
+
+  public ColumnDesc(String name, int relationId, short relationAttributeNo, DataType dataType, short length, int typeModifier, DataFormat dataFormat, PgCodec<?> codec) {
     this.name = name;
     this.dataType = dataType;
     this.dataFormat = dataFormat;
@@ -41,6 +48,7 @@ public class ColumnDesc {
     this.relationId = relationId;
     this.relationAttributeNo = relationAttributeNo;
     this.typeModifier = typeModifier;
+    this.codec = codec;
   }
 
   public String getName() {
@@ -71,6 +79,13 @@ public class ColumnDesc {
     return typeModifier;
   }
 
+  /**
+   * @return the codec of a {@link DataType#CUSTOM} column or {@code null}
+   */
+  public PgCodec<?> getCodec() {
+    return codec;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -82,7 +97,8 @@ public class ColumnDesc {
       typeModifier == column.typeModifier &&
       Objects.equals(name, column.name) &&
       dataType == column.dataType &&
-      dataFormat == column.dataFormat;
+      dataFormat == column.dataFormat &&
+      codec == column.codec;
   }
 
   @Override
@@ -18,6 +18,7 @@ package io.reactiverse.pgclient.impl.codec;
 
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
+import io.reactiverse.pgclient.Tuple;
 import io.reactiverse.pgclient.data.Json;
 import io.reactiverse.pgclient.data.Numeric;
 import io.reactiverse.pgclient.data.Interval;
@@ -47,8 +48,8 @@ public enum DataType {
   FLOAT4_ARRAY(1021, true, Float[].class),
   FLOAT8(701, true, Double.class),
   FLOAT8_ARRAY(1022, true, Double[].class),
-  NUMERIC(1700, false, Numeric.class),
-  NUMERIC_ARRAY(1231, false, Numeric[].class),
+  NUMERIC(1700, true, Numeric.class),
+  NUMERIC_ARRAY(1231, true, Numeric[].class),
   MONEY(790, true, Object.class),
   MONEY_ARRAY(791, true, Object[].class),
   BIT(1560, true, Object.class),
@@ -98,9 +99,12 @@ public enum DataType {
   OID(26, true, Object.class),
   OID_ARRAY(1028, true, Object[].class),
   VOID(2278, true, Object.class),
+  RECORD(2249, true, Tuple.class),
+  RECORD_ARRAY(2287, true, Tuple[].class),
   ENUM(16385, true, String.class),
   ENUM_ARRAY(16384, true, String[].class),
-  UNKNOWN(705, true, Object.class);
+  CUSTOM(0, true, Object.class),
+  UNKNOWN(705, false, Object.class);
 
   public final int id;
   public final boolean supportsBinary;
@@ -114,19 +118,31 @@ public enum DataType {
 
   public static DataType valueOf(int oid) {
     DataType value = oidToDataType.get(oid);
-    if (value == null) {
-      System.out.println("Postgres type OID=" + oid + " not handled - using unknown type instead");
-      return UNKNOWN;
-    } else {
-      return value;
-    }
+    return value != null ? value : UNKNOWN;
+  }
+
+  /**
+   * @return the built-in type of the {@code oid} or {@code null} when the type is not built-in
+   */
+  public static DataType lookup(int oid) {
+    return oidToDataType.get(oid);
   }
 
   private static IntObjectMap<DataType> oidToDataType = new IntObjectHashMap<>();
 
   static {
     for (DataType dataType : values()) {
-      oidToDataType.put(dataType.id, dataType);
+      switch (dataType) {
+        case ENUM:
+        case ENUM_ARRAY:
+        case HSTORE:
+        case CUSTOM:
+          // The OID of these types is assigned when they are created, they are resolved by the DataTypeRegistry
+          break;
+        default:
+          oidToDataType.put(dataType.id, dataType);
+          break;
+      }
     }
   }
 }
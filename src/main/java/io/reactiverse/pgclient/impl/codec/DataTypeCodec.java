@@ -20,7 +20,10 @@ package io.reactiverse.pgclient.impl.codec;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgCodec;
+import io.reactiverse.pgclient.Tuple;
 import io.reactiverse.pgclient.data.Json;
+import io.reactiverse.pgclient.impl.ArrayTuple;
 import io.reactiverse.pgclient.data.Numeric;
 import io.reactiverse.pgclient.data.*;
 import io.reactiverse.pgclient.impl.codec.formatter.DateTimeFormatter;
@@ -31,6 +34,9 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.temporal.ChronoField;
@@ -56,6 +62,7 @@ public class DataTypeCodec {
   private static final Numeric[] empty_numeric_array = new Numeric[0];
   private static final Point[] empty_point_array = new Point[0];
   private static final Interval[] empty_interval_array = new Interval[0];
+  private static final Tuple[] empty_tuple_array = new Tuple[0];
   private static final Boolean[] empty_boolean_array = new Boolean[0];
   private static final Integer[] empty_integer_array = new Integer[0];
   private static final Short[] empty_short_array = new Short[0];
@@ -87,6 +94,13 @@ public class DataTypeCodec {
   private static final IntFunction<Numeric[]> NUMERIC_ARRAY_FACTORY = size -> size == 0 ? empty_numeric_array : new Numeric[size];
   private static final IntFunction<Point[]> POINT_ARRAY_FACTORY = size -> size == 0 ? empty_point_array : new Point[size];
   private static final IntFunction<Interval[]> INTERVAL_ARRAY_FACTORY = size -> size == 0 ? empty_interval_array : new Interval[size];
+  private static final IntFunction<Tuple[]> TUPLE_ARRAY_FACTORY = size -> size == 0 ? empty_tuple_array : new Tuple[size];
+
+  private static final int NUMERIC_BASE = 10000;
+  private static final BigInteger NUMERIC_BIG_BASE = BigInteger.valueOf(NUMERIC_BASE);
+  private static final int NUMERIC_POS = 0x0000;
+  private static final int NUMERIC_NEG = 0x4000;
+  private static final int NUMERIC_NAN = 0xC000;
 
   public static void encodeText(DataType id, Object value, ByteBuf buff) {
     int index = buff.writerIndex();
@@ -103,8 +117,10 @@ public class DataTypeCodec {
       case NUMERIC_ARRAY:
         textEncodeNUMERIC_ARRAY((Numeric[]) value, buff);
         break;
+      case UNKNOWN:
+        textEncodeUNKNOWN(value, buff);
+        break;
       default:
-        System.out.println("Data type " + id + " does not support text encoding");
         buff.writeCharSequence(String.valueOf(value), StandardCharsets.UTF_8);
         break;
     }
@@ -148,6 +164,12 @@ public class DataTypeCodec {
       case FLOAT8_ARRAY:
         binaryEncodeArray((Double[]) value, DataType.FLOAT8, buff);
         break;
+      case NUMERIC:
+        binaryEncodeNUMERIC((Numeric) value, buff);
+        break;
+      case NUMERIC_ARRAY:
+        binaryEncodeArray((Numeric[]) value, DataType.NUMERIC, buff);
+        break;
       case CHAR:
         binaryEncodeCHAR((String) value, buff);
         break;
@@ -251,7 +273,6 @@ public class DataTypeCodec {
         binaryEncodeArray((String[]) value, DataType.ENUM, buff);
         break;
       default:
-        System.out.println("Data type " + id + " does not support binary encoding");
         defaultEncodeBinary(value, buff);
         break;
     }
@@ -283,6 +304,10 @@ public class DataTypeCodec {
         return binaryDecodeFLOAT8(len, buff);
       case FLOAT8_ARRAY:
         return binaryDecodeArray(DOUBLE_ARRAY_FACTORY, DataType.FLOAT8, len, buff);
+      case NUMERIC:
+        return binaryDecodeNUMERIC(len, buff);
+      case NUMERIC_ARRAY:
+        return binaryDecodeArray(NUMERIC_ARRAY_FACTORY, DataType.NUMERIC, len, buff);
       case CHAR:
         return binaryDecodeCHAR(len, buff);
       case CHAR_ARRAY:
@@ -348,11 +373,14 @@ public class DataTypeCodec {
       case INTERVAL_ARRAY:
         return binaryDecodeArray(INTERVAL_ARRAY_FACTORY, DataType.INTERVAL, len, buff);
       case ENUM:
-        return binaryDecodeTEXT(len, buff);
+        return binaryDecodeENUM(len, buff);
       case ENUM_ARRAY:
         return binaryDecodeArray(STRING_ARRAY_FACTORY, DataType.ENUM, len, buff);
+      case RECORD:
+        return binaryDecodeRECORD(len, buff);
+      case RECORD_ARRAY:
+        return binaryDecodeArray(TUPLE_ARRAY_FACTORY, DataType.RECORD, len, buff);
       default:
-        System.out.println("Data type " + id + " does not support binary decoding");
         return defaultDecodeBinary(len, buff);
     }
   }
@@ -452,15 +480,32 @@ public class DataTypeCodec {
       case INTERVAL_ARRAY:
         return textDecodeArray(INTERVAL_ARRAY_FACTORY, DataType.INTERVAL, len, buff);
       case ENUM:
-        return textdecodeTEXT(len, buff);
+        return textDecodeENUM(len, buff);
       case ENUM_ARRAY:
         return textDecodeArray(STRING_ARRAY_FACTORY, DataType.ENUM, len, buff);
+      case RECORD:
+        return textDecodeRECORD(len, buff);
+      case RECORD_ARRAY:
+        return textDecodeArray(TUPLE_ARRAY_FACTORY, DataType.RECORD, len, buff);
+      case UNKNOWN:
+        return textdecodeTEXT(len, buff);
       default:
-        System.out.println("Data type " + id + " does not support text decoding");
         return defaultDecodeText(len, buff);
     }
   }
 
+  /**
+   * Decode a value of a {@link DataType#CUSTOM} column with the codec of the column, the codec cannot read
+   * past the value.
+   */
+  public static Object decodeCustom(ColumnDesc column, int len, ByteBuf buff) {
+    int index = buff.readerIndex();
+    PgCodec<?> codec = column.getCodec();
+    Object value = column.getDataFormat() == DataFormat.BINARY ? codec.decodeBinary(len, buff) : codec.decodeText(len, buff);
+    buff.readerIndex(index + len);
+    return value;
+  }
+
   public static Object prepare(DataType type, Object value) {
     switch (type) {
       case JSON:
@@ -581,6 +626,95 @@ public class DataTypeCodec {
     return Numeric.parse(cs.toString());
   }
 
+  private static Numeric binaryDecodeNUMERIC(int len, ByteBuf buff) {
+    int ndigits = buff.readUnsignedShort();
+    int weight = buff.readShort();
+    int sign = buff.readUnsignedShort();
+    int dscale = buff.readUnsignedShort();
+    if (sign == NUMERIC_NAN) {
+      return Numeric.NaN;
+    }
+    // The digits are base 10000 groups, the decimal point is between two groups
+    int scale = Math.max(0, ndigits - weight - 1) * 4;
+    int groups = Math.max(ndigits, weight + 1);
+    long unscaled = 0;
+    BigInteger bigUnscaled = null;
+    for (int i = 0;i < groups;i++) {
+      int digit = i < ndigits ? buff.readShort() : 0;
+      if (bigUnscaled == null) {
+        if (unscaled <= (Long.MAX_VALUE - digit) / NUMERIC_BASE) {
+          unscaled = unscaled * NUMERIC_BASE + digit;
+          continue;
+        }
+        bigUnscaled = BigInteger.valueOf(unscaled);
+      }
+      bigUnscaled = bigUnscaled.multiply(NUMERIC_BIG_BASE).add(BigInteger.valueOf(digit));
+    }
+    if (bigUnscaled == null) {
+      if (sign == NUMERIC_NEG) {
+        unscaled = -unscaled;
+      }
+      if (scale == 0 && dscale == 0) {
+        // Fast path for integers
+        return Numeric.create(unscaled);
+      }
+      return Numeric.create(BigDecimal.valueOf(unscaled, scale).setScale(dscale, RoundingMode.DOWN));
+    } else {
+      if (sign == NUMERIC_NEG) {
+        bigUnscaled = bigUnscaled.negate();
+      }
+      return Numeric.create(new BigDecimal(bigUnscaled, scale).setScale(dscale, RoundingMode.DOWN));
+    }
+  }
+
+  private static void binaryEncodeNUMERIC(Numeric value, ByteBuf buff) {
+    if (value.isNaN()) {
+      buff.writeShort(0);
+      buff.writeShort(0);
+      buff.writeShort(NUMERIC_NAN);
+      buff.writeShort(0);
+      return;
+    }
+    BigDecimal decimal = value.bigDecimalValue();
+    int dscale = Math.max(0, decimal.scale());
+    // Align the scale on a digit group so the decimal point is between two groups
+    int scale = (dscale + 3) / 4 * 4;
+    BigInteger unscaled = decimal.setScale(scale).unscaledValue();
+    int sign = unscaled.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS;
+    // Digit groups from the least significant one
+    int[] digits;
+    int n = 0;
+    if (unscaled.bitLength() < 63) {
+      long l = Math.abs(unscaled.longValue());
+      digits = new int[5];
+      while (l != 0) {
+        digits[n++] = (int) (l % NUMERIC_BASE);
+        l /= NUMERIC_BASE;
+      }
+    } else {
+      BigInteger bi = unscaled.abs();
+      digits = new int[bi.bitLength() / 13 + 1];
+      while (bi.signum() != 0) {
+        BigInteger[] qr = bi.divideAndRemainder(NUMERIC_BIG_BASE);
+        digits[n++] = qr[1].intValue();
+        bi = qr[0];
+      }
+    }
+    int first = 0;
+    while (first < n && digits[first] == 0) {
+      first++;
+    }
+    int ndigits = n - first;
+    int weight = ndigits == 0 ? 0 : n - scale / 4 - 1;
+    buff.writeShort(ndigits);
+    buff.writeShort(weight);
+    buff.writeShort(sign);
+    buff.writeShort(dscale);
+    for (int i = n - 1;i >= first;i--) {
+      buff.writeShort(digits[i]);
+    }
+  }
+
   private static Point textDecodePOINT(int len, ByteBuf buff) {
     buff.skipBytes(1);
     int idx = buff.readerIndex();
@@ -672,6 +806,114 @@ public class DataTypeCodec {
     textEncodeArray(value, DataType.NUMERIC, buff);
   }
 
+  private static void textEncodeUNKNOWN(Object value, ByteBuf buff) {
+    String s;
+    if (value instanceof Json) {
+      s = io.vertx.core.json.Json.encode(((Json) value).value());
+    } else if (value instanceof Tuple) {
+      // Record literal of a composite type
+      s = textEncodeLiteral('(', ((Tuple) value).size(), ((Tuple) value)::getValue, ')');
+    } else if (value instanceof Object[]) {
+      // Array literal of an array of enum, domain or composite
+      Object[] array = (Object[]) value;
+      s = textEncodeLiteral('{', array.length, i -> array[i], '}');
+    } else {
+      s = String.valueOf(value);
+    }
+    buff.writeCharSequence(s, StandardCharsets.UTF_8);
+  }
+
+  private static String textEncodeLiteral(char start, int size, IntFunction<Object> elements, char end) {
+    StringBuilder sb = new StringBuilder().append(start);
+    for (int i = 0;i < size;i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      Object element = elements.apply(i);
+      if (element == null) {
+        // An empty record field is null
+        sb.append(start == '{' ? "NULL" : "");
+      } else {
+        ByteBuf tmp = Unpooled.buffer();
+        textEncodeUNKNOWN(element, tmp);
+        String s = tmp.toString(StandardCharsets.UTF_8);
+        sb.append('"');
+        for (int j = 0;j < s.length();j++) {
+          char c = s.charAt(j);
+          if (c == '"' || c == '\\') {
+            sb.append('\\');
+          }
+          sb.append(c);
+        }
+        sb.append('"');
+      }
+    }
+    return sb.append(end).toString();
+  }
+
+  private static String binaryDecodeENUM(int len, ByteBuf buff) {
+    // The labels of an enum are few, share a single instance of each
+    return binaryDecodeTEXT(len, buff).intern();
+  }
+
+  private static String textDecodeENUM(int len, ByteBuf buff) {
+    return binaryDecodeENUM(len, buff);
+  }
+
+  private static Tuple binaryDecodeRECORD(int len, ByteBuf buff) {
+    int size = buff.readInt();
+    ArrayTuple tuple = new ArrayTuple(size);
+    for (int i = 0;i < size;i++) {
+      int oid = buff.readInt();
+      int length = buff.readInt();
+      if (length == -1) {
+        tuple.add(null);
+      } else {
+        DataType type = DataType.lookup(oid);
+        // The fields which are not of a built-in type are kept as bytes
+        tuple.add(decodeBinary(type != null ? type : DataType.BYTEA, length, buff));
+      }
+    }
+    return tuple;
+  }
+
+  private static Tuple textDecodeRECORD(int len, ByteBuf buff) {
+    // The text format does not carry the types of the fields, they are decoded as strings
+    String s = buff.readCharSequence(len, StandardCharsets.UTF_8).toString();
+    ArrayTuple tuple = new ArrayTuple(4);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean empty = true;
+    for (int i = 1;i < s.length();i++) {
+      char c = s.charAt(i);
+      if (quoted) {
+        if (c == '\\') {
+          field.append(s.charAt(++i));
+        } else if (c == '"') {
+          if (i + 1 < s.length() && s.charAt(i + 1) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+        empty = false;
+      } else if (c == ',' || (c == ')' && i == s.length() - 1)) {
+        tuple.add(empty ? null : field.toString());
+        field.setLength(0);
+        empty = true;
+      } else {
+        field.append(c);
+        empty = false;
+      }
+    }
+    return tuple;
+  }
+
   private static void binaryEncodeCHAR(String value, ByteBuf buff) {
     binaryEncodeTEXT(value, buff);
   }
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import io.reactiverse.pgclient.PgCodec;
+import io.reactiverse.pgclient.Row;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the {@link DataType} of an OID.
+ * <p>
+ * The built-in types have a static OID, the types created in a database (enums, domains, composites and their arrays)
+ * are introspected from {@code pg_type} and cached:
+ * <ul>
+ *   <li>an enum is decoded as a {@code String}</li>
+ *   <li>a domain is decoded as its base type</li>
+ *   <li>a composite is decoded as a {@link io.reactiverse.pgclient.Tuple}</li>
+ *   <li>an array is decoded as an array of its element type</li>
+ *   <li>a type with a {@link PgCodec} is decoded as {@link DataType#CUSTOM} by its codec</li>
+ * </ul>
+ * The types of the database are introspected once by the first connection, the types that are unknown afterwards
+ * (e.g created later) are reported as {@link DataType#UNKNOWN} and introspected by the next query. The types that cannot
+ * be resolved, e.g extension types, remain {@link DataType#UNKNOWN} and are exchanged in text format.
+ * <p>
+ * A registry is shared by the pools and connections of a Vert.x instance to the same database, resolving a type is
+ * a lookup in an immutable map.
+ */
+public class DataTypeRegistry implements Shareable {
+
+  // The OIDs below are assigned to the objects created by initdb
+  private static final String USER_TYPES =
+    "t.oid >= 16384 AND (t.typtype IN ('e', 'd') OR t.typelem IN (SELECT e.oid FROM pg_type e WHERE e.oid >= 16384 AND e.typtype IN ('e', 'd')))";
+
+  private static final String QUERY =
+    "WITH RECURSIVE types(oid) AS (" +
+      "SELECT t.oid FROM pg_type t WHERE %s " +
+      "UNION " +
+      "SELECT u.oid FROM types JOIN pg_type t ON t.oid = types.oid CROSS JOIN LATERAL (VALUES (t.typbasetype), (t.typelem)) AS u(oid) WHERE u.oid <> 0" +
+    ") " +
+    "SELECT t.oid::int8, t.typtype::text, t.typbasetype::int8, t.typelem::int8, t.typcategory::text, t.typname::text FROM pg_type t JOIN types ON t.oid = types.oid";
+
+  private final Map<String, PgCodec<?>> codecsByName = new HashMap<>();
+  private final String userTypes;
+  private volatile IntObjectMap<DataType> resultTypes = new IntObjectHashMap<>();
+  private volatile IntObjectMap<DataType> paramTypes = new IntObjectHashMap<>();
+  private volatile IntObjectMap<PgCodec<?>> codecs = new IntObjectHashMap<>();
+  private final IntObjectMap<Boolean> missing = new IntObjectHashMap<>();
+  private boolean introspected;
+
+  public DataTypeRegistry() {
+    this(Collections.emptyList());
+  }
+
+  public DataTypeRegistry(List<PgCodec<?>> codecs) {
+    StringBuilder names = new StringBuilder();
+    for (PgCodec<?> codec : codecs) {
+      codecsByName.put(codec.typeName(), codec);
+      names.append(names.length() > 0 ? ", '" : "'").append(codec.typeName().replace("'", "''")).append('\'');
+    }
+    if (names.length() > 0) {
+      // The types with a codec and their arrays
+      userTypes = "(" + USER_TYPES + ") OR t.typname IN (" + names + ") OR t.typelem IN (SELECT e.oid FROM pg_type e WHERE e.typname IN (" + names + "))";
+    } else {
+      userTypes = USER_TYPES;
+    }
+  }
+
+  /**
+   * @return the type used to decode a value of the {@code oid} type
+   */
+  public DataType resultType(int oid) {
+    DataType type = DataType.lookup(oid);
+    if (type == null) {
+      type = resultTypes.get(oid);
+      if (type == null) {
+        missing(oid);
+        type = DataType.UNKNOWN;
+      }
+    }
+    return type;
+  }
+
+  /**
+   * @return the type used to encode a parameter of the {@code oid} type
+   */
+  public DataType paramType(int oid) {
+    DataType type = DataType.lookup(oid);
+    if (type == null) {
+      type = paramTypes.get(oid);
+      if (type == null) {
+        missing(oid);
+        type = DataType.UNKNOWN;
+      }
+    }
+    return type;
+  }
+
+  /**
+   * @return the codec of a {@link DataType#CUSTOM} type
+   */
+  public PgCodec<?> codec(int oid) {
+    return codecs.get(oid);
+  }
+
+  private synchronized void missing(int oid) {
+    missing.put(oid, Boolean.TRUE);
+  }
+
+  /**
+   * @return {@code true} the first time it is called, the caller shall introspect the types of the database
+   */
+  public synchronized boolean introspect() {
+    if (introspected) {
+      return false;
+    }
+    introspected = true;
+    return true;
+  }
+
+  /**
+   * Called when the introspection of the types of the database failed, the next call to {@link #introspect()}
+   * returns {@code true} again.
+   */
+  public synchronized void introspectionFailed() {
+    introspected = false;
+  }
+
+  /**
+   * @return the OIDs reported as unknown since the last call or {@code null}
+   */
+  public synchronized int[] takeMissing() {
+    if (missing.isEmpty()) {
+      return null;
+    }
+    int[] oids = new int[missing.size()];
+    int idx = 0;
+    for (IntObjectMap.PrimitiveEntry<Boolean> entry : missing.entries()) {
+      oids[idx++] = entry.key();
+    }
+    missing.clear();
+    return oids;
+  }
+
+  /**
+   * Build the query introspecting types, its rows are loaded by {@link #load(int[], Iterable)}.
+   *
+   * @param oids the OIDs to introspect or {@code null} to introspect the types of the database
+   * @return the query
+   */
+  public String query(int[] oids) {
+    if (oids == null) {
+      return String.format(QUERY, userTypes);
+    }
+    StringBuilder sb = new StringBuilder("t.oid IN (");
+    for (int i = 0;i < oids.length;i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(Integer.toUnsignedString(oids[i]));
+    }
+    return String.format(QUERY, sb.append(')'));
+  }
+
+  /**
+   * Load the rows of an introspection {@link #query(int[]) query}.
+   *
+   * @param oids the introspected OIDs, those that cannot be resolved are cached as {@link DataType#UNKNOWN}
+   * @param rows the rows
+   */
+  public synchronized void load(int[] oids, Iterable<Row> rows) {
+    IntObjectMap<Row> catalog = new IntObjectHashMap<>();
+    for (Row row : rows) {
+      catalog.put(row.getLong(0).intValue(), row);
+    }
+    IntObjectMap<DataType> results = new IntObjectHashMap<>();
+    IntObjectMap<DataType> params = new IntObjectHashMap<>();
+    IntObjectMap<PgCodec<?>> custom = new IntObjectHashMap<>();
+    results.putAll(resultTypes);
+    params.putAll(paramTypes);
+    custom.putAll(codecs);
+    for (IntObjectMap.PrimitiveEntry<Row> entry : catalog.entries()) {
+      resolve(entry.key(), catalog, results, params, custom);
+    }
+    if (oids != null) {
+      for (int oid : oids) {
+        if (DataType.lookup(oid) == null && !results.containsKey(oid)) {
+          results.put(oid, DataType.UNKNOWN);
+          params.put(oid, DataType.UNKNOWN);
+        }
+      }
+    }
+    // The codecs are published before the types that refer to them
+    codecs = custom;
+    resultTypes = results;
+    paramTypes = params;
+  }
+
+  private DataType resolve(int oid, IntObjectMap<Row> catalog, IntObjectMap<DataType> results, IntObjectMap<DataType> params, IntObjectMap<PgCodec<?>> custom) {
+    DataType type = DataType.lookup(oid);
+    if (type != null) {
+      return type;
+    }
+    type = results.get(oid);
+    if (type != null) {
+      return type;
+    }
+    type = DataType.UNKNOWN;
+    DataType param = DataType.UNKNOWN;
+    Row row = catalog.get(oid);
+    PgCodec<?> codec = row != null ? codecsByName.get(row.getString(5)) : null;
+    if (codec != null) {
+      type = param = DataType.CUSTOM;
+      custom.put(oid, codec);
+    } else if (row != null) {
+      switch (row.getString(1)) {
+        case "d": {
+          int base = row.getLong(2).intValue();
+          type = resolve(base, catalog, results, params, custom);
+          // The backend decodes a domain value with the function of its base type
+          param = DataType.lookup(base) != null ? type : params.get(base);
+          if (type == DataType.CUSTOM) {
+            custom.put(oid, custom.get(base));
+          }
+          break;
+        }
+        case "e":
+          type = param = DataType.ENUM;
+          break;
+        case "c":
+          // Sent in text format, as a record literal
+          type = DataType.RECORD;
+          break;
+        default: {
+          int elem = row.getLong(3).intValue();
+          if ("A".equals(row.getString(4)) && elem != 0) {
+            DataType elemType = resolve(elem, catalog, results, params, custom);
+            if (elemType == DataType.CUSTOM) {
+              type = param = DataType.CUSTOM;
+              custom.put(oid, new ArrayCodec<>(elem, custom.get(elem)));
+            } else {
+              // Sent in text format, the binary format of an array carries the OID of its element type
+              type = arrayOf(elemType);
+            }
+          }
+          break;
+        }
+      }
+    }
+    results.put(oid, type);
+    params.put(oid, param);
+    return type;
+  }
+
+  private static DataType arrayOf(DataType type) {
+    switch (type) {
+      case ENUM:
+        return DataType.ENUM_ARRAY;
+      case RECORD:
+        return DataType.RECORD_ARRAY;
+      case UNKNOWN:
+        return DataType.UNKNOWN;
+      default:
+        try {
+          return DataType.valueOf(type.name() + "_ARRAY");
+        } catch (IllegalArgumentException e) {
+          // Multidimensional arrays are not supported
+          return DataType.UNKNOWN;
+        }
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl.codec.decoder;
+
+import io.netty.buffer.ByteBuf;
+import io.reactiverse.pgclient.impl.ArrayTuple;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the values of a column into a row, the decoders of a row description are created once with the
+ * description so the type and the format of a column are not dispatched for each value.
+ */
+public abstract class ColumnDecoder {
+
+  private static final ColumnDecoder[] BINARY_DECODERS = new ColumnDecoder[DataType.values().length];
+  private static final ColumnDecoder[] TEXT_DECODERS = new ColumnDecoder[DataType.values().length];
+
+  static {
+    for (DataType type : DataType.values()) {
+      BINARY_DECODERS[type.ordinal()] = binary(type);
+      TEXT_DECODERS[type.ordinal()] = new TextDecoder(type);
+    }
+  }
+
+  private static ColumnDecoder binary(DataType type) {
+    switch (type) {
+      case BOOL:
+        return new ByteSlotDecoder(ArrayTuple.Slot.BOOL);
+      case INT2:
+        return new ShortSlotDecoder(ArrayTuple.Slot.INT2);
+      case INT4:
+      case FLOAT4:
+        return new IntSlotDecoder(ArrayTuple.Slot.of(type));
+      case INT8:
+      case FLOAT8:
+        return new LongSlotDecoder(ArrayTuple.Slot.of(type));
+      case CHAR:
+      case VARCHAR:
+      case BPCHAR:
+      case TEXT:
+      case NAME:
+        return new StringDecoder();
+      default:
+        return new BinaryDecoder(type);
+    }
+  }
+
+  /**
+   * @return the decoder of the values of a column
+   */
+  public static ColumnDecoder of(ColumnDesc column) {
+    if (column.getDataType() == DataType.CUSTOM) {
+      return new CustomDecoder(column);
+    }
+    return (column.getDataFormat() == DataFormat.BINARY ? BINARY_DECODERS : TEXT_DECODERS)[column.getDataType().ordinal()];
+  }
+
+  /**
+   * Decode a value and add it at the end of the row.
+   */
+  public void add(ArrayTuple row, int len, ByteBuf in) {
+    row.add(decode(len, in));
+  }
+
+  /**
+   * Decode a value and set it at {@code pos} in the row.
+   */
+  public void set(ArrayTuple row, int pos, int len, ByteBuf in) {
+    row.set(pos, decode(len, in));
+  }
+
+  abstract Object decode(int len, ByteBuf in);
+
+  private static class BinaryDecoder extends ColumnDecoder {
+    private final DataType type;
+    BinaryDecoder(DataType type) {
+      this.type = type;
+    }
+    @Override
+    Object decode(int len, ByteBuf in) {
+      return DataTypeCodec.decodeBinary(type, len, in);
+    }
+  }
+
+  private static class TextDecoder extends ColumnDecoder {
+    private final DataType type;
+    TextDecoder(DataType type) {
+      this.type = type;
+    }
+    @Override
+    Object decode(int len, ByteBuf in) {
+      return DataTypeCodec.decodeText(type, len, in);
+    }
+  }
+
+  private static class StringDecoder extends ColumnDecoder {
+    @Override
+    Object decode(int len, ByteBuf in) {
+      return in.readCharSequence(len, StandardCharsets.UTF_8).toString();
+    }
+  }
+
+  private static class CustomDecoder extends ColumnDecoder {
+    private final ColumnDesc column;
+    CustomDecoder(ColumnDesc column) {
+      this.column = column;
+    }
+    @Override
+    Object decode(int len, ByteBuf in) {
+      return DataTypeCodec.decodeCustom(column, len, in);
+    }
+  }
+
+  /**
+   * The decoder of a fixed width value stored unboxed in a slot of the row.
+   */
+  private static abstract class SlotDecoder extends ColumnDecoder {
+
+    private final ArrayTuple.Slot slot;
+
+    SlotDecoder(ArrayTuple.Slot slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public void add(ArrayTuple row, int len, ByteBuf in) {
+      row.addSlot(slot, read(in));
+    }
+
+    @Override
+    public void set(ArrayTuple row, int pos, int len, ByteBuf in) {
+      row.setSlot(pos, slot, read(in));
+    }
+
+    @Override
+    Object decode(int len, ByteBuf in) {
+      return slot.box(read(in));
+    }
+
+    abstract long read(ByteBuf in);
+  }
+
+  private static class ByteSlotDecoder extends SlotDecoder {
+    ByteSlotDecoder(ArrayTuple.Slot slot) {
+      super(slot);
+    }
+    @Override
+    long read(ByteBuf in) {
+      return in.readByte();
+    }
+  }
+
+  private static class ShortSlotDecoder extends SlotDecoder {
+    ShortSlotDecoder(ArrayTuple.Slot slot) {
+      super(slot);
+    }
+    @Override
+    long read(ByteBuf in) {
+      return in.readShort();
+    }
+  }
+
+  private static class IntSlotDecoder extends SlotDecoder {
+    IntSlotDecoder(ArrayTuple.Slot slot) {
+      super(slot);
+    }
+    @Override
+    long read(ByteBuf in) {
+      return in.readInt();
+    }
+  }
+
+  private static class LongSlotDecoder extends SlotDecoder {
+    LongSlotDecoder(ArrayTuple.Slot slot) {
+      super(slot);
+    }
+    @Override
+    long read(ByteBuf in) {
+      return in.readLong();
+    }
+  }
+}
@@ -25,7 +25,9 @@ import io.reactiverse.pgclient.impl.CommandBase;
 import io.reactiverse.pgclient.impl.CommandResponse;
 import io.reactiverse.pgclient.impl.QueryCommandBase;
 import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.PgCodec;
 import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataTypeRegistry;
 import io.reactiverse.pgclient.impl.codec.DataType;
 import io.reactiverse.pgclient.impl.codec.TxStatus;
 import io.reactiverse.pgclient.impl.codec.util.Util;
@@ -49,14 +51,19 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
 
   private final Deque<CommandBase<?>> inflight;
   private final ByteBufAllocator alloc;
+  private final DataTypeRegistry registry;
   private Handler<? super CommandResponse<?>> commandResponseHandler;
   private Handler<NoticeResponse> noticeHandler;
 
+  private ChannelHandlerContext ctx;
   private ByteBuf in;
+  private boolean paused;
+  private boolean decoding;
 
-  public MessageDecoder(Deque<CommandBase<?>> inflight, ByteBufAllocator alloc) {
+  public MessageDecoder(Deque<CommandBase<?>> inflight, ByteBufAllocator alloc, DataTypeRegistry registry) {
     this.inflight = inflight;
     this.alloc = alloc;
+    this.registry = registry;
   }
 
   public void run(CommandBase<?> cmd) {
@@ -64,8 +71,29 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
     cmd.noticeHandler = noticeHandler;
   }
 
+  /**
+   * Stop decoding the received messages, the messages remain buffered until {@link #resume()} is called.
+   */
+  public void pause() {
+    paused = true;
+  }
+
+  /**
+   * Decode the messages buffered since {@link #pause()} was called.
+   */
+  public void resume() {
+    if (paused) {
+      paused = false;
+      if (in != null && !decoding) {
+        // Otherwise the current decoding loop carries on
+        decode(ctx);
+      }
+    }
+  }
+
   @Override
   public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+    this.ctx = ctx;
     commandResponseHandler = ctx::fireChannelRead;
     noticeHandler = ctx::fireChannelRead;
   }
@@ -86,7 +114,24 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
       }
       composite.addComponent(true, buff);
     }
-    while (true) {
+    decode(ctx);
+  }
+
+  private void decode(ChannelHandlerContext ctx) {
+    decoding = true;
+    try {
+      decodeMessages(ctx);
+    } finally {
+      decoding = false;
+    }
+    if (in != null && !in.isReadable()) {
+      in.release();
+      in = null;
+    }
+  }
+
+  private void decodeMessages(ChannelHandlerContext ctx) {
+    while (!paused) {
       int available = in.readableBytes();
       if (available < 5) {
         break;
@@ -118,6 +163,10 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
             decodeBindComplete();
             break;
           }
+          case MessageType.COPY_DATA: {
+            decodeCopyData(in);
+            break;
+          }
           default: {
             decodeMessage(ctx, id, in);
           }
@@ -126,10 +175,6 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
         in.setIndex(endIdx, writerIndex);
       }
     }
-    if (in != null && !in.isReadable()) {
-      in.release();
-      in = null;
-    }
   }
 
   private void decodeMessage(ChannelHandlerContext ctx, byte id, ByteBuf in) {
@@ -186,6 +231,18 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
         decodeNotificationResponse(ctx, in);
         break;
       }
+      case MessageType.COPY_IN_RESPONSE: {
+        decodeCopyInResponse();
+        break;
+      }
+      case MessageType.COPY_OUT_RESPONSE: {
+        decodeCopyOutResponse();
+        break;
+      }
+      case MessageType.COPY_DONE: {
+        decodeCopyDone();
+        break;
+      }
       default: {
         throw new UnsupportedOperationException();
       }
@@ -217,14 +274,16 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
       short typeSize = in.readShort();
       int typeModifier = in.readInt();
       int textOrBinary = in.readUnsignedShort(); // Useless for now
+      DataType dataType = registry.resultType(typeOID);
       ColumnDesc column = new ColumnDesc(
         fieldName,
         tableOID,
         columnAttributeNumber,
-        DataType.valueOf(typeOID),
+        dataType,
         typeSize,
         typeModifier,
-        DataFormat.valueOf(textOrBinary)
+        DataFormat.valueOf(textOrBinary),
+        dataType == DataType.CUSTOM ? registry.codec(typeOID) : null
       );
       columns[c] = column;
     }
@@ -410,16 +469,42 @@ public class MessageDecoder extends ChannelInboundHandlerAdapter {
     inflight.peek().handleCloseComplete();
   }
 
+  private void decodeCopyInResponse() {
+    // The overall format and the column formats are determined by the COPY statement
+    inflight.peek().handleCopyInResponse();
+  }
+
+  private void decodeCopyOutResponse() {
+    // The overall format and the column formats are determined by the COPY statement
+    inflight.peek().handleCopyOutResponse();
+  }
+
+  private void decodeCopyData(ByteBuf in) {
+    inflight.peek().handleCopyData(in);
+  }
+
+  private void decodeCopyDone() {
+    inflight.peek().handleCopyDone();
+  }
+
   private void decodeNoData() {
     inflight.peek().handleNoData();
   }
 
   private void decodeParameterDescription(ByteBuf in) {
     DataType[] paramDataTypes = new DataType[in.readUnsignedShort()];
+    PgCodec<?>[] paramCodecs = null;
     for (int c = 0; c < paramDataTypes.length; ++c) {
-      paramDataTypes[c] = DataType.valueOf(in.readInt());
+      int oid = in.readInt();
+      paramDataTypes[c] = registry.paramType(oid);
+      if (paramDataTypes[c] == DataType.CUSTOM) {
+        if (paramCodecs == null) {
+          paramCodecs = new PgCodec<?>[paramDataTypes.length];
+        }
+        paramCodecs[c] = registry.codec(oid);
+      }
     }
-    inflight.peek().handleParameterDescription(new ParameterDescription(paramDataTypes));
+    inflight.peek().handleParameterDescription(new ParameterDescription(paramDataTypes, paramCodecs));
   }
 
   private void decodeParameterStatus(ByteBuf in) {
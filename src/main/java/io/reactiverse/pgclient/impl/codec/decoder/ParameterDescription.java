@@ -17,8 +17,9 @@
 
 package io.reactiverse.pgclient.impl.codec.decoder;
 
-import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+import io.reactiverse.pgclient.PgCodec;
 import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.encoder.ParamEncoder;
 import io.reactiverse.pgclient.impl.codec.util.Util;
 
 import java.util.Arrays;
@@ -33,36 +34,51 @@ public class ParameterDescription {
 
   // OIDs
   private final DataType[] paramDataTypes;
+  private final PgCodec<?>[] paramCodecs;
+  private final ParamEncoder[] paramEncoders;
 
   public ParameterDescription(DataType[] paramDataTypes) {
+    this(paramDataTypes, null);
+  }
+
+  public ParameterDescription(DataType[] paramDataTypes, PgCodec<?>[] paramCodecs) {
     this.paramDataTypes = paramDataTypes;
+    this.paramCodecs = paramCodecs;
+    this.paramEncoders = ParamEncoder.of(paramDataTypes, paramCodecs);
   }
 
   public DataType[] getParamDataTypes() {
     return paramDataTypes;
   }
 
+  /**
+   * @return the codecs of the {@link DataType#CUSTOM} parameters or {@code null} when there are none
+   */
+  public PgCodec<?>[] getParamCodecs() {
+    return paramCodecs;
+  }
+
+  /**
+   * @return the encoders of the parameters
+   */
+  public ParamEncoder[] getParamEncoders() {
+    return paramEncoders;
+  }
+
   public String prepare(List<Object> values) {
-    if (values.size() != paramDataTypes.length) {
+    if (values.size() != paramEncoders.length) {
       return buildReport(values);
     }
-    for (int i = 0;i < paramDataTypes.length;i++) {
-      DataType paramDataType = paramDataTypes[i];
-      Object value = values.get(i);
-      Object val = DataTypeCodec.prepare(paramDataType, value);
-      if (val != value) {
-        if (val == DataTypeCodec.REFUSED_SENTINEL) {
-          return buildReport(values);
-        } else {
-          values.set(i, val);
-        }
+    for (int i = 0;i < paramEncoders.length;i++) {
+      if (!paramEncoders[i].prepare(values, i)) {
+        return buildReport(values);
       }
     }
     return null;
   }
 
   private String buildReport(List<Object> values) {
-    return Util.buildInvalidArgsError(values.stream(), Stream.of(paramDataTypes).map(type -> type.type));
+    return Util.buildInvalidArgsError(values.stream(), Stream.of(paramEncoders).map(ParamEncoder::javaType));
   }
 
   @Override
@@ -70,7 +86,7 @@ public class ParameterDescription {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     ParameterDescription that = (ParameterDescription) o;
-    return Arrays.equals(paramDataTypes, that.paramDataTypes);
+    return Arrays.equals(paramDataTypes, that.paramDataTypes) && Arrays.equals(paramCodecs, that.paramCodecs);
   }
 
   @Override
@@ -33,9 +33,14 @@ public class RowDescription {
 
   private final ColumnDesc[] columns;
   private final List<String> columnNames;
+  private final ColumnDecoder[] decoders;
 
   public RowDescription(ColumnDesc[] columns) {
     this.columns = columns;
+    this.decoders = new ColumnDecoder[columns.length];
+    for (int i = 0;i < columns.length;i++) {
+      decoders[i] = ColumnDecoder.of(columns[i]);
+    }
     this.columnNames = Collections.unmodifiableList(Stream.of(columns)
       .map(ColumnDesc::getName)
       .collect(Collectors.toList()));
@@ -56,6 +61,13 @@ public class RowDescription {
     return columnNames;
   }
 
+  /**
+   * @return the decoders of the columns
+   */
+  public ColumnDecoder[] decoders() {
+    return decoders;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
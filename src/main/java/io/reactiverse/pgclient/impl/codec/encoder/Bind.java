@@ -18,25 +18,78 @@
 package io.reactiverse.pgclient.impl.codec.encoder;
 
 import io.reactiverse.pgclient.impl.codec.ColumnDesc;
-import io.reactiverse.pgclient.impl.codec.DataType;
+
+import java.nio.ByteBuffer;
 
 /**
+ * The statement and the parameter/result formats of a {@code Bind} message, they don't change between executions
+ * and are encoded once in the {@link #head} and {@link #tail} templates, only the parameter values are encoded
+ * for each execution.
+ *
  * @author <a href="mailto:emad.albloushi@gmail.com">Emad Alblueshi</a>
  */
 public class Bind {
 
   public final long statement;
-  public final DataType[] paramTypes;
+  public final ParamEncoder[] paramEncoders;
   public final ColumnDesc[] resultColumns;
 
-  public Bind(long statement, DataType[] paramTypes, ColumnDesc[] resultColumns) {
+  // Statement name, parameter formats and parameter count, written after the portal name
+  final byte[] head;
+
+  // Result formats, written after the parameter values
+  final byte[] tail;
+
+  public Bind(long statement, ParamEncoder[] paramEncoders, ColumnDesc[] resultColumns) {
     this.statement = statement;
-    this.paramTypes = paramTypes;
+    this.paramEncoders = paramEncoders;
     this.resultColumns = resultColumns;
+    this.head = encodeHead(statement, paramEncoders);
+    this.tail = encodeTail(resultColumns);
   }
 
   public long getStatement() {
     return statement;
   }
 
+  int paramCount() {
+    return paramEncoders != null ? paramEncoders.length : 0;
+  }
+
+  private static byte[] encodeHead(long statement, ParamEncoder[] paramEncoders) {
+    int paramLen = paramEncoders != null ? paramEncoders.length : 0;
+    ByteBuffer buff = ByteBuffer.allocate((statement == 0 ? 1 : 8) + 2 + 2 * paramLen + 2);
+    if (statement == 0) {
+      buff.put((byte) 0);
+    } else {
+      buff.putLong(statement);
+    }
+    buff.putShort((short) paramLen);
+    for (int c = 0;c < paramLen;c++) {
+      buff.putShort((short) paramEncoders[c].format());
+    }
+    buff.putShort((short) paramLen);
+    return buff.array();
+  }
+
+  private static byte[] encodeTail(ColumnDesc[] resultColumns) {
+    ByteBuffer buff;
+    if (resultColumns == null) {
+      // Result columns are unknown, they are all in Text format
+      buff = ByteBuffer.allocate(2);
+      buff.putShort((short) 0);
+    } else if (resultColumns.length > 0) {
+      buff = ByteBuffer.allocate(2 + 2 * resultColumns.length);
+      buff.putShort((short) resultColumns.length);
+      for (ColumnDesc resultColumn : resultColumns) {
+        buff.putShort((short) (resultColumn.getDataType().supportsBinary ? 1 : 0));
+      }
+    } else {
+      // Result columns are all in Binary format
+      buff = ByteBuffer.allocate(4);
+      buff.putShort((short) 1);
+      buff.putShort((short) 1);
+    }
+    return buff.array();
+  }
 }
@@ -18,9 +18,7 @@ package io.reactiverse.pgclient.impl.codec.encoder;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.reactiverse.pgclient.impl.codec.ColumnDesc;
 import io.reactiverse.pgclient.impl.codec.DataType;
-import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
 import io.reactiverse.pgclient.impl.codec.TxStatus;
 import io.reactiverse.pgclient.impl.codec.decoder.ErrorResponse;
 import io.reactiverse.pgclient.impl.codec.decoder.NoticeResponse;
@@ -28,7 +26,6 @@ import io.reactiverse.pgclient.impl.codec.decoder.ParameterDescription;
 import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
 import io.reactiverse.pgclient.impl.codec.util.Util;
 
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static io.reactiverse.pgclient.impl.codec.util.Util.writeCString;
@@ -50,28 +47,101 @@ public final class MessageEncoder {
   private static final byte EXECUTE = 'E';
   private static final byte CLOSE = 'C';
   private static final byte SYNC = 'S';
+  private static final byte COPY_DATA = 'd';
+  private static final byte COPY_DONE = 'c';
+  private static final byte COPY_FAIL = 'f';
+
+  // Signature, flags field and header extension length of the binary COPY format
+  private static final byte[] COPY_BINARY_HEADER = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+    0, 0, 0, 0,
+    0, 0, 0, 0
+  };
+
+  // Execute of the unnamed portal fetching all rows followed by Sync
+  private static final byte[] EXECUTE_SYNC = {
+    EXECUTE, 0, 0, 0, 9, 0, 0, 0, 0, 0,
+    SYNC, 0, 0, 0, 4
+  };
+
+  // Initial capacity of the staging buffer
+  private static final int INITIAL_CAPACITY = 256;
+
+  // Staging buffers larger than this are not kept after a flush
+  private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
 
   private final ChannelHandlerContext ctx;
+  private final boolean reuse;
   private ByteBuf out;
+  private boolean flushed;
+  private boolean closed;
 
   public MessageEncoder(ChannelHandlerContext ctx) {
+    this(ctx, false);
+  }
+
+  /**
+   * Create an encoder, the size of a message is computed before it is written so the buffer grows at most once per message.
+   * <p>
+   * When {@code reuse} is {@code false}, the buffer is allocated with the size of the first message written after a flush
+   * and is handed off to the channel by the flush. Otherwise the messages are written to a per connection direct staging
+   * buffer that is written to the channel and reused when the write has completed, a new one is allocated when the next
+   * messages are written before.
+   *
+   * @param ctx the channel context
+   * @param reuse whether to reuse a staging buffer between flushes
+   */
+  public MessageEncoder(ChannelHandlerContext ctx, boolean reuse) {
     this.ctx = ctx;
+    this.reuse = reuse;
   }
 
   public void flush() {
-    if (out != null) {
+    if (out == null || flushed) {
+      return;
+    }
+    int len = out.readableBytes();
+    if (len == 0) {
+      return;
+    }
+    if (reuse && !closed && out.capacity() <= MAX_RETAINED_CAPACITY) {
+      flushed = true;
+      ctx.writeAndFlush(out.retain());
+    } else {
+      // Hand off the buffer
       ByteBuf buff = out;
       out = null;
       ctx.writeAndFlush(buff);
     }
   }
 
+  /**
+   * Release the staging buffer, the messages written after are sent without staging.
+   */
+  public void close() {
+    if (!closed) {
+      closed = true;
+      if (out != null) {
+        // The channel releases its own reference when the buffer was written
+        out.release();
+        out = null;
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes written since the last flush
+   */
+  public int size() {
+    return out != null && !flushed ? out.readableBytes() : 0;
+  }
+
   /**
    * This message immediately closes the connection. On receipt of this message,
    * the backend closes the connection and terminates.
    */
   public void writeTerminate() {
-    ensureBuffer();
+    ensureBuffer(5);
     out.writeByte(TERMINATE);
     out.writeInt(4);
   }
@@ -90,7 +160,7 @@ public final class MessageEncoder {
    * situation in {@link ReadyForQuery#txStatus()} that includes {@link TxStatus} information.
    */
   public void writeSync() {
-    ensureBuffer();
+    ensureBuffer(5);
     out.writeByte(SYNC);
     out.writeInt(4);
   }
@@ -105,7 +175,7 @@ public final class MessageEncoder {
    * @param portal
    */
   public void writeClosePortal(String portal) {
-    ensureBuffer();
+    ensureBuffer(7 + Util.utf8Length(portal));
     int pos = out.writerIndex();
     out.writeByte(CLOSE);
     out.writeInt(0);
@@ -114,8 +184,18 @@ public final class MessageEncoder {
     out.setInt(pos + 1, out.writerIndex() - pos - 1);
   }
 
+  public void writeCloseStatement(long statement) {
+    ensureBuffer(14);
+    int pos = out.writerIndex();
+    out.writeByte(CLOSE);
+    out.writeInt(0);
+    out.writeByte('S');
+    out.writeLong(statement);
+    out.setInt(pos + 1, out.writerIndex() - pos - 1);
+  }
+
   public void writeStartupMessage(StartupMessage msg) {
-    ensureBuffer();
+    ensureBuffer(INITIAL_CAPACITY);
 
     int pos = out.writerIndex();
 
@@ -144,7 +224,7 @@ public final class MessageEncoder {
   }
 
   public void writePasswordMessage(PasswordMessage msg) {
-    ensureBuffer();
+    ensureBuffer(6 + Util.utf8Length(msg.hash));
     int pos = out.writerIndex();
     out.writeByte(PASSWORD_MESSAGE);
     out.writeInt(0);
@@ -161,7 +241,7 @@ public final class MessageEncoder {
    * {@link ReadyForQuery} and {@link NoticeResponse}
    */
   public void writeQuery(Query query) {
-    ensureBuffer();
+    ensureBuffer(6 + Util.utf8Length(query.sql));
     int pos = out.writerIndex();
     out.writeByte(QUERY);
     out.writeInt(0);
@@ -188,7 +268,7 @@ public final class MessageEncoder {
    * if there is no such portal.
    */
   public void writeDescribe(Describe describe) {
-    ensureBuffer();
+    ensureBuffer(describe.statement != 0 ? 14 : 7 + (describe.portal != null ? Util.utf8Length(describe.portal) : 0));
     int pos = out.writerIndex();
     out.writeByte(DESCRIBE);
     out.writeInt(0);
@@ -212,7 +292,8 @@ public final class MessageEncoder {
    * The response is either {@link ParseComplete} or {@link ErrorResponse}
    */
   public void writeParse(Parse parse) {
-    ensureBuffer();
+    ensureBuffer(5 + (parse.statement == 0 ? 1 : 8) + Util.utf8Length(parse.query) + 1 + 2 +
+      (parse.paramTypes != null ? 4 * parse.paramTypes.length : 0));
     int pos = out.writerIndex();
     out.writeByte(PARSE);
     out.writeInt(0);
@@ -222,16 +303,16 @@ public final class MessageEncoder {
       out.writeLong(parse.statement);
     }
     Util.writeCStringUTF8(out, parse.query);
-    // no parameter data types (OIDs)
-    // if(paramDataTypes == null) {
-    out.writeShort(0);
-    // } else {
-    //   // Parameter data types (OIDs)
-    //   out.writeShort(paramDataTypes.length);
-    //   for (int paramDataType : paramDataTypes) {
-    //     out.writeInt(paramDataType);
-    //   }
-    // }
+    if (parse.paramTypes == null) {
+      // no parameter data types (OIDs)
+      out.writeShort(0);
+    } else {
+      // Parameter data types (OIDs), zero lets the server infer the type
+      out.writeShort(parse.paramTypes.length);
+      for (DataType paramType : parse.paramTypes) {
+        out.writeInt(paramType == DataType.UNKNOWN ? 0 : paramType.id);
+      }
+    }
     out.setInt(pos + 1, out.writerIndex() - pos - 1);
   }
 
@@ -254,18 +335,31 @@ public final class MessageEncoder {
    * @author <a href="mailto:emad.albloushi@gmail.com">Emad Alblueshi</a>
    */
   public void writeExecute(String portal, int rowCount) {
-    ensureBuffer();
+    ensureBuffer(10 + (portal != null ? Util.utf8Length(portal) : 0));
     int pos = out.writerIndex();
     out.writeByte(EXECUTE);
     out.writeInt(0);
     if (portal != null) {
-      out.writeCharSequence(portal, StandardCharsets.UTF_8);
+      Util.writeUTF8(out, portal);
     }
     out.writeByte(0);
     out.writeInt(rowCount); // Zero denotes "no limit" maybe for ReadStream<Row>
     out.setInt(pos + 1, out.writerIndex() - pos - 1);
   }
 
+  /**
+   * Write an {@link #writeExecute(String, int) Execute} message followed by a {@link #writeSync() Sync} message.
+   */
+  public void writeExecuteSync(String portal, int rowCount) {
+    if (portal == null && rowCount == 0) {
+      ensureBuffer(EXECUTE_SYNC.length);
+      out.writeBytes(EXECUTE_SYNC);
+    } else {
+      writeExecute(portal, rowCount);
+      writeSync();
+    }
+  }
+
   /**
    * <p>
    * The message gives the name of the prepared statement, the name of portal,
@@ -275,63 +369,116 @@ public final class MessageEncoder {
    * The response is either {@link BindComplete} or {@link ErrorResponse}.
    */
   public void writeBind(Bind bind, String portal, List<Object> paramValues) {
-    ensureBuffer();
+    ParamEncoder[] encoders = bind.paramEncoders;
+    int paramLen = bind.paramCount();
+    int size = 6 + (portal != null ? Util.utf8Length(portal) : 0) + bind.head.length + bind.tail.length;
+    for (int c = 0;c < paramLen;c++) {
+      size += encoders[c].size(paramValues, c);
+    }
+    ensureBuffer(size);
     int pos = out.writerIndex();
     out.writeByte(BIND);
     out.writeInt(0);
     if (portal != null) {
-      out.writeCharSequence(portal, StandardCharsets.UTF_8);
+      Util.writeUTF8(out, portal);
     }
     out.writeByte(0);
-    if (bind.statement == 0) {
-      out.writeByte(0);
-    } else {
-      out.writeLong(bind.statement);
-    }
-    int paramLen = paramValues.size();
-    out.writeShort(paramLen);
-    // Parameter formats
+    out.writeBytes(bind.head);
     for (int c = 0;c < paramLen;c++) {
-      // for now each format is Binary
-      out.writeShort(bind.paramTypes[c].supportsBinary ? 1 : 0);
-    }
-    out.writeShort(paramLen);
-    for (int c = 0;c < paramLen;c++) {
-      Object param = paramValues.get(c);
-      if (param == null) {
-        // NULL value
-        out.writeInt(-1);
-      } else {
-        DataType dataType = bind.paramTypes[c];
-        if (dataType.supportsBinary) {
-          int idx = out.writerIndex();
-          out.writeInt(0);
-          DataTypeCodec.encodeBinary(dataType, param, out);
-          out.setInt(idx, out.writerIndex() - idx - 4);
-        } else {
-          DataTypeCodec.encodeText(dataType, param, out);
-        }
-      }
+      encoders[c].encode(paramValues, c, out);
     }
+    out.writeBytes(bind.tail);
+    out.setInt(pos + 1, out.writerIndex() - pos - 1);
+  }
 
-    // MAKE resultColumsn non null to avoid null check
+  /**
+   * Send a chunk of COPY data, the message boundaries don't need to match the rows boundaries.
+   */
+  public void writeCopyData(ByteBuf data) {
+    ensureBuffer(5 + data.readableBytes());
+    out.writeByte(COPY_DATA);
+    out.writeInt(4 + data.readableBytes());
+    out.writeBytes(data, data.readerIndex(), data.readableBytes());
+  }
 
-    // Result columns are all in Binary format
-    if (bind.resultColumns.length > 0) {
-      out.writeShort(bind.resultColumns.length);
-      for (ColumnDesc resultColumn : bind.resultColumns) {
-        out.writeShort(resultColumn.getDataType().supportsBinary ? 1 : 0);
-      }
-    } else {
-      out.writeShort(1);
-      out.writeShort(1);
+  /**
+   * Send the header of the binary COPY format.
+   */
+  public void writeCopyBinaryHeader() {
+    ensureBuffer(5 + COPY_BINARY_HEADER.length);
+    out.writeByte(COPY_DATA);
+    out.writeInt(4 + COPY_BINARY_HEADER.length);
+    out.writeBytes(COPY_BINARY_HEADER);
+  }
+
+  /**
+   * Send a tuple in the binary COPY format, the values must have been prepared for their types.
+   */
+  public void writeCopyBinaryTuple(ParamEncoder[] encoders, List<Object> values) {
+    int size = 7;
+    for (int c = 0;c < encoders.length;c++) {
+      size += encoders[c].size(values, c);
+    }
+    ensureBuffer(size);
+    int pos = out.writerIndex();
+    out.writeByte(COPY_DATA);
+    out.writeInt(0);
+    out.writeShort(encoders.length);
+    for (int c = 0;c < encoders.length;c++) {
+      encoders[c].encode(values, c, out);
     }
     out.setInt(pos + 1, out.writerIndex() - pos - 1);
   }
 
-  private void ensureBuffer() {
+  /**
+   * Send the trailer of the binary COPY format.
+   */
+  public void writeCopyBinaryTrailer() {
+    ensureBuffer(7);
+    out.writeByte(COPY_DATA);
+    out.writeInt(6);
+    out.writeShort(-1);
+  }
+
+  /**
+   * The message ends a COPY FROM STDIN, the response is a {@link CommandComplete} or an {@link ErrorResponse}.
+   */
+  public void writeCopyDone() {
+    ensureBuffer(5);
+    out.writeByte(COPY_DONE);
+    out.writeInt(4);
+  }
+
+  /**
+   * The message aborts a COPY FROM STDIN, the response is an {@link ErrorResponse} with the {@code reason}.
+   */
+  public void writeCopyFail(String reason) {
+    ensureBuffer(6 + Util.utf8Length(reason));
+    int pos = out.writerIndex();
+    out.writeByte(COPY_FAIL);
+    out.writeInt(0);
+    Util.writeCStringUTF8(out, reason);
+    out.setInt(pos + 1, out.writerIndex() - pos - 1);
+  }
+
+  /**
+   * Make room for a message of {@code size} bytes.
+   */
+  private void ensureBuffer(int size) {
     if (out == null) {
-      out = ctx.alloc().ioBuffer();
+      out = reuse && !closed ? ctx.alloc().directBuffer(Math.max(size, INITIAL_CAPACITY)) : ctx.alloc().ioBuffer(size);
+    } else {
+      if (flushed) {
+        flushed = false;
+        if (out.refCnt() == 1) {
+          // The write has completed
+          out.clear();
+        } else {
+          out.release();
+          out = ctx.alloc().directBuffer(Math.max(size, INITIAL_CAPACITY));
+        }
+      }
+      out.ensureWritable(size);
     }
   }
 }
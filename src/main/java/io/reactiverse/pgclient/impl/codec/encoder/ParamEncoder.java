@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl.codec.encoder;
+
+import io.netty.buffer.ByteBuf;
+import io.reactiverse.pgclient.PgCodec;
+import io.reactiverse.pgclient.impl.ArrayTuple;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+import io.reactiverse.pgclient.impl.codec.util.Util;
+
+import java.util.List;
+
+/**
+ * Encodes the parameter of a statement, the encoders of a prepared statement are created once with its
+ * parameter description so the type of a parameter is not dispatched for each execution.
+ */
+public abstract class ParamEncoder {
+
+  private static final ParamEncoder[] ENCODERS = new ParamEncoder[DataType.values().length];
+
+  // Size assumed for a value whose encoded size is not computed
+  private static final int VALUE_SIZE_ESTIMATE = 16;
+
+  static {
+    for (DataType type : DataType.values()) {
+      ENCODERS[type.ordinal()] = create(type);
+    }
+  }
+
+  private static ParamEncoder create(DataType type) {
+    switch (type) {
+      case BOOL:
+        return new BoolEncoder();
+      case INT2:
+        return new Int2Encoder();
+      case INT4:
+        return new Int4Encoder();
+      case INT8:
+        return new Int8Encoder();
+      case FLOAT4:
+        return new Float4Encoder();
+      case FLOAT8:
+        return new Float8Encoder();
+      case CHAR:
+      case VARCHAR:
+      case BPCHAR:
+      case TEXT:
+      case NAME:
+      case ENUM:
+        return new StringEncoder(type);
+      case CUSTOM:
+        // Created with the codec of the parameter
+        return null;
+      default:
+        return type.supportsBinary ? new BinaryEncoder(type) : new TextEncoder(type);
+    }
+  }
+
+  /**
+   * @return the encoder of a parameter of the built-in {@code type}
+   */
+  public static ParamEncoder of(DataType type) {
+    return ENCODERS[type.ordinal()];
+  }
+
+  /**
+   * @return the encoder of a parameter encoded by a {@link PgCodec}
+   */
+  public static ParamEncoder of(PgCodec<?> codec) {
+    return new CustomEncoder(codec);
+  }
+
+  /**
+   * @param types the parameter types
+   * @param codecs the codecs of the {@link DataType#CUSTOM} parameters or {@code null}
+   * @return the encoders of the parameters
+   */
+  public static ParamEncoder[] of(DataType[] types, PgCodec<?>[] codecs) {
+    ParamEncoder[] encoders = new ParamEncoder[types.length];
+    for (int i = 0;i < types.length;i++) {
+      encoders[i] = types[i] == DataType.CUSTOM ? of(codecs[i]) : of(types[i]);
+    }
+    return encoders;
+  }
+
+  final DataType type;
+
+  private ParamEncoder(DataType type) {
+    this.type = type;
+  }
+
+  /**
+   * @return the Java type of the parameter values
+   */
+  public Class<?> javaType() {
+    return type.type;
+  }
+
+  /**
+   * @return the format code of the parameter, {@code 1} for binary and {@code 0} for text
+   */
+  public int format() {
+    return 1;
+  }
+
+  /**
+   * Check the parameter value at {@code pos} and convert it when it is an acceptable value of another type.
+   *
+   * @return {@code false} when the value is refused
+   */
+  public boolean prepare(List<Object> values, int pos) {
+    Object value = values.get(pos);
+    Object val = DataTypeCodec.prepare(type, value);
+    if (val != value) {
+      if (val == DataTypeCodec.REFUSED_SENTINEL) {
+        return false;
+      }
+      values.set(pos, val);
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of bytes written by {@link #encode(List, int, ByteBuf)} for the parameter at {@code pos}, it
+   *         is exact for the fixed width and string types and an estimate for the other types
+   */
+  public int size(List<Object> values, int pos) {
+    return values.get(pos) == null ? 4 : 4 + VALUE_SIZE_ESTIMATE;
+  }
+
+  /**
+   * Write the length and the value of the parameter at {@code pos}, the value must have been prepared.
+   */
+  public void encode(List<Object> values, int pos, ByteBuf out) {
+    Object value = values.get(pos);
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      int idx = out.writerIndex();
+      out.writeInt(0);
+      write(value, out);
+      out.setInt(idx, out.writerIndex() - idx - 4);
+    }
+  }
+
+  void write(Object value, ByteBuf out) {
+    DataTypeCodec.encodeBinary(type, value, out);
+  }
+
+  private static class BinaryEncoder extends ParamEncoder {
+    BinaryEncoder(DataType type) {
+      super(type);
+    }
+  }
+
+  private static class TextEncoder extends ParamEncoder {
+
+    TextEncoder(DataType type) {
+      super(type);
+    }
+
+    @Override
+    public int format() {
+      return 0;
+    }
+
+    @Override
+    public void encode(List<Object> values, int pos, ByteBuf out) {
+      Object value = values.get(pos);
+      if (value == null) {
+        out.writeInt(-1);
+      } else {
+        DataTypeCodec.encodeText(type, value, out);
+      }
+    }
+  }
+
+  private static class StringEncoder extends ParamEncoder {
+
+    StringEncoder(DataType type) {
+      super(type);
+    }
+
+    @Override
+    public boolean prepare(List<Object> values, int pos) {
+      Object value = values.get(pos);
+      return value == null || value instanceof String;
+    }
+
+    @Override
+    public int size(List<Object> values, int pos) {
+      Object value = values.get(pos);
+      return value == null ? 4 : 4 + Util.utf8Length((String) value);
+    }
+
+    @Override
+    public void encode(List<Object> values, int pos, ByteBuf out) {
+      Object value = values.get(pos);
+      if (value == null) {
+        out.writeInt(-1);
+      } else {
+        int idx = out.writerIndex();
+        out.writeInt(0);
+        out.setInt(idx, Util.writeUTF8(out, (String) value));
+      }
+    }
+  }
+
+  private static class CustomEncoder extends ParamEncoder {
+
+    private final PgCodec<Object> codec;
+
+    @SuppressWarnings("unchecked")
+    CustomEncoder(PgCodec<?> codec) {
+      super(DataType.CUSTOM);
+      this.codec = (PgCodec<Object>) codec;
+    }
+
+    @Override
+    public Class<?> javaType() {
+      return codec.type();
+    }
+
+    @Override
+    public boolean prepare(List<Object> values, int pos) {
+      Object value = values.get(pos);
+      return value == null || codec.type().isInstance(value);
+    }
+
+    @Override
+    void write(Object value, ByteBuf out) {
+      codec.encodeBinary(value, out);
+    }
+  }
+
+  /**
+   * The encoder of a type whose values can be stored unboxed in the slot of an {@link ArrayTuple}.
+   */
+  private static abstract class SlotEncoder extends ParamEncoder {
+
+    private final ArrayTuple.Slot slot;
+    private final int width;
+
+    SlotEncoder(ArrayTuple.Slot slot, int width) {
+      super(slot.type);
+      this.slot = slot;
+      this.width = width;
+    }
+
+    @Override
+    public int size(List<Object> values, int pos) {
+      if (values instanceof ArrayTuple && ((ArrayTuple) values).slot(pos) == slot) {
+        return 4 + width;
+      }
+      return values.get(pos) == null ? 4 : 4 + width;
+    }
+
+    @Override
+    public boolean prepare(List<Object> values, int pos) {
+      if (values instanceof ArrayTuple && ((ArrayTuple) values).slot(pos) == slot) {
+        return true;
+      }
+      Object value = values.get(pos);
+      return value == null || type.type.isInstance(value);
+    }
+
+    @Override
+    public void encode(List<Object> values, int pos, ByteBuf out) {
+      if (values instanceof ArrayTuple && ((ArrayTuple) values).slot(pos) == slot) {
+        writeBits(((ArrayTuple) values).slotBits(pos), out);
+      } else {
+        Object value = values.get(pos);
+        if (value == null) {
+          out.writeInt(-1);
+        } else {
+          write(value, out);
+        }
+      }
+    }
+
+    /**
+     * Write the length and the value stored in a slot.
+     */
+    abstract void writeBits(long bits, ByteBuf out);
+
+    /**
+     * Write the length and the boxed value.
+     */
+    @Override
+    abstract void write(Object value, ByteBuf out);
+  }
+
+  private static class BoolEncoder extends SlotEncoder {
+    BoolEncoder() {
+      super(ArrayTuple.Slot.BOOL, 1);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(1);
+      out.writeByte((int) bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(1);
+      out.writeBoolean((Boolean) value);
+    }
+  }
+
+  private static class Int2Encoder extends SlotEncoder {
+    Int2Encoder() {
+      super(ArrayTuple.Slot.INT2, 2);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(2);
+      out.writeShort((int) bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(2);
+      out.writeShort((Short) value);
+    }
+  }
+
+  private static class Int4Encoder extends SlotEncoder {
+    Int4Encoder() {
+      super(ArrayTuple.Slot.INT4, 4);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(4);
+      out.writeInt((int) bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(4);
+      out.writeInt((Integer) value);
+    }
+  }
+
+  private static class Int8Encoder extends SlotEncoder {
+    Int8Encoder() {
+      super(ArrayTuple.Slot.INT8, 8);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(8);
+      out.writeLong(bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(8);
+      out.writeLong((Long) value);
+    }
+  }
+
+  private static class Float4Encoder extends SlotEncoder {
+    Float4Encoder() {
+      super(ArrayTuple.Slot.FLOAT4, 4);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(4);
+      out.writeInt((int) bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(4);
+      out.writeFloat((Float) value);
+    }
+  }
+
+  private static class Float8Encoder extends SlotEncoder {
+    Float8Encoder() {
+      super(ArrayTuple.Slot.FLOAT8, 8);
+    }
+    @Override
+    void writeBits(long bits, ByteBuf out) {
+      out.writeInt(8);
+      out.writeLong(bits);
+    }
+    @Override
+    void write(Object value, ByteBuf out) {
+      out.writeInt(8);
+      out.writeDouble((Double) value);
+    }
+  }
+}
@@ -17,6 +17,8 @@
 
 package io.reactiverse.pgclient.impl.codec.encoder;
 
+import io.reactiverse.pgclient.impl.codec.DataType;
+
 /**
  * @author <a href="mailto:emad.albloushi@gmail.com">Emad Alblueshi</a>
  */
@@ -24,14 +26,19 @@ public final class Parse {
 
   public final String query;
   public final long statement;
+  public final DataType[] paramTypes; // null lets the server infer all the types
 
-  public Parse(String query, long statement) {
+  public Parse(String query, long statement, DataType[] paramTypes) {
     this.query = query;
     this.statement = statement;
+    this.paramTypes = paramTypes;
+  }
+
+  public Parse(String query, long statement) {
+    this(query, statement, null);
   }
 
   public Parse(String query) {
-    this.query = query;
-    this.statement = 0;
+    this(query, 0, null);
   }
 }
@@ -57,10 +57,50 @@ public class Util {
   }
 
   public static void writeCStringUTF8(ByteBuf dst, String s) {
-    dst.writeCharSequence(s, UTF_8);
+    writeUTF8(dst, s);
     dst.writeByte(0);
   }
 
+  /**
+   * Write {@code s} encoded in UTF-8, an ASCII string only needs the room for its length.
+   *
+   * @return the number of bytes written
+   */
+  public static int writeUTF8(ByteBuf dst, CharSequence s) {
+    int len = s.length();
+    for (int i = 0;i < len;i++) {
+      if (s.charAt(i) >= 0x80) {
+        return dst.writeCharSequence(s, UTF_8);
+      }
+    }
+    return dst.writeCharSequence(s, US_ASCII);
+  }
+
+  /**
+   * @return the number of bytes of {@code s} encoded in UTF-8
+   */
+  public static int utf8Length(CharSequence s) {
+    int len = s.length();
+    int size = len;
+    for (int i = 0;i < len;i++) {
+      char c = s.charAt(i);
+      if (c >= 0x80) {
+        if (c < 0x800) {
+          size++;
+        } else if (Character.isSurrogate(c)) {
+          // 4 bytes for a pair, a lone surrogate is replaced by '?'
+          if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+            size += 2;
+            i++;
+          }
+        } else {
+          size += 2;
+        }
+      }
+    }
+    return size;
+  }
+
   public static void writeCString(ByteBuf dst, byte[] bytes) {
     dst.writeBytes(bytes, 0, bytes.length);
     dst.writeByte(0);
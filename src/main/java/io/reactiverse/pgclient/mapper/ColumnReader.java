@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+import io.netty.buffer.ByteBuf;
+import io.reactiverse.pgclient.data.Numeric;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.DataTypeCodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the value of a column for a {@link RowMapper}, the value is read either from the {@code DataRow} message
+ * or from a {@link io.reactiverse.pgclient.Row}.
+ * <p>
+ * The primitive getters read the fixed width values received in binary format without boxing them.
+ */
+public final class ColumnReader {
+
+  private ColumnDesc column;
+  private DataType type;
+  private DataFormat format;
+  private int length;
+  private ByteBuf in;
+  private Object value;
+
+  ColumnReader() {
+  }
+
+  void reset(ColumnDesc column, int length, ByteBuf in) {
+    this.column = column;
+    this.type = column.getDataType();
+    this.format = column.getDataFormat();
+    this.length = length;
+    this.in = in;
+    this.value = null;
+  }
+
+  void reset(Object value) {
+    this.in = null;
+    this.value = value;
+  }
+
+  private boolean binary() {
+    return in != null && format == DataFormat.BINARY;
+  }
+
+  /**
+   * @return the value boxed as an object
+   */
+  public Object value() {
+    if (in == null) {
+      return value;
+    }
+    if (type == DataType.CUSTOM) {
+      return DataTypeCodec.decodeCustom(column, length, in);
+    } else if (format == DataFormat.BINARY) {
+      return DataTypeCodec.decodeBinary(type, length, in);
+    } else {
+      return DataTypeCodec.decodeText(type, length, in);
+    }
+  }
+
+  private Number number() {
+    Object val = value();
+    if (val instanceof Number) {
+      return (Number) val;
+    }
+    throw new ClassCastException("Cannot read a value of type " + (in != null ? type : val.getClass().getName()) + " as a number");
+  }
+
+  /**
+   * @return the value as a boolean
+   */
+  public boolean booleanValue() {
+    if (binary() && type == DataType.BOOL) {
+      return in.readBoolean();
+    }
+    return (Boolean) value();
+  }
+
+  /**
+   * @return the value as a short
+   */
+  public short shortValue() {
+    if (binary() && type == DataType.INT2) {
+      return in.readShort();
+    }
+    return number().shortValue();
+  }
+
+  /**
+   * @return the value as an int
+   */
+  public int intValue() {
+    if (binary()) {
+      switch (type) {
+        case INT2:
+          return in.readShort();
+        case INT4:
+          return in.readInt();
+      }
+    }
+    return number().intValue();
+  }
+
+  /**
+   * @return the value as a long
+   */
+  public long longValue() {
+    if (binary()) {
+      switch (type) {
+        case INT2:
+          return in.readShort();
+        case INT4:
+          return in.readInt();
+        case INT8:
+          return in.readLong();
+      }
+    }
+    return number().longValue();
+  }
+
+  /**
+   * @return the value as a float
+   */
+  public float floatValue() {
+    if (binary() && type == DataType.FLOAT4) {
+      return Float.intBitsToFloat(in.readInt());
+    }
+    return number().floatValue();
+  }
+
+  /**
+   * @return the value as a double
+   */
+  public double doubleValue() {
+    if (binary()) {
+      switch (type) {
+        case FLOAT4:
+          return Float.intBitsToFloat(in.readInt());
+        case FLOAT8:
+          return Double.longBitsToDouble(in.readLong());
+      }
+    }
+    return number().doubleValue();
+  }
+
+  /**
+   * @return the value as a string
+   */
+  public String stringValue() {
+    if (in != null) {
+      switch (type) {
+        case CHAR:
+        case VARCHAR:
+        case BPCHAR:
+        case TEXT:
+        case NAME:
+          return in.readCharSequence(length, StandardCharsets.UTF_8).toString();
+      }
+    }
+    Object val = value();
+    return val instanceof Numeric || val instanceof Number ? val.toString() : (String) val;
+  }
+}
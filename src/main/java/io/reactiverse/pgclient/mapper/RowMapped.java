@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@link RowMapper} for the annotated class at compile time.
+ * <p>
+ * The mapper is named after the class with the {@code RowMapper} suffix and is generated in the same package, e.g
+ * {@code WorldRowMapper} for {@code World}. The class must have a public no-arg constructor, its properties are the
+ * public setters and the public non-final fields. A column is mapped to the property with the same name ignoring the
+ * case and the underscores, e.g the {@code random_number} column is mapped to the {@code randomNumber} property.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RowMapped {
+}
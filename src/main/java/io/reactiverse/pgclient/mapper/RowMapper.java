@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+import io.netty.buffer.ByteBuf;
+import io.reactiverse.pgclient.Row;
+import io.reactiverse.pgclient.impl.DataRowDecoder;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Maps the rows of a result to objects, the subclasses are generated for the classes annotated with {@link RowMapped}.
+ * <p>
+ * The columns are bound to the properties of the class once per result. When the mapper {@link #collector()} is used
+ * with a query the objects are decoded directly from the {@code DataRow} messages, no {@link Row} is created.
+ * A {@code null} value leaves the property unchanged.
+ *
+ * @param <T> the mapped type
+ */
+public abstract class RowMapper<T> {
+
+  private final Map<String, Integer> properties = new HashMap<>();
+  private final Collector<Row, ?, List<T>> collector = Collector.of(
+    Result::new,
+    Result::accumulate,
+    (result1, result2) -> null, // Shall not be invoked as this is sequential
+    result -> result.list
+  );
+
+  /**
+   * @param properties the names of the properties of the mapped type
+   */
+  protected RowMapper(String... properties) {
+    for (int i = 0;i < properties.length;i++) {
+      this.properties.put(normalize(properties[i]), i);
+    }
+  }
+
+  private static String normalize(String name) {
+    return name.replace("_", "").toLowerCase();
+  }
+
+  private int property(String column) {
+    return column == null ? -1 : properties.getOrDefault(normalize(column), -1);
+  }
+
+  /**
+   * @return a new instance of the mapped type
+   */
+  protected abstract T create();
+
+  /**
+   * Set a property of the mapped object.
+   *
+   * @param obj the object
+   * @param property the position of the property
+   * @param reader the reader of the column value
+   */
+  protected abstract void decode(T obj, int property, ColumnReader reader);
+
+  /**
+   * @return the collector mapping the rows of a result to a list of objects
+   */
+  public Collector<Row, ?, List<T>> collector() {
+    return collector;
+  }
+
+  /**
+   * Map a row to an object.
+   *
+   * @param row the row
+   * @return the object
+   */
+  public T map(Row row) {
+    T obj = create();
+    ColumnReader reader = new ColumnReader();
+    for (int c = 0;c < row.size();c++) {
+      int property = property(row.getColumnName(c));
+      Object value = row.getValue(c);
+      if (property != -1 && value != null) {
+        reader.reset(value);
+        decode(obj, property, reader);
+      }
+    }
+    return obj;
+  }
+
+  private class Result implements DataRowDecoder {
+
+    private final List<T> list = new ArrayList<>();
+    private final ColumnReader reader = new ColumnReader();
+    private ColumnDesc[] columns;
+    private int[] mapping;
+
+    @Override
+    public void init(RowDescription desc) {
+      columns = desc != null ? desc.columns() : new ColumnDesc[0];
+      mapping = new int[columns.length];
+      for (int c = 0;c < columns.length;c++) {
+        mapping[c] = property(columns[c].getName());
+      }
+    }
+
+    @Override
+    public void decodeRow(int len, ByteBuf in) {
+      T obj = create();
+      for (int c = 0;c < len;c++) {
+        int length = in.readInt();
+        if (length == -1) {
+          continue;
+        }
+        int end = in.readerIndex() + length;
+        int property = mapping[c];
+        if (property != -1) {
+          reader.reset(columns[c], length, in);
+          decode(obj, property, reader);
+        }
+        in.readerIndex(end);
+      }
+      list.add(obj);
+    }
+
+    private void accumulate(Row row) {
+      list.add(map(row));
+    }
+  }
+}
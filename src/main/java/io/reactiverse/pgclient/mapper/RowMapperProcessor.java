@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link RowMapper} for the classes annotated with {@link RowMapped}.
+ */
+public class RowMapperProcessor extends AbstractProcessor {
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(RowMapped.class.getName());
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element elt : roundEnv.getElementsAnnotatedWith(RowMapped.class)) {
+      if (check(elt)) {
+        try {
+          generate((TypeElement) elt);
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate the row mapper: " + e.getMessage(), elt);
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean check(Element elt) {
+    String error = null;
+    if (elt.getKind() != ElementKind.CLASS) {
+      error = "@RowMapped can only annotate a class";
+    } else {
+      TypeElement type = (TypeElement) elt;
+      if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+        error = "@RowMapped class must not be abstract";
+      } else if (type.getNestingKind() != NestingKind.TOP_LEVEL && (type.getNestingKind() != NestingKind.MEMBER || !type.getModifiers().contains(Modifier.STATIC))) {
+        error = "@RowMapped class must be a top level class or a static member class";
+      } else if (ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+        .noneMatch(ctor -> ctor.getParameters().isEmpty() && ctor.getModifiers().contains(Modifier.PUBLIC))) {
+        error = "@RowMapped class must have a public no-arg constructor";
+      }
+    }
+    if (error != null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, error, elt);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return the properties of the type, mapped to the statement setting the property from the {@code reader}
+   */
+  private Map<String, String> properties(TypeElement type) {
+    Map<String, String> properties = new LinkedHashMap<>();
+    for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+      Set<Modifier> modifiers = member.getModifiers();
+      if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+        continue;
+      }
+      if (member.getKind() == ElementKind.FIELD && !modifiers.contains(Modifier.FINAL)) {
+        VariableElement field = (VariableElement) member;
+        String name = field.getSimpleName().toString();
+        properties.putIfAbsent(name, "obj." + name + " = " + read(field.asType()) + ";");
+      }
+    }
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      Set<Modifier> modifiers = method.getModifiers();
+      String name = method.getSimpleName().toString();
+      if (modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC) && isSetter(type, method)) {
+        String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+        // A setter has precedence over a field
+        properties.put(property, "obj." + name + "(" + read(method.getParameters().get(0).asType()) + ");");
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * A setter is named {@code setXyz}, has a single parameter and returns nothing or the mapped type for fluent setters.
+   */
+  private boolean isSetter(TypeElement type, ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    if (name.length() <= 3 || !name.startsWith("set") || !Character.isUpperCase(name.charAt(3)) || method.getParameters().size() != 1) {
+      return false;
+    }
+    TypeMirror returnType = method.getReturnType();
+    return returnType.getKind() == TypeKind.VOID || processingEnv.getTypeUtils().isAssignable(type.asType(), returnType);
+  }
+
+  private String read(TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return "reader." + type + "Value()";
+      case DECLARED:
+        switch (processingEnv.getTypeUtils().erasure(type).toString()) {
+          case "java.lang.Boolean":
+            return "reader.booleanValue()";
+          case "java.lang.Short":
+            return "reader.shortValue()";
+          case "java.lang.Integer":
+            return "reader.intValue()";
+          case "java.lang.Long":
+            return "reader.longValue()";
+          case "java.lang.Float":
+            return "reader.floatValue()";
+          case "java.lang.Double":
+            return "reader.doubleValue()";
+          case "java.lang.String":
+            return "reader.stringValue()";
+        }
+        // Fall through
+      default:
+        return "(" + processingEnv.getTypeUtils().erasure(type) + ") reader.value()";
+    }
+  }
+
+  private void generate(TypeElement type) throws IOException {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = pkg.isUnnamed() ? null : pkg.getQualifiedName().toString();
+    String typeName = type.getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String mapperName = (packageName != null ? binaryName.substring(packageName.length() + 1) : binaryName).replace('$', '_') + "RowMapper";
+    Map<String, String> properties = properties(type);
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName != null ? packageName + "." + mapperName : mapperName, type);
+    try (Writer writer = file.openWriter()) {
+      PrintWriter out = new PrintWriter(writer);
+      if (packageName != null) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+      out.println("/**");
+      out.println(" * Maps the rows of a result to {@link " + typeName + "}, generated from the class.");
+      out.println(" */");
+      out.println("public class " + mapperName + " extends io.reactiverse.pgclient.mapper.RowMapper<" + typeName + "> {");
+      out.println();
+      out.println("  public static final " + mapperName + " INSTANCE = new " + mapperName + "();");
+      out.println();
+      out.println("  public " + mapperName + "() {");
+      StringBuilder names = new StringBuilder();
+      for (String name : properties.keySet()) {
+        names.append(names.length() > 0 ? ", " : "").append('"').append(name).append('"');
+      }
+      out.println("    super(" + names + ");");
+      out.println("  }");
+      out.println();
+      out.println("  @Override");
+      out.println("  protected " + typeName + " create() {");
+      out.println("    return new " + typeName + "();");
+      out.println("  }");
+      out.println();
+      out.println("  @Override");
+      out.println("  protected void decode(" + typeName + " obj, int property, io.reactiverse.pgclient.mapper.ColumnReader reader) {");
+      out.println("    switch (property) {");
+      int index = 0;
+      for (String statement : properties.values()) {
+        out.println("      case " + index++ + ":");
+        out.println("        " + statement);
+        out.println("        break;");
+      }
+      out.println("    }");
+      out.println("  }");
+      out.println("}");
+      out.flush();
+    }
+  }
+}
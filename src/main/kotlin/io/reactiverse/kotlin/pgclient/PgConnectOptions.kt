@@ -13,21 +13,29 @@ import io.vertx.core.net.ProxyOptions
  * A function providing a DSL for building [io.reactiverse.pgclient.PgConnectOptions] objects.
  *
  *
+ * @param adaptivePipelining  Set whether the number of commands in flight on a connection is tuned from the latency of the commands. The limit is increased while the latency stays close to the lowest latency observed and decreased when the commands queue behind slower ones, between [io.reactiverse.pgclient.PgConnectOptions] and [io.reactiverse.pgclient.PgConnectOptions].
  * @param cachePreparedStatements 
+ * @param coalesceWrites  Set whether the messages of the commands scheduled during the same event loop task are flushed together. By default the messages are flushed to the socket each time a command is scheduled, when coalescing the flush happens at the end of the current task or as soon as 16KB of messages are pending. Many queries sent at once are then written with a single system call.
  * @param connectTimeout 
  * @param crlPaths 
  * @param crlValues 
  * @param database 
  * @param enabledCipherSuites 
  * @param enabledSecureTransportProtocols 
- * @param host 
+ * @param host  Set the host of the server, or a comma separated list of servers like <code>host1:5432,host2:5433</code>. A server of the list without a port uses the [io.reactiverse.pgclient.PgConnectOptions], the servers are tried in turn until one accepts the connection and matches the [io.reactiverse.pgclient.PgConnectOptions].
  * @param hostnameVerificationAlgorithm 
  * @param idleTimeout 
+ * @param inferParameterTypes  Set whether the parameter types of a prepared query are inferred from the values of the tuple when the prepared statement is not cached. The query is then parsed, bound and executed in a single round trip instead of preparing the statement first. <code>String</code>, <code>Json</code> and <code>null</code> values are sent as untyped text parameters and their type is inferred by the server.
  * @param jdkSslEngineOptions 
  * @param keyStoreOptions 
+ * @param lazyRowDecoding  Set whether the columns of a row set are decoded when they are read instead of when the rows are received. The rows retain the network buffer until the result handler returns, so they must be read from the result handler.
+ * @param loadBalanceHosts  Set how the servers are ordered when several servers are configured: <ul>   <li><code>disable</code>: the servers are tried in the configured order</li>   <li><code>random</code>: the servers are tried in a random order</li>   <li><code>round-robin</code>: each connection starts with the server following the one the previous connection started with</li> </ul>
  * @param localAddress 
  * @param logActivity 
+ * @param maxPendingCommands  Set the maximum number of commands waiting to be sent on a connection, <code>-1</code> means unbounded. A command that has to wait on a connection whose queue is full fails right away instead of being queued, <code>0</code> only accepts commands that can be sent right away. Closing statements and portals is never rejected.
+ * @param maxQueueTime  Set how long in milliseconds a command can wait to be sent on a connection, <code>0</code> means no limit. A command that waited longer fails instead of being sent, so an overloaded connection does not spend time on commands whose caller has likely given up.
  * @param metricsName 
+ * @param minPipeliningLimit  Set the lower bound of the adaptive pipelining limit, it is also the initial limit of a connection.
  * @param openSslEngineOptions 
  * @param password 
  * @param pemKeyCertOptions 
@@ -36,15 +44,20 @@ import io.vertx.core.net.ProxyOptions
  * @param pfxTrustOptions 
  * @param pipeliningLimit 
  * @param port 
+ * @param preparedStatementCacheMaxSize  Set the maximum number of prepared statements cached by a connection, the least recently used statement is closed when the cache is full.
+ * @param preparedStatementCacheSqlLimit  Set the maximum length of the SQL of a cached prepared statement, longer queries are not cached.
  * @param proxyOptions 
+ * @param queryTimeout  Set the deadline of the queries in milliseconds, <code>0</code> means no deadline. The deadline starts when the query is scheduled on the connection, a query still waiting to be sent fails when it expires. A query that was sent fails right away and its response is discarded when it is received, the server is asked to cancel it with a <code>CancelRequest</code> when it is the last query sent and no query waits to be sent.
  * @param receiveBufferSize 
  * @param reconnectAttempts 
  * @param reconnectInterval 
  * @param reuseAddress 
  * @param reusePort 
+ * @param reuseWriteBuffer  Set whether the messages are written to the socket from a direct buffer reused by the connection. By default the messages are copied at each flush to a buffer allocated with the exact size of the messages. The buffer is reused when the socket has written it, a connection pipelining many small queries avoids an allocation per flush.
  * @param sendBufferSize 
  * @param soLinger 
  * @param ssl 
+ * @param targetSessionAttrs  Set the kind of server a connection must be established with when several servers are configured: <ul>   <li><code>any</code>: any server</li>   <li><code>read-write</code> or <code>primary</code>: a server accepting read-write transactions</li>   <li><code>read-only</code> or <code>standby</code>: a server in read-only mode</li>   <li><code>prefer-standby</code>: a server in read-only mode, or any server when none is</li> </ul> The mode of a server is probed with <code>SHOW transaction_read_only</code> after connecting.
  * @param tcpCork 
  * @param tcpFastOpen 
  * @param tcpKeepAlive 
@@ -56,12 +69,15 @@ import io.vertx.core.net.ProxyOptions
  * @param useAlpn 
  * @param usePooledBuffers 
  * @param user 
+ * @param waitForWritability  Set whether a connection stops sending commands while its socket is not writable, the commands wait in the pending queue until the socket has written the messages already sent.
  *
  * <p/>
  * NOTE: This function has been automatically generated from the [io.reactiverse.pgclient.PgConnectOptions original] using Vert.x codegen.
  */
 fun PgConnectOptions(
+  adaptivePipelining: Boolean? = null,
   cachePreparedStatements: Boolean? = null,
+  coalesceWrites: Boolean? = null,
   connectTimeout: Int? = null,
   crlPaths: Iterable<String>? = null,
   crlValues: Iterable<io.vertx.core.buffer.Buffer>? = null,
@@ -71,11 +87,17 @@ fun PgConnectOptions(
   host: String? = null,
   hostnameVerificationAlgorithm: String? = null,
   idleTimeout: Int? = null,
+  inferParameterTypes: Boolean? = null,
   jdkSslEngineOptions: io.vertx.core.net.JdkSSLEngineOptions? = null,
   keyStoreOptions: io.vertx.core.net.JksOptions? = null,
+  lazyRowDecoding: Boolean? = null,
+  loadBalanceHosts: String? = null,
   localAddress: String? = null,
   logActivity: Boolean? = null,
+  maxPendingCommands: Int? = null,
+  maxQueueTime: Long? = null,
   metricsName: String? = null,
+  minPipeliningLimit: Int? = null,
   openSslEngineOptions: io.vertx.core.net.OpenSSLEngineOptions? = null,
   password: String? = null,
   pemKeyCertOptions: io.vertx.core.net.PemKeyCertOptions? = null,
@@ -84,15 +106,20 @@ fun PgConnectOptions(
   pfxTrustOptions: io.vertx.core.net.PfxOptions? = null,
   pipeliningLimit: Int? = null,
   port: Int? = null,
+  preparedStatementCacheMaxSize: Int? = null,
+  preparedStatementCacheSqlLimit: Int? = null,
   proxyOptions: io.vertx.core.net.ProxyOptions? = null,
+  queryTimeout: Long? = null,
   receiveBufferSize: Int? = null,
   reconnectAttempts: Int? = null,
   reconnectInterval: Long? = null,
   reuseAddress: Boolean? = null,
   reusePort: Boolean? = null,
+  reuseWriteBuffer: Boolean? = null,
   sendBufferSize: Int? = null,
   soLinger: Int? = null,
   ssl: Boolean? = null,
+  targetSessionAttrs: String? = null,
   tcpCork: Boolean? = null,
   tcpFastOpen: Boolean? = null,
   tcpKeepAlive: Boolean? = null,
@@ -103,11 +130,18 @@ fun PgConnectOptions(
   trustStoreOptions: io.vertx.core.net.JksOptions? = null,
   useAlpn: Boolean? = null,
   usePooledBuffers: Boolean? = null,
-  user: String? = null): PgConnectOptions = io.reactiverse.pgclient.PgConnectOptions().apply {
+  user: String? = null,
+  waitForWritability: Boolean? = null): PgConnectOptions = io.reactiverse.pgclient.PgConnectOptions().apply {
 
+  if (adaptivePipelining != null) {
+    this.setAdaptivePipelining(adaptivePipelining)
+  }
   if (cachePreparedStatements != null) {
     this.setCachePreparedStatements(cachePreparedStatements)
   }
+  if (coalesceWrites != null) {
+    this.setCoalesceWrites(coalesceWrites)
+  }
   if (connectTimeout != null) {
     this.setConnectTimeout(connectTimeout)
   }
@@ -141,21 +175,39 @@ fun PgConnectOptions(
   if (idleTimeout != null) {
     this.setIdleTimeout(idleTimeout)
   }
+  if (inferParameterTypes != null) {
+    this.setInferParameterTypes(inferParameterTypes)
+  }
   if (jdkSslEngineOptions != null) {
     this.setJdkSslEngineOptions(jdkSslEngineOptions)
   }
   if (keyStoreOptions != null) {
     this.setKeyStoreOptions(keyStoreOptions)
   }
+  if (lazyRowDecoding != null) {
+    this.setLazyRowDecoding(lazyRowDecoding)
+  }
+  if (loadBalanceHosts != null) {
+    this.setLoadBalanceHosts(loadBalanceHosts)
+  }
   if (localAddress != null) {
     this.setLocalAddress(localAddress)
   }
   if (logActivity != null) {
     this.setLogActivity(logActivity)
   }
+  if (maxPendingCommands != null) {
+    this.setMaxPendingCommands(maxPendingCommands)
+  }
+  if (maxQueueTime != null) {
+    this.setMaxQueueTime(maxQueueTime)
+  }
   if (metricsName != null) {
     this.setMetricsName(metricsName)
   }
+  if (minPipeliningLimit != null) {
+    this.setMinPipeliningLimit(minPipeliningLimit)
+  }
   if (openSslEngineOptions != null) {
     this.setOpenSslEngineOptions(openSslEngineOptions)
   }
@@ -180,9 +232,18 @@ fun PgConnectOptions(
   if (port != null) {
     this.setPort(port)
   }
+  if (preparedStatementCacheMaxSize != null) {
+    this.setPreparedStatementCacheMaxSize(preparedStatementCacheMaxSize)
+  }
+  if (preparedStatementCacheSqlLimit != null) {
+    this.setPreparedStatementCacheSqlLimit(preparedStatementCacheSqlLimit)
+  }
   if (proxyOptions != null) {
     this.setProxyOptions(proxyOptions)
   }
+  if (queryTimeout != null) {
+    this.setQueryTimeout(queryTimeout)
+  }
   if (receiveBufferSize != null) {
     this.setReceiveBufferSize(receiveBufferSize)
   }
@@ -198,6 +259,9 @@ fun PgConnectOptions(
   if (reusePort != null) {
     this.setReusePort(reusePort)
   }
+  if (reuseWriteBuffer != null) {
+    this.setReuseWriteBuffer(reuseWriteBuffer)
+  }
   if (sendBufferSize != null) {
     this.setSendBufferSize(sendBufferSize)
   }
@@ -207,6 +271,9 @@ fun PgConnectOptions(
   if (ssl != null) {
     this.setSsl(ssl)
   }
+  if (targetSessionAttrs != null) {
+    this.setTargetSessionAttrs(targetSessionAttrs)
+  }
   if (tcpCork != null) {
     this.setTcpCork(tcpCork)
   }
@@ -240,5 +307,8 @@ fun PgConnectOptions(
   if (user != null) {
     this.setUser(user)
   }
+  if (waitForWritability != null) {
+    this.setWaitForWritability(waitForWritability)
+  }
 }
 
@@ -14,22 +14,38 @@ import io.vertx.core.net.ProxyOptions
  *
  * The options for configuring a connection pool.
  *
+ * @param acquireTimeout  Set the time in milliseconds a request waits for a connection of the pool before it fails, <code>0</code> means it waits until a connection is available.
+ * @param adaptivePipelining  Set whether the number of commands in flight on a connection is tuned from the latency of the commands. The limit is increased while the latency stays close to the lowest latency observed and decreased when the commands queue behind slower ones, between [io.reactiverse.pgclient.PgConnectOptions] and [io.reactiverse.pgclient.PgConnectOptions].
  * @param cachePreparedStatements 
+ * @param coalesceWrites  Set whether the messages of the commands scheduled during the same event loop task are flushed together. By default the messages are flushed to the socket each time a command is scheduled, when coalescing the flush happens at the end of the current task or as soon as 16KB of messages are pending. Many queries sent at once are then written with a single system call.
+ * @param connectRetryDelay  Set the time in milliseconds the pool waits before it opens a connection again after it failed to open one, the delay doubles after each consecutive failure. See [io.reactiverse.pgclient.PgPoolOptions].
  * @param connectTimeout 
  * @param crlPaths 
  * @param crlValues 
  * @param database 
  * @param enabledCipherSuites 
  * @param enabledSecureTransportProtocols 
- * @param host 
+ * @param host  Set the host of the server, or a comma separated list of servers like <code>host1:5432,host2:5433</code>. A server of the list without a port uses the [io.reactiverse.pgclient.PgPoolOptions], the servers are tried in turn until one accepts the connection and matches the [io.reactiverse.pgclient.PgPoolOptions].
  * @param hostnameVerificationAlgorithm 
  * @param idleTimeout 
+ * @param inferParameterTypes  Set whether the parameter types of a prepared query are inferred from the values of the tuple when the prepared statement is not cached. The query is then parsed, bound and executed in a single round trip instead of preparing the statement first. <code>String</code>, <code>Json</code> and <code>null</code> values are sent as untyped text parameters and their type is inferred by the server.
  * @param jdkSslEngineOptions 
  * @param keyStoreOptions 
+ * @param lazyRowDecoding  Set whether the columns of a row set are decoded when they are read instead of when the rows are received. The rows retain the network buffer until the result handler returns, so they must be read from the result handler.
+ * @param loadBalanceHosts  Set how the servers are ordered when several servers are configured: <ul>   <li><code>disable</code>: the servers are tried in the configured order</li>   <li><code>random</code>: the servers are tried in a random order</li>   <li><code>round-robin</code>: each connection starts with the server following the one the previous connection started with</li> </ul>
  * @param localAddress 
  * @param logActivity 
+ * @param maxConnectRetries  Set the number of consecutive times the pool opens a connection again for the requests waiting for one after it failed to open one. The requests whose [io.reactiverse.pgclient.PgPoolOptions] has passed fail with the connect failure, the other requests fail when there is no retry left.
+ * @param maxIdleTime  Set the time in milliseconds after which an idle connection is closed, <code>0</code> keeps idle connections open. The pool never closes the idle connections below [io.reactiverse.pgclient.PgPoolOptions].
+ * @param maxLifetime  Set the time in milliseconds after which a connection is closed and replaced, <code>0</code> means no limit. The lifetime of each connection is shortened by a random amount of up to 10% so the connections are not recycled at once, a connection in use is closed when it is released.
+ * @param maxPendingCommands  Set the maximum number of commands waiting to be sent on a connection, <code>-1</code> means unbounded. A command that has to wait on a connection whose queue is full fails right away instead of being queued, <code>0</code> only accepts commands that can be sent right away. Closing statements and portals is never rejected.
+ * @param maxQueueTime  Set how long in milliseconds a command can wait to be sent on a connection, <code>0</code> means no limit. A command that waited longer fails instead of being sent, so an overloaded connection does not spend time on commands whose caller has likely given up.
  * @param maxSize 
+ * @param maxWaitQueueSize  Set the maximum number of waiters for a connection of the pool, <code>-1</code> means unbounded. The waiters served by the connections being created are not counted, when the queue is full an acquisition fails right away.
  * @param metricsName 
+ * @param minIdle  Set the number of idle connections the pool keeps open, they are opened when the pool is created and re-opened after they are closed. A sharded pool keeps this number of idle connections per shard.
+ * @param minPipeliningLimit  Set the lower bound of the adaptive pipelining limit, it is also the initial limit of a connection.
+ * @param multiplexed  Set whether the queries run directly on the pool share its idle connections instead of acquiring one. A query is pipelined on the idle connection with the fewest commands in flight, a new connection is opened when all of them reached their pipelining limit. The connections obtained with [io.reactiverse.pgclient.PgPool] and the transactions still use a connection exclusively.
  * @param openSslEngineOptions 
  * @param password 
  * @param pemKeyCertOptions 
@@ -38,15 +54,21 @@ import io.vertx.core.net.ProxyOptions
  * @param pfxTrustOptions 
  * @param pipeliningLimit 
  * @param port 
+ * @param preparedStatementCacheMaxSize  Set the maximum number of prepared statements cached by a connection, the least recently used statement is closed when the cache is full.
+ * @param preparedStatementCacheSqlLimit  Set the maximum length of the SQL of a cached prepared statement, longer queries are not cached.
  * @param proxyOptions 
+ * @param queryTimeout  Set the deadline of the queries in milliseconds, <code>0</code> means no deadline. The deadline starts when the query is scheduled on the connection, a query still waiting to be sent fails when it expires. A query that was sent fails right away and its response is discarded when it is received, the server is asked to cancel it with a <code>CancelRequest</code> when it is the last query sent and no query waits to be sent.
  * @param receiveBufferSize 
  * @param reconnectAttempts 
  * @param reconnectInterval 
  * @param reuseAddress 
  * @param reusePort 
+ * @param reuseWriteBuffer  Set whether the messages are written to the socket from a direct buffer reused by the connection. By default the messages are copied at each flush to a buffer allocated with the exact size of the messages. The buffer is reused when the socket has written it, a connection pipelining many small queries avoids an allocation per flush.
  * @param sendBufferSize 
+ * @param sharded  Set whether the pool keeps one shard of connections per event loop context using it. A shard owns the connections created on its event loop so commands scheduled from this event loop do not hop to another thread, a shard that runs dry borrows an idle connection from another shard. The max size still bounds the total number of connections of the pool.
  * @param soLinger 
  * @param ssl 
+ * @param targetSessionAttrs  Set the kind of server a connection must be established with when several servers are configured: <ul>   <li><code>any</code>: any server</li>   <li><code>read-write</code> or <code>primary</code>: a server accepting read-write transactions</li>   <li><code>read-only</code> or <code>standby</code>: a server in read-only mode</li>   <li><code>prefer-standby</code>: a server in read-only mode, or any server when none is</li> </ul> The mode of a server is probed with <code>SHOW transaction_read_only</code> after connecting.
  * @param tcpCork 
  * @param tcpFastOpen 
  * @param tcpKeepAlive 
@@ -58,12 +80,18 @@ import io.vertx.core.net.ProxyOptions
  * @param useAlpn 
  * @param usePooledBuffers 
  * @param user 
+ * @param validationInterval  Set the time in milliseconds after which an idle connection is validated with a <code>SELECT 1</code> query, <code>0</code> disables validation. A connection failing the validation is closed.
+ * @param waitForWritability  Set whether a connection stops sending commands while its socket is not writable, the commands wait in the pending queue until the socket has written the messages already sent.
  *
  * <p/>
  * NOTE: This function has been automatically generated from the [io.reactiverse.pgclient.PgPoolOptions original] using Vert.x codegen.
  */
 fun PgPoolOptions(
+  acquireTimeout: Long? = null,
+  adaptivePipelining: Boolean? = null,
   cachePreparedStatements: Boolean? = null,
+  coalesceWrites: Boolean? = null,
+  connectRetryDelay: Long? = null,
   connectTimeout: Int? = null,
   crlPaths: Iterable<String>? = null,
   crlValues: Iterable<io.vertx.core.buffer.Buffer>? = null,
@@ -73,12 +101,24 @@ fun PgPoolOptions(
   host: String? = null,
   hostnameVerificationAlgorithm: String? = null,
   idleTimeout: Int? = null,
+  inferParameterTypes: Boolean? = null,
   jdkSslEngineOptions: io.vertx.core.net.JdkSSLEngineOptions? = null,
   keyStoreOptions: io.vertx.core.net.JksOptions? = null,
+  lazyRowDecoding: Boolean? = null,
+  loadBalanceHosts: String? = null,
   localAddress: String? = null,
   logActivity: Boolean? = null,
+  maxConnectRetries: Int? = null,
+  maxIdleTime: Long? = null,
+  maxLifetime: Long? = null,
+  maxPendingCommands: Int? = null,
+  maxQueueTime: Long? = null,
   maxSize: Int? = null,
+  maxWaitQueueSize: Int? = null,
   metricsName: String? = null,
+  minIdle: Int? = null,
+  minPipeliningLimit: Int? = null,
+  multiplexed: Boolean? = null,
   openSslEngineOptions: io.vertx.core.net.OpenSSLEngineOptions? = null,
   password: String? = null,
   pemKeyCertOptions: io.vertx.core.net.PemKeyCertOptions? = null,
@@ -87,15 +127,21 @@ fun PgPoolOptions(
   pfxTrustOptions: io.vertx.core.net.PfxOptions? = null,
   pipeliningLimit: Int? = null,
   port: Int? = null,
+  preparedStatementCacheMaxSize: Int? = null,
+  preparedStatementCacheSqlLimit: Int? = null,
   proxyOptions: io.vertx.core.net.ProxyOptions? = null,
+  queryTimeout: Long? = null,
   receiveBufferSize: Int? = null,
   reconnectAttempts: Int? = null,
   reconnectInterval: Long? = null,
   reuseAddress: Boolean? = null,
   reusePort: Boolean? = null,
+  reuseWriteBuffer: Boolean? = null,
   sendBufferSize: Int? = null,
+  sharded: Boolean? = null,
   soLinger: Int? = null,
   ssl: Boolean? = null,
+  targetSessionAttrs: String? = null,
   tcpCork: Boolean? = null,
   tcpFastOpen: Boolean? = null,
   tcpKeepAlive: Boolean? = null,
@@ -106,11 +152,25 @@ fun PgPoolOptions(
   trustStoreOptions: io.vertx.core.net.JksOptions? = null,
   useAlpn: Boolean? = null,
   usePooledBuffers: Boolean? = null,
-  user: String? = null): PgPoolOptions = io.reactiverse.pgclient.PgPoolOptions().apply {
+  user: String? = null,
+  validationInterval: Long? = null,
+  waitForWritability: Boolean? = null): PgPoolOptions = io.reactiverse.pgclient.PgPoolOptions().apply {
 
+  if (acquireTimeout != null) {
+    this.setAcquireTimeout(acquireTimeout)
+  }
+  if (adaptivePipelining != null) {
+    this.setAdaptivePipelining(adaptivePipelining)
+  }
   if (cachePreparedStatements != null) {
     this.setCachePreparedStatements(cachePreparedStatements)
   }
+  if (coalesceWrites != null) {
+    this.setCoalesceWrites(coalesceWrites)
+  }
+  if (connectRetryDelay != null) {
+    this.setConnectRetryDelay(connectRetryDelay)
+  }
   if (connectTimeout != null) {
     this.setConnectTimeout(connectTimeout)
   }
@@ -144,24 +204,60 @@ fun PgPoolOptions(
   if (idleTimeout != null) {
     this.setIdleTimeout(idleTimeout)
   }
+  if (inferParameterTypes != null) {
+    this.setInferParameterTypes(inferParameterTypes)
+  }
   if (jdkSslEngineOptions != null) {
     this.setJdkSslEngineOptions(jdkSslEngineOptions)
   }
   if (keyStoreOptions != null) {
     this.setKeyStoreOptions(keyStoreOptions)
   }
+  if (lazyRowDecoding != null) {
+    this.setLazyRowDecoding(lazyRowDecoding)
+  }
+  if (loadBalanceHosts != null) {
+    this.setLoadBalanceHosts(loadBalanceHosts)
+  }
   if (localAddress != null) {
     this.setLocalAddress(localAddress)
   }
   if (logActivity != null) {
     this.setLogActivity(logActivity)
   }
+  if (maxConnectRetries != null) {
+    this.setMaxConnectRetries(maxConnectRetries)
+  }
+  if (maxIdleTime != null) {
+    this.setMaxIdleTime(maxIdleTime)
+  }
+  if (maxLifetime != null) {
+    this.setMaxLifetime(maxLifetime)
+  }
+  if (maxPendingCommands != null) {
+    this.setMaxPendingCommands(maxPendingCommands)
+  }
+  if (maxQueueTime != null) {
+    this.setMaxQueueTime(maxQueueTime)
+  }
   if (maxSize != null) {
     this.setMaxSize(maxSize)
   }
+  if (maxWaitQueueSize != null) {
+    this.setMaxWaitQueueSize(maxWaitQueueSize)
+  }
   if (metricsName != null) {
     this.setMetricsName(metricsName)
   }
+  if (minIdle != null) {
+    this.setMinIdle(minIdle)
+  }
+  if (minPipeliningLimit != null) {
+    this.setMinPipeliningLimit(minPipeliningLimit)
+  }
+  if (multiplexed != null) {
+    this.setMultiplexed(multiplexed)
+  }
   if (openSslEngineOptions != null) {
     this.setOpenSslEngineOptions(openSslEngineOptions)
   }
@@ -186,9 +282,18 @@ fun PgPoolOptions(
   if (port != null) {
     this.setPort(port)
   }
+  if (preparedStatementCacheMaxSize != null) {
+    this.setPreparedStatementCacheMaxSize(preparedStatementCacheMaxSize)
+  }
+  if (preparedStatementCacheSqlLimit != null) {
+    this.setPreparedStatementCacheSqlLimit(preparedStatementCacheSqlLimit)
+  }
   if (proxyOptions != null) {
     this.setProxyOptions(proxyOptions)
   }
+  if (queryTimeout != null) {
+    this.setQueryTimeout(queryTimeout)
+  }
   if (receiveBufferSize != null) {
     this.setReceiveBufferSize(receiveBufferSize)
   }
@@ -204,15 +309,24 @@ fun PgPoolOptions(
   if (reusePort != null) {
     this.setReusePort(reusePort)
   }
+  if (reuseWriteBuffer != null) {
+    this.setReuseWriteBuffer(reuseWriteBuffer)
+  }
   if (sendBufferSize != null) {
     this.setSendBufferSize(sendBufferSize)
   }
+  if (sharded != null) {
+    this.setSharded(sharded)
+  }
   if (soLinger != null) {
     this.setSoLinger(soLinger)
   }
   if (ssl != null) {
     this.setSsl(ssl)
   }
+  if (targetSessionAttrs != null) {
+    this.setTargetSessionAttrs(targetSessionAttrs)
+  }
   if (tcpCork != null) {
     this.setTcpCork(tcpCork)
   }
@@ -246,5 +360,11 @@ fun PgPoolOptions(
   if (user != null) {
     this.setUser(user)
   }
+  if (validationInterval != null) {
+    this.setValidationInterval(validationInterval)
+  }
+  if (waitForWritability != null) {
+    this.setWaitForWritability(waitForWritability)
+  }
 }
 
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@RunWith(VertxUnitRunner.class)
+public class CopyInTest extends PgTestBase {
+
+  Vertx vertx;
+
+  @Before
+  public void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void teardown(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testCopyInTuples(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(60000, 60010, id -> Tuple.of(id, "value-" + id)));
+      conn.copyIn("test", Arrays.asList("id", "val"), stream, ctx.asyncAssertSuccess(count -> {
+        ctx.assertEquals(10, count);
+        conn.query("SELECT val FROM Test WHERE id >= 60000 AND id < 60010 ORDER BY id", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(10, result.size());
+          ctx.assertEquals("value-60000", result.iterator().next().getString(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInAllColumns(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(61000, 61005, id -> Tuple.of(id, "value-" + id)));
+      conn.copyIn("test", Collections.emptyList(), stream, ctx.asyncAssertSuccess(count -> {
+        ctx.assertEquals(5, count);
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInBuffers(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Buffer> stream = new IterableStream<>(vertx, range(62000, 62010, id -> Buffer.buffer(id + "\tvalue-" + id + "\n")));
+      conn.copyIn("COPY Test (id, val) FROM STDIN", stream, ctx.asyncAssertSuccess(count -> {
+        ctx.assertEquals(10, count);
+        conn.query("SELECT val FROM Test WHERE id = 62009", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals("value-62009", result.iterator().next().getString(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInLargeStream(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(100000, 300000, id -> Tuple.of(id, "value-" + id)));
+      conn.copyIn("test", Arrays.asList("id", "val"), stream, ctx.asyncAssertSuccess(count -> {
+        ctx.assertEquals(200000, count);
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInInvalidTuple(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(63000, 63010, id -> id == 63005 ? Tuple.of("invalid-id", "value") : Tuple.of(id, "value-" + id)));
+      conn.copyIn("test", Arrays.asList("id", "val"), stream, ctx.asyncAssertFailure(err -> {
+        conn.query("SELECT COUNT(*) FROM Test WHERE id >= 63000 AND id < 63010", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(0L, result.iterator().next().getLong(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInStreamFailure(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(64000, 64010, id -> {
+        if (id == 64005) {
+          throw new RuntimeException("the-failure");
+        }
+        return Tuple.of(id, "value-" + id);
+      }));
+      conn.copyIn("test", Arrays.asList("id", "val"), stream, ctx.asyncAssertFailure(err -> {
+        ctx.assertEquals("the-failure", err.getMessage());
+        conn.query("SELECT COUNT(*) FROM Test WHERE id >= 64000 AND id < 64010", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(0L, result.iterator().next().getLong(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInServerFailure(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      IterableStream<Tuple> stream = new IterableStream<>(vertx, range(65000, 65001, id -> Tuple.of(id, "value-" + id)));
+      conn.copyIn("DoesNotExist", Arrays.asList("id", "val"), stream, ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(err instanceof PgException);
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyInQuotedNames(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("CREATE TEMPORARY TABLE \"CopyIn\" (\"Id\" INT4, \"select\" VARCHAR)", ctx.asyncAssertSuccess(v -> {
+        IterableStream<Tuple> stream = new IterableStream<>(vertx, range(0, 5, id -> Tuple.of(id, "value-" + id)));
+        conn.copyIn("CopyIn", Arrays.asList("Id", "select"), stream, ctx.asyncAssertSuccess(count -> {
+          ctx.assertEquals(5, count);
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testQueryCopyFromStdin(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("COPY Test (id, val) FROM STDIN", ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(err instanceof PgException);
+        // The connection is still usable
+        conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(1, result.iterator().next().getInteger(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testPreparedQueryCopyFromStdin(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("COPY Test (id, val) FROM STDIN", ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(err instanceof PgException);
+        conn.preparedQuery("SELECT 1", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(1, result.iterator().next().getInteger(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  private static <T> Iterable<T> range(int from, int to, Function<Integer, T> mapper) {
+    return () -> IntStream.range(from, to).boxed().map(mapper).iterator();
+  }
+
+  /**
+   * A read stream emitting the elements of an iterable from the event loop.
+   */
+  static class IterableStream<T> implements ReadStream<T> {
+
+    private final Context context;
+    private final Iterable<T> iterable;
+    private Iterator<T> iterator;
+    private Handler<T> handler;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private boolean paused;
+    private boolean scheduled;
+
+    IterableStream(Vertx vertx, Iterable<T> iterable) {
+      this.context = vertx.getOrCreateContext();
+      this.iterable = iterable;
+    }
+
+    @Override
+    public synchronized ReadStream<T> exceptionHandler(Handler<Throwable> handler) {
+      exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public synchronized ReadStream<T> handler(Handler<T> handler) {
+      this.handler = handler;
+      if (handler != null && iterator == null) {
+        iterator = iterable.iterator();
+        schedule();
+      }
+      return this;
+    }
+
+    @Override
+    public synchronized ReadStream<T> pause() {
+      paused = true;
+      return this;
+    }
+
+    @Override
+    public synchronized ReadStream<T> resume() {
+      paused = false;
+      schedule();
+      return this;
+    }
+
+    @Override
+    public synchronized ReadStream<T> endHandler(Handler<Void> handler) {
+      endHandler = handler;
+      return this;
+    }
+
+    private void schedule() {
+      if (!scheduled && iterator != null) {
+        scheduled = true;
+        context.runOnContext(v -> emit());
+      }
+    }
+
+    private void emit() {
+      synchronized (this) {
+        scheduled = false;
+      }
+      // Emit a batch of elements per event loop task
+      for (int i = 0;i < 256;i++) {
+        T item;
+        Handler<T> h;
+        synchronized (this) {
+          if (paused || handler == null) {
+            return;
+          }
+          h = handler;
+          if (!iterator.hasNext()) {
+            Handler<Void> e = endHandler;
+            handler = null;
+            if (e != null) {
+              e.handle(null);
+            }
+            return;
+          }
+          try {
+            item = iterator.next();
+          } catch (RuntimeException err) {
+            Handler<Throwable> e = exceptionHandler;
+            handler = null;
+            if (e != null) {
+              e.handle(err);
+            }
+            return;
+          }
+        }
+        h.handle(item);
+      }
+      synchronized (this) {
+        schedule();
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class CopyOutTest extends PgTestBase {
+
+  Vertx vertx;
+
+  @Before
+  public void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void teardown(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testCopyOutBuffers(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      Buffer data = Buffer.buffer();
+      PgStream<Buffer> stream = conn.copyOut("COPY (SELECT id FROM Fortune WHERE id <= 12 ORDER BY id) TO STDOUT");
+      stream.exceptionHandler(ctx::fail);
+      stream.endHandler(v -> {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1;i <= 12;i++) {
+          expected.append(i).append('\n');
+        }
+        ctx.assertEquals(expected.toString(), data.toString());
+        async.complete();
+      });
+      stream.handler(data::appendBuffer);
+    }));
+  }
+
+  @Test
+  public void testCopyOutRows(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("SELECT id, message FROM Fortune WHERE id <= 12 ORDER BY id", ctx.asyncAssertSuccess(expected -> {
+        List<Row> rows = new ArrayList<>();
+        PgStream<Row> stream = conn.copyOutRows("SELECT id, message FROM Fortune WHERE id <= 12 ORDER BY id");
+        stream.exceptionHandler(ctx::fail);
+        stream.endHandler(v -> {
+          ctx.assertEquals(expected.size(), rows.size());
+          int idx = 0;
+          for (Row row : expected) {
+            ctx.assertEquals(row.getInteger("id"), rows.get(idx).getInteger("id"));
+            ctx.assertEquals(row.getString("message"), rows.get(idx).getString(1));
+            idx++;
+          }
+          async.complete();
+        });
+        stream.handler(rows::add);
+      }));
+    }));
+  }
+
+  @Test
+  public void testCopyOutNullValues(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      List<Row> rows = new ArrayList<>();
+      PgStream<Row> stream = conn.copyOutRows("SELECT 1::INT4, NULL::TEXT");
+      stream.exceptionHandler(ctx::fail);
+      stream.endHandler(v -> {
+        ctx.assertEquals(1, rows.size());
+        ctx.assertEquals(1, rows.get(0).getInteger(0));
+        ctx.assertNull(rows.get(0).getString(1));
+        async.complete();
+      });
+      stream.handler(rows::add);
+    }));
+  }
+
+  @Test
+  public void testPauseResume(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      AtomicInteger count = new AtomicInteger();
+      PgStream<Row> stream = conn.copyOutRows("SELECT id FROM generate_series(1, 100000) AS id");
+      stream.exceptionHandler(ctx::fail);
+      stream.endHandler(v -> {
+        ctx.assertEquals(100000, count.get());
+        async.complete();
+      });
+      stream.handler(row -> {
+        ctx.assertEquals(count.incrementAndGet(), row.getInteger(0));
+        if (count.get() % 10000 == 0) {
+          stream.pause();
+          vertx.setTimer(10, id -> stream.resume());
+        }
+      });
+    }));
+  }
+
+  @Test
+  public void testServerFailure(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      PgStream<Buffer> stream = conn.copyOut("COPY DoesNotExist TO STDOUT");
+      stream.exceptionHandler(err -> {
+        ctx.assertTrue(err instanceof PgException);
+        // The connection is still usable
+        conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> async.complete()));
+      });
+      stream.endHandler(v -> ctx.fail());
+      stream.handler(buff -> ctx.fail());
+    }));
+  }
+
+  @Test
+  public void testClose(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      AtomicInteger count = new AtomicInteger();
+      PgStream<Row> stream = conn.copyOutRows("SELECT id FROM generate_series(1, 10000) AS id");
+      stream.endHandler(v -> ctx.fail());
+      stream.handler(row -> {
+        ctx.assertEquals(1, count.incrementAndGet());
+        stream.close(ctx.asyncAssertSuccess(v -> {
+          conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> async.complete()));
+        }));
+      });
+    }));
+  }
+
+  @Test
+  public void testQueryCopyToStdout(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("COPY (SELECT id FROM generate_series(1, 1000) AS id) TO STDOUT", ctx.asyncAssertFailure(err -> {
+        // The connection is still usable
+        conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(1, result.iterator().next().getInteger(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testPreparedQueryCopyToStdout(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("COPY (SELECT id FROM generate_series(1, 1000) AS id) TO STDOUT", ctx.asyncAssertFailure(err -> {
+        conn.preparedQuery("SELECT 1", ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(1, result.iterator().next().getInteger(0));
+          async.complete();
+        }));
+      }));
+    }));
+  }
+}
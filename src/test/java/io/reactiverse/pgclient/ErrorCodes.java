@@ -24,5 +24,6 @@ public class ErrorCodes {
 
   public static final String syntax_error = "42601";
   public static final String invalid_text_representation = "22P02";
+  public static final String query_canceled = "57014";
 
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class InferParameterTypesTest extends PgTestBase {
+
+  Vertx vertx;
+
+  @Before
+  public void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void teardown(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  private PgConnectOptions options() {
+    return new PgConnectOptions(options).setInferParameterTypes(true);
+  }
+
+  @Test
+  public void testQuery(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT id, message FROM Fortune WHERE id=$1 OR id=$2", Tuple.of(1, 2L), ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(2, result.size());
+        for (Row row : result) {
+          ctx.assertNotNull(row.getInteger(0));
+          ctx.assertNotNull(row.getString(1));
+        }
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testUntypedParameters(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT id FROM Fortune WHERE message=$1 AND ($2::int4 IS NULL)", Tuple.tuple().addString("fortune: No such file or directory").addValue(null), ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(1, result.size());
+        ctx.assertEquals(1, result.iterator().next().getInteger(0));
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testUpdate(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("UPDATE Fortune SET message=message WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(1, result.rowCount());
+        ctx.assertEquals(0, result.size());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testServerFailure(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of("invalid-id"), ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(err instanceof PgException);
+        // The connection is still usable
+        conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(1, result.size());
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testNotInferredParameter(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      // String[] maps to several types, the statement is prepared first
+      Object messages = new String[] { "fortune: No such file or directory" };
+      conn.preparedQuery("SELECT id FROM Fortune WHERE message=ANY($1)", Tuple.of(messages), ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(1, result.size());
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testTransaction(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      PgTransaction tx = conn.begin();
+      tx.preparedQuery("UPDATE Fortune SET message=message WHERE id=$1", Tuple.of(2), ctx.asyncAssertSuccess(r1 -> {
+        ctx.assertEquals(1, r1.rowCount());
+        tx.preparedQuery("SELECT message FROM Fortune WHERE id=$1", Tuple.of(2), ctx.asyncAssertSuccess(r2 -> {
+          ctx.assertEquals(1, r2.size());
+          tx.commit(ctx.asyncAssertSuccess(v -> async.complete()));
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testPool(TestContext ctx) {
+    Async async = ctx.async(10);
+    PgPool pool = PgClient.pool(vertx, new PgPoolOptions(options()).setMaxSize(2));
+    for (int i = 1;i <= 10;i++) {
+      int id = i;
+      pool.preparedQuery("SELECT id FROM Fortune WHERE id=$1", Tuple.of(id), ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(id, result.iterator().next().getInteger(0));
+        async.countDown();
+      }));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+public class LazyRowDecodingTest extends PreparedStatementTestBase {
+
+  @Override
+  protected PgConnectOptions options() {
+    return new PgConnectOptions(options).setLazyRowDecoding(true);
+  }
+
+  @Test
+  public void testSimpleQuery(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.query("SELECT id, randomnumber, NULL::text FROM World ORDER BY id LIMIT 5", ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(5, result.size());
+        int expected = 1;
+        for (Row row : result) {
+          ctx.assertEquals(expected++, row.getInteger("id"));
+          ctx.assertNotNull(row.getInteger(1));
+          ctx.assertNull(row.getString(2));
+        }
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testReadAfterRelease(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options(), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT id, message FROM Fortune WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result -> {
+        Row row = result.iterator().next();
+        ctx.assertEquals(1, row.getInteger(0));
+        vertx.runOnContext(v -> {
+          // The decoded column remains available
+          ctx.assertEquals(1, row.getInteger(0));
+          try {
+            row.getString(1);
+            ctx.fail();
+          } catch (IllegalStateException ignore) {
+          }
+          async.complete();
+        });
+      }));
+    }));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class PgColumnSetTest extends PgTestBase {
+
+  Vertx vertx;
+
+  @Before
+  public void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void teardown(TestContext ctx) {
+    vertx.close(ctx.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testPreparedQuery(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT id, message FROM Fortune WHERE id <= 12 ORDER BY id", PgColumnSet.collector(), ctx.asyncAssertSuccess(result -> {
+        PgColumnSet columns = result.value();
+        ctx.assertEquals(12, result.size());
+        ctx.assertEquals(12, columns.size());
+        int[] ids = columns.getIntColumn(0);
+        for (int i = 0;i < 12;i++) {
+          ctx.assertEquals(i + 1, ids[i]);
+          ctx.assertNotNull(columns.getStringDictionary(1)[columns.getStringCodes(1)[i]]);
+        }
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testSimpleQuery(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("SELECT id, NULL::INT8 AS empty FROM generate_series(1, 100000) AS id", PgColumnSet.collector(), ctx.asyncAssertSuccess(result -> {
+        PgColumnSet columns = result.value();
+        ctx.assertEquals(100000, columns.size());
+        ctx.assertEquals(100000, columns.getIntColumn(0)[99999]);
+        ctx.assertEquals(100000, columns.getNulls(1).cardinality());
+        async.complete();
+      }));
+    }));
+  }
+}
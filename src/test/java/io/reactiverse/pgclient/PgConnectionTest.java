@@ -17,12 +17,14 @@
 
 package io.reactiverse.pgclient;
 
+import io.vertx.core.Handler;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="mailto:julien@julienviet.com">Julien Viet</a>
@@ -59,6 +61,107 @@ public class PgConnectionTest extends PgConnectionTestBase {
     }));
   }
 
+  @Test
+  public void testCoalesceWrites(TestContext ctx) {
+    int num = 100;
+    Async async = ctx.async(num);
+    PgConnectOptions options = new PgConnectOptions(this.options).setCoalesceWrites(true).setReuseWriteBuffer(true);
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      for (int i = 0;i < num;i++) {
+        int expected = i;
+        conn.preparedQuery("SELECT $1::INT4", Tuple.of(i), ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals(num - async.count(), expected);
+          ctx.assertEquals(expected, result.iterator().next().getInteger(0));
+          async.countDown();
+        }));
+      }
+    }));
+  }
+
+  @Test
+  public void testCancelRequest(TestContext ctx) {
+    Async async = ctx.async(2);
+    connector.accept(ctx.asyncAssertSuccess(conn -> {
+      conn.query("SELECT pg_sleep(10)", ctx.asyncAssertFailure(err -> {
+        ctx.assertEquals(ErrorCodes.query_canceled, ((PgException) err).getCode());
+        // The connection is still usable
+        conn.query("SELECT 1", ctx.asyncAssertSuccess(v -> async.countDown()));
+      }));
+      vertx.setTimer(500, id -> conn.cancelRequest(ctx.asyncAssertSuccess(v -> async.countDown())));
+    }));
+  }
+
+  @Test
+  public void testFailoverToNextHost(TestContext ctx) {
+    Async async = ctx.async();
+    String hosts = "localhost:1," + options.getHost() + ":" + options.getPort();
+    PgConnectOptions options = new PgConnectOptions(this.options).setHost(hosts).setTargetSessionAttrs("read-write");
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> {
+        conn.close();
+        async.complete();
+      }));
+    }));
+  }
+
+  @Test
+  public void testTargetSessionAttrsMismatch(TestContext ctx) {
+    Async async = ctx.async();
+    PgConnectOptions options = new PgConnectOptions(this.options).setTargetSessionAttrs("standby");
+    PgClient.connect(vertx, options, ctx.asyncAssertFailure(err -> async.complete()));
+  }
+
+  @Test
+  public void testQueryTimeout(TestContext ctx) {
+    Async async = ctx.async();
+    PgConnectOptions options = new PgConnectOptions(this.options).setQueryTimeout(500);
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      long now = System.currentTimeMillis();
+      conn.query("SELECT pg_sleep(10)", ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(System.currentTimeMillis() - now < 5000);
+        // Queued behind the cancelled query
+        conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> {
+          ctx.assertTrue(System.currentTimeMillis() - now < 5000);
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testQueryTimeoutWithQueuedQuery(TestContext ctx) {
+    Async async = ctx.async();
+    PgConnectOptions options = new PgConnectOptions(this.options).setQueryTimeout(500).setPipeliningLimit(1);
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      long now = System.currentTimeMillis();
+      AtomicInteger failures = new AtomicInteger();
+      Handler<Throwable> handler = err -> {
+        if (failures.incrementAndGet() == 2) {
+          // The sleeping query is cancelled once the queued query expired, not the query sent after it
+          conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> {
+            ctx.assertTrue(System.currentTimeMillis() - now < 5000);
+            async.complete();
+          }));
+        }
+      };
+      conn.query("SELECT pg_sleep(10)", ctx.asyncAssertFailure(handler));
+      // Queued behind the sleeping query
+      conn.query("SELECT 1", ctx.asyncAssertFailure(handler));
+    }));
+  }
+
+  @Test
+  public void testMaxPendingCommandsZero(TestContext ctx) {
+    Async async = ctx.async(2);
+    PgConnectOptions options = new PgConnectOptions(this.options).setMaxPendingCommands(0).setPipeliningLimit(1);
+    PgClient.connect(vertx, options, ctx.asyncAssertSuccess(conn -> {
+      // Sent right away
+      conn.query("SELECT 1", ctx.asyncAssertSuccess(result -> async.countDown()));
+      // Has to wait behind the first query
+      conn.query("SELECT 2", ctx.asyncAssertFailure(err -> async.countDown()));
+    }));
+  }
+
   @Test
   public void testClose(TestContext ctx) {
     Async async = ctx.async();
@@ -277,6 +277,21 @@ public class PgConnectionUriParserTest {
     assertEquals(expectedParsedResult, actualParsedResult);
   }
 
+  @Test
+  public void testParsingMultipleHosts() {
+    uri = "postgresql://user@host1:5432,[::1]:5433,host3/mydb?target_session_attrs=read-write&load_balance_hosts=random";
+    actualParsedResult = parse(uri);
+
+    expectedParsedResult = new JsonObject()
+      .put("user", "user")
+      .put("host", "host1:5432,[::1]:5433,host3")
+      .put("database", "mydb")
+      .put("targetSessionAttrs", "read-write")
+      .put("loadBalanceHosts", "random");
+
+    assertEquals(expectedParsedResult, actualParsedResult);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testParsingInvalidUri1() {
     uri = "postgresql://us@er@@";
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+public class PgMultiplexedPoolTest extends PgPoolTestBase {
+
+  @Override
+  protected PgPool createPool(PgConnectOptions options, int size) {
+    return PgClient.pool(vertx, new PgPoolOptions(options).setMaxSize(size).setMultiplexed(true));
+  }
+
+  @Test
+  public void testPreparedQueriesRunOnTheirConnection(TestContext ctx) {
+    int num = 1000;
+    Async async = ctx.async(num);
+    PgPool pool = createPool(new PgConnectOptions(options).setCachePreparedStatements(true), 4);
+    for (int i = 0;i < num;i++) {
+      // The statements get the same ids on different connections, an execute sent to another connection runs the other one
+      if (i % 2 == 0) {
+        pool.preparedQuery("SELECT $1::INT4 AS id", Tuple.of(i), ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals("id", result.columnsNames().get(0));
+          async.countDown();
+        }));
+      } else {
+        pool.preparedQuery("SELECT $1::TEXT AS name", Tuple.of("name-" + i), ctx.asyncAssertSuccess(result -> {
+          ctx.assertEquals("name", result.columnsNames().get(0));
+          async.countDown();
+        }));
+      }
+    }
+  }
+}
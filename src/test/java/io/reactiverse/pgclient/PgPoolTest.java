@@ -17,10 +17,12 @@
 
 package io.reactiverse.pgclient;
 
+import io.vertx.core.Context;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -81,4 +83,52 @@ public class PgPoolTest extends PgPoolTestBase {
       pool.close();
     }
   }
+
+  @Test
+  public void testAcquireTimeout(TestContext ctx) {
+    Async async = ctx.async();
+    PgPool pool = PgClient.pool(vertx, new PgPoolOptions(options).setMaxSize(1).setAcquireTimeout(100));
+    pool.getConnection(ctx.asyncAssertSuccess(conn -> {
+      long now = System.currentTimeMillis();
+      pool.getConnection(ctx.asyncAssertFailure(err -> {
+        ctx.assertTrue(System.currentTimeMillis() - now >= 100);
+        conn.close();
+        pool.getConnection(ctx.asyncAssertSuccess(conn2 -> {
+          conn2.close();
+          pool.close();
+          async.complete();
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testShardedWaiterMovesToIdleShard(TestContext ctx) {
+    Async async = ctx.async();
+    PgPool pool = PgClient.pool(vertx, new PgPoolOptions(options).setMaxSize(2).setSharded(true));
+    Context ctx1 = vertx.getOrCreateContext();
+    Context ctx2 = vertx.getOrCreateContext();
+    ctx1.runOnContext(v1 -> {
+      pool.getConnection(ctx.asyncAssertSuccess(conn1 -> {
+        ctx2.runOnContext(v2 -> {
+          pool.getConnection(ctx.asyncAssertSuccess(conn2 -> {
+            // Waits on the shard of ctx2 that owns a connection
+            AtomicBoolean closed = new AtomicBoolean();
+            pool.getConnection(ctx.asyncAssertSuccess(conn3 -> {
+              ctx.assertFalse(closed.get());
+              conn3.query("SELECT id, randomnumber from WORLD", ctx.asyncAssertSuccess(rows -> {
+                conn3.close();
+                conn2.close();
+                pool.close();
+                async.complete();
+              }));
+            }));
+            // The connection released on the shard of ctx1 serves the waiter of ctx2
+            ctx1.runOnContext(v3 -> conn1.close());
+            vertx.setTimer(1000, id -> closed.set(true));
+          }));
+        });
+      }));
+    });
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient;
+
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PgRoutingPoolTest extends PgPoolTestBase {
+
+  @Override
+  protected PgPool createPool(PgConnectOptions options, int size) {
+    PgPoolOptions poolOptions = new PgPoolOptions(options).setMaxSize(size);
+    return PgClient.routingPool(vertx, poolOptions, Arrays.asList(poolOptions, poolOptions)).readOnly();
+  }
+
+  @Test
+  public void testFallbackToPrimary(TestContext ctx) {
+    Async async = ctx.async(2);
+    PgPoolOptions primary = new PgPoolOptions(options);
+    PgPoolOptions replica = new PgPoolOptions(options).setPort(8080).setHost("localhost");
+    PgRoutingPool pool = PgClient.routingPool(vertx, primary, Collections.singletonList(replica));
+    pool.readOnly().query("SELECT id, randomnumber from WORLD", ctx.asyncAssertSuccess(v1 -> {
+      async.countDown();
+      pool.readOnly().begin(ctx.asyncAssertSuccess(tx -> {
+        tx.query("SELECT id, randomnumber from WORLD", ctx.asyncAssertSuccess(v2 -> {
+          tx.commit(ctx.asyncAssertSuccess(v3 -> {
+            pool.close();
+            async.countDown();
+          }));
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testSessionReadsItsWrites(TestContext ctx) {
+    Async async = ctx.async();
+    PgPoolOptions poolOptions = new PgPoolOptions(options);
+    PgRoutingPool pool = PgClient.routingPool(vertx, poolOptions, Collections.singletonList(poolOptions));
+    PgRoutingSession session = pool.session();
+    ctx.assertEquals(0L, session.lsn());
+    session.query("UPDATE World SET randomnumber = 1 WHERE id = 1", ctx.asyncAssertSuccess(v1 -> {
+      ctx.assertTrue(session.lsn() > 0);
+      // The replica is the primary itself, it does not report a replay position and the read runs on the primary
+      session.readOnly().query("SELECT randomnumber FROM World WHERE id = 1", ctx.asyncAssertSuccess(result -> {
+        ctx.assertEquals(1, result.iterator().next().getInteger(0));
+        pool.close();
+        async.complete();
+      }));
+    }));
+  }
+}
@@ -50,4 +50,84 @@ public class PreparedStatementCachedTest extends PreparedStatementTestBase {
     }));
   }
 
+  @Test
+  public void testEviction(TestContext ctx) {
+    Async async = ctx.async(10);
+    PgClient.connect(vertx, options().setPreparedStatementCacheMaxSize(2), ctx.asyncAssertSuccess(conn -> {
+      conn.prepare("SELECT * FROM Fortune WHERE id=$1", ctx.asyncAssertSuccess(ps -> {
+        for (int i = 1;i <= 10;i++) {
+          int id = i;
+          // Evicts the prepared statement
+          conn.preparedQuery("SELECT " + id + " FROM Fortune WHERE id=$1", Tuple.of(id), ctx.asyncAssertSuccess(result -> {
+            ctx.assertEquals(1, result.size());
+            ctx.assertEquals(id, result.iterator().next().getInteger(0));
+            ps.execute(Tuple.of(id), ctx.asyncAssertSuccess(results -> {
+              ctx.assertEquals(1, results.size());
+              ctx.assertEquals(id, results.iterator().next().getInteger(0));
+              async.countDown();
+            }));
+          }));
+        }
+      }));
+    }));
+  }
+
+  @Test
+  public void testCacheCounters(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options().setPreparedStatementCacheMaxSize(1), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result1 -> {
+        conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of(2), ctx.asyncAssertSuccess(result2 -> {
+          conn.preparedQuery("SELECT id FROM Fortune WHERE id=$1", Tuple.of(3), ctx.asyncAssertSuccess(result3 -> {
+            ctx.assertEquals(1L, conn.preparedStatementCacheHits());
+            ctx.assertEquals(2L, conn.preparedStatementCacheMisses());
+            ctx.assertEquals(1L, conn.preparedStatementCacheEvictions());
+            async.complete();
+          }));
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testEvictionWithOpenCursor(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options().setPreparedStatementCacheMaxSize(1), ctx.asyncAssertSuccess(conn -> {
+      conn.query("BEGIN", ctx.asyncAssertSuccess(begin -> {
+        conn.prepare("SELECT * FROM Fortune WHERE id=$1 OR id=$2 OR id=$3 OR id=$4 OR id=$5 OR id=$6", ctx.asyncAssertSuccess(ps -> {
+          PgCursor cursor = ps.cursor(Tuple.of(1, 8, 4, 11, 2, 9));
+          cursor.read(4, ctx.asyncAssertSuccess(result1 -> {
+            ctx.assertEquals(4, result1.size());
+            // Evicts the statement of the cursor
+            conn.preparedQuery("SELECT id FROM Fortune WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result2 -> {
+              ctx.assertEquals(1L, conn.preparedStatementCacheEvictions());
+              cursor.read(4, ctx.asyncAssertSuccess(result3 -> {
+                ctx.assertEquals(2, result3.size());
+                ctx.assertFalse(cursor.hasMore());
+                cursor.close(ctx.asyncAssertSuccess(v -> {
+                  conn.query("COMMIT", ctx.asyncAssertSuccess(commit -> {
+                    async.complete();
+                  }));
+                }));
+              }));
+            }));
+          }));
+        }));
+      }));
+    }));
+  }
+
+  @Test
+  public void testSqlLimit(TestContext ctx) {
+    Async async = ctx.async();
+    PgClient.connect(vertx, options().setPreparedStatementCacheSqlLimit(8), ctx.asyncAssertSuccess(conn -> {
+      conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of(1), ctx.asyncAssertSuccess(result1 -> {
+        conn.preparedQuery("SELECT * FROM Fortune WHERE id=$1", Tuple.of(2), ctx.asyncAssertSuccess(result2 -> {
+          ctx.assertEquals(1, result1.size());
+          ctx.assertEquals(1, result2.size());
+          async.complete();
+        }));
+      }));
+    }));
+  }
 }
@@ -89,4 +89,86 @@ public class TupleTest {
     assertEquals(4.5, tuple.getDouble(4), 0.0D);
     assertEquals(4.5, tuple.getDouble(5), 0.0D);
   }
+
+  @Test
+  public void testPrimitiveValues() {
+    Tuple tuple = Tuple.tuple()
+      .addBooleanValue(true)
+      .addShortValue((short) 4000)
+      .addIntValue(1_000_000)
+      .addLongValue(1_000_000_000_000L)
+      .addFloatValue(4.5F)
+      .addDoubleValue(-4.5D);
+    assertEquals(6, tuple.size());
+    assertTrue(tuple.getBooleanValue(0));
+    assertEquals(4000, tuple.getShortValue(1));
+    assertEquals(1_000_000, tuple.getIntValue(2));
+    assertEquals(1_000_000_000_000L, tuple.getLongValue(3));
+    assertEquals(4.5F, tuple.getFloatValue(4), 0.0F);
+    assertEquals(-4.5D, tuple.getDoubleValue(5), 0.0D);
+    assertEquals(4, tuple.getIntValue(4));
+    assertEquals(1_000_000D, tuple.getDoubleValue(2), 0.0D);
+    // Boxed when read as objects
+    assertEquals(Boolean.TRUE, tuple.getValue(0));
+    assertEquals((short) 4000, tuple.getValue(1));
+    assertEquals(1_000_000, tuple.getValue(2));
+    assertEquals(1_000_000_000_000L, tuple.getValue(3));
+    assertEquals(4.5F, tuple.getValue(4));
+    assertEquals(-4.5D, tuple.getValue(5));
+    assertEquals(Tuple.of(true, (short) 4000, 1_000_000, 1_000_000_000_000L, 4.5F, -4.5D), tuple);
+  }
+
+  @Test
+  public void testPrimitiveValuesOfBoxedValues() {
+    Tuple tuple = Tuple.of(true, 1_000_000, 4.5D);
+    tuple.addValue(null);
+    assertTrue(tuple.getBooleanValue(0));
+    assertEquals(1_000_000, tuple.getIntValue(1));
+    assertEquals(1_000_000L, tuple.getLongValue(1));
+    assertEquals(4.5D, tuple.getDoubleValue(2), 0.0D);
+    assertFalse(tuple.isNull(2));
+    assertTrue(tuple.isNull(3));
+    assertFalse(tuple.getBooleanValue(3));
+    assertEquals(0, tuple.getIntValue(3));
+    assertEquals(0D, tuple.getDoubleValue(3), 0.0D);
+  }
+
+  @Test
+  public void testPrimitiveValueOfWrongType() {
+    Tuple tuple = Tuple.tuple().addBooleanValue(true).addString("foo");
+    try {
+      tuple.getIntValue(0);
+      fail();
+    } catch (ClassCastException ignore) {
+    }
+    try {
+      tuple.getLongValue(1);
+      fail();
+    } catch (ClassCastException ignore) {
+    }
+  }
+
+  @Test
+  public void testMixedValues() {
+    Tuple tuple = Tuple.tuple();
+    for (int i = 0;i < 100;i++) {
+      if (i % 2 == 0) {
+        tuple.addIntValue(i);
+      } else {
+        tuple.addString("" + i);
+      }
+    }
+    assertEquals(100, tuple.size());
+    for (int i = 0;i < 100;i++) {
+      if (i % 2 == 0) {
+        assertEquals(i, tuple.getIntValue(i));
+      } else {
+        assertEquals("" + i, tuple.getString(i));
+      }
+    }
+    tuple.clear();
+    assertEquals(0, tuple.size());
+    tuple.addLongValue(3L);
+    assertEquals(3L, tuple.getLongValue(0));
+  }
 }
@@ -50,6 +50,26 @@ public class UtilTest {
     assertEquals(expected, hex);
   }
 
+  @Test
+  public void testWriteUTF8() {
+    assertWriteUTF8("");
+    assertWriteUTF8("abc");
+    assertWriteUTF8("é");
+    assertWriteUTF8("a€b");
+    assertWriteUTF8("\uD83D\uDE00");
+    assertWriteUTF8("a\uD83Db");
+  }
+
+  private static void assertWriteUTF8(String s) {
+    int len = Util.utf8Length(s);
+    ByteBuf buff = Unpooled.buffer(len);
+    assertEquals(len, Util.writeUTF8(buff, s));
+    assertEquals(len, buff.readableBytes());
+    if (s.chars().allMatch(c -> c < 0x80)) {
+      assertEquals(len, buff.capacity());
+    }
+  }
+
   @Test
   public void testUTF8StringEndDetector() throws Exception {
     assertSeparator("", -1);
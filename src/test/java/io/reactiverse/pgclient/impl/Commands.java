@@ -0,0 +1,22 @@
+package io.reactiverse.pgclient.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+/**
+ * Complete the commands scheduled on the connections of the tests outside of this package.
+ */
+public class Commands {
+
+  public static CommandBase<Void> command(Handler<AsyncResult<Void>> handler) {
+    return new CloseStatementCommand(handler::handle);
+  }
+
+  public static <R> void succeed(CommandBase<R> cmd, R result) {
+    cmd.handler.handle(CommandResponse.success(result));
+  }
+
+  public static void fail(CommandBase<?> cmd, Throwable err) {
+    cmd.fail(err);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgColumnSet;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PgColumnSetImplTest {
+
+  private static ColumnDesc column(String name, DataType type, DataFormat format) {
+    return new ColumnDesc(name, 0, (short) 0, type, (short) 0, 0, format);
+  }
+
+  private static void writeString(ByteBuf buff, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buff.writeInt(bytes.length);
+    buff.writeBytes(bytes);
+  }
+
+  @Test
+  public void testDecodeBinary() {
+    RowDescription desc = new RowDescription(new ColumnDesc[] {
+      column("id", DataType.INT4, DataFormat.BINARY),
+      column("amount", DataType.INT8, DataFormat.BINARY),
+      column("price", DataType.FLOAT4, DataFormat.BINARY),
+      column("active", DataType.BOOL, DataFormat.BINARY),
+      column("city", DataType.VARCHAR, DataFormat.BINARY),
+      column("day", DataType.DATE, DataFormat.BINARY)
+    });
+    RowResultDecoder<?, PgColumnSet> decoder = new RowResultDecoder<>(PgColumnSet.collector(), false, desc);
+    String[] cities = { "Lyon", "Paris", "Lyon", null, "Montréal" };
+    for (int i = 0;i < 1000;i++) {
+      ByteBuf buff = Unpooled.buffer();
+      buff.writeInt(4).writeInt(i);
+      if (i % 10 == 0) {
+        buff.writeInt(-1);
+      } else {
+        buff.writeInt(8).writeLong(i * 1_000_000_000L);
+      }
+      buff.writeInt(4).writeInt(Float.floatToIntBits(i + 0.5F));
+      buff.writeInt(1).writeByte(i % 2);
+      String city = cities[i % cities.length];
+      if (city == null) {
+        buff.writeInt(-1);
+      } else {
+        writeString(buff, city);
+      }
+      buff.writeInt(4).writeInt(i);
+      decoder.decodeRow(6, buff);
+    }
+    PgColumnSet set = decoder.complete();
+    assertEquals(1000, set.size());
+    assertEquals(Arrays.asList("id", "amount", "price", "active", "city", "day"), set.columnsNames());
+    assertEquals(4, set.columnIndex("city"));
+    int[] ids = set.getIntColumn(0);
+    long[] amounts = set.getLongColumn(1);
+    double[] prices = set.getDoubleColumn(2);
+    boolean[] active = set.getBooleanColumn(3);
+    int[] codes = set.getStringCodes(4);
+    String[] dictionary = set.getStringDictionary(4);
+    Object[] days = set.getObjectColumn(5);
+    assertEquals(1000, ids.length);
+    assertEquals(Arrays.asList("Lyon", "Paris", "Montréal"), Arrays.asList(dictionary));
+    for (int i = 0;i < 1000;i++) {
+      assertEquals(i, ids[i]);
+      if (i % 10 == 0) {
+        assertTrue(set.isNull(1, i));
+        assertEquals(0L, amounts[i]);
+        assertNull(set.getValue(1, i));
+      } else {
+        assertFalse(set.isNull(1, i));
+        assertEquals(i * 1_000_000_000L, amounts[i]);
+        assertEquals(i * 1_000_000_000L, set.getValue(1, i));
+      }
+      assertEquals(i + 0.5D, prices[i], 0.0D);
+      assertEquals(i % 2 == 1, active[i]);
+      String city = cities[i % cities.length];
+      if (city == null) {
+        assertEquals(-1, codes[i]);
+        assertTrue(set.getNulls(4).get(i));
+      } else {
+        assertEquals(city, dictionary[codes[i]]);
+        assertEquals(city, set.getValue(4, i));
+      }
+      assertNotNull(days[i]);
+    }
+  }
+
+  @Test
+  public void testDecodeText() {
+    RowDescription desc = new RowDescription(new ColumnDesc[] {
+      column("id", DataType.INT2, DataFormat.TEXT),
+      column("message", DataType.TEXT, DataFormat.TEXT)
+    });
+    RowResultDecoder<?, PgColumnSet> decoder = new RowResultDecoder<>(PgColumnSet.collector(), false, desc);
+    for (int i = 0;i < 3;i++) {
+      ByteBuf buff = Unpooled.buffer();
+      writeString(buff, "" + i);
+      writeString(buff, "message-" + (i % 2));
+      decoder.decodeRow(2, buff);
+    }
+    PgColumnSet set = decoder.complete();
+    assertEquals(3, set.size());
+    assertArrayEquals(new int[] { 0, 1, 2 }, set.getIntColumn(0));
+    assertEquals((short) 2, set.getValue(0, 2));
+    assertArrayEquals(new int[] { 0, 1, 0 }, set.getStringCodes(1));
+    assertArrayEquals(new String[] { "message-0", "message-1" }, set.getStringDictionary(1));
+  }
+
+  @Test
+  public void testEmpty() {
+    RowDescription desc = new RowDescription(new ColumnDesc[] {
+      column("id", DataType.INT4, DataFormat.BINARY)
+    });
+    RowResultDecoder<?, PgColumnSet> decoder = new RowResultDecoder<>(PgColumnSet.collector(), false, desc);
+    PgColumnSet set = decoder.complete();
+    assertEquals(0, set.size());
+    assertEquals(0, set.getIntColumn(0).length);
+  }
+
+  @Test
+  public void testWrongColumnType() {
+    RowDescription desc = new RowDescription(new ColumnDesc[] {
+      column("id", DataType.INT4, DataFormat.BINARY)
+    });
+    RowResultDecoder<?, PgColumnSet> decoder = new RowResultDecoder<>(PgColumnSet.collector(), false, desc);
+    PgColumnSet set = decoder.complete();
+    try {
+      set.getLongColumn(0);
+      fail();
+    } catch (ClassCastException ignore) {
+    }
+  }
+}
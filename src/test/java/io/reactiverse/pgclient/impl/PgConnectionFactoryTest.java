@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.PgConnectOptions;
+import io.reactiverse.pgclient.PgPoolOptions;
+import io.reactiverse.pgclient.impl.codec.DataTypeRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.SocketAddress;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PgConnectionFactoryTest {
+
+  @Test
+  public void testSingleServer() {
+    SocketAddress[] servers = PgConnectionFactory.servers("localhost", 5432, false);
+    assertEquals(1, servers.length);
+    assertEquals("localhost", servers[0].host());
+    assertEquals(5432, servers[0].port());
+  }
+
+  @Test
+  public void testServerList() {
+    SocketAddress[] servers = PgConnectionFactory.servers("host1:5433,[::1]:5434,host3, [::2],::3", 5432, false);
+    assertEquals(5, servers.length);
+    assertEquals("host1", servers[0].host());
+    assertEquals(5433, servers[0].port());
+    assertEquals("::1", servers[1].host());
+    assertEquals(5434, servers[1].port());
+    assertEquals("host3", servers[2].host());
+    assertEquals(5432, servers[2].port());
+    assertEquals("::2", servers[3].host());
+    assertEquals(5432, servers[3].port());
+    assertEquals("::3", servers[4].host());
+    assertEquals(5432, servers[4].port());
+  }
+
+  @Test
+  public void testDomainSocket() {
+    SocketAddress[] servers = PgConnectionFactory.servers("/var/run/postgresql", 5432, true);
+    assertEquals(1, servers.length);
+    assertEquals("/var/run/postgresql/.s.PGSQL.5432", servers[0].path());
+  }
+
+  @Test
+  public void testSharedRegistry() {
+    Vertx vertx = Vertx.vertx();
+    try {
+      PgConnectOptions options = new PgConnectOptions().setHost("localhost").setPort(5432).setDatabase("db1");
+      DataTypeRegistry registry = PgConnectionFactory.registry(vertx, options);
+      assertSame(registry, PgConnectionFactory.registry(vertx, new PgConnectOptions(options)));
+      assertSame(registry, PgConnectionFactory.registry(vertx, new PgPoolOptions(options)));
+      assertNotSame(registry, PgConnectionFactory.registry(vertx, new PgConnectOptions(options).setDatabase("db2")));
+      Vertx other = Vertx.vertx();
+      try {
+        assertNotSame(registry, PgConnectionFactory.registry(other, options));
+      } finally {
+        other.close();
+      }
+    } finally {
+      vertx.close();
+    }
+  }
+}
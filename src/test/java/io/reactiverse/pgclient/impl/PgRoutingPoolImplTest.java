@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.reactiverse.pgclient.impl;
+
+import io.reactiverse.pgclient.PgClient;
+import io.reactiverse.pgclient.Tuple;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.ParameterDescription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class PgRoutingPoolImplTest {
+
+  @Test
+  public void testParseLsn() {
+    assertEquals(0L, PgRoutingPoolImpl.parseLsn("0/0"));
+    assertEquals(0x16B374D848L, PgRoutingPoolImpl.parseLsn("16/B374D848"));
+    assertEquals(0xFFFFFFFFFFFFFFFFL, PgRoutingPoolImpl.parseLsn("FFFFFFFF/FFFFFFFF"));
+    assertTrue(PgRoutingPoolImpl.parseLsn("1/0") > PgRoutingPoolImpl.parseLsn("0/FFFFFFFF"));
+  }
+
+  @Test
+  public void testPreparedQueryIsRoutedOnce() {
+    Targets client = new Targets();
+    client.preparedQuery("SELECT 1", Tuple.tuple(), ar -> {});
+    client.prepared();
+    // The prepare and execute commands go to the target selected for the query
+    assertEquals(1, client.targets.size());
+    assertEquals(2, client.targets.get(0).size());
+    assertTrue(client.targets.get(0).get(1) instanceof ExtendedQueryCommand);
+  }
+
+  @Test
+  public void testPreparedBatchIsRoutedOnce() {
+    Targets client = new Targets();
+    client.preparedBatch("SELECT 1", Collections.singletonList(Tuple.tuple()), ar -> {});
+    client.prepared();
+    assertEquals(1, client.targets.size());
+    assertEquals(2, client.targets.get(0).size());
+    assertTrue(client.targets.get(0).get(1) instanceof ExtendedBatchQueryCommand);
+  }
+
+  /**
+   * A client selecting a new target each time it is asked for a scheduler, like the read-only pool.
+   */
+  private static class Targets extends PgClientBase<PgClient> {
+
+    private final List<List<CommandBase<?>>> targets = new ArrayList<>();
+
+    @Override
+    protected void schedule(CommandBase<?> cmd) {
+      scheduler().accept(cmd);
+    }
+
+    @Override
+    protected Consumer<CommandBase<?>> scheduler() {
+      List<CommandBase<?>> target = new ArrayList<>();
+      targets.add(target);
+      return target::add;
+    }
+
+    /**
+     * Complete the prepare command with a statement without parameters.
+     */
+    private void prepared() {
+      PrepareStatementCommand prepare = (PrepareStatementCommand) targets.get(0).get(0);
+      PreparedStatement ps = new PreparedStatement("SELECT 1", 0, new ParameterDescription(new DataType[0]), null);
+      prepare.handler.handle(CommandResponse.success(ps));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package io.reactiverse.pgclient.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PipeliningLimiterTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  public void testIncreaseWhenFull() {
+    PipeliningLimiter limiter = new PipeliningLimiter(1, 8);
+    assertEquals(1, limiter.limit());
+    long now = 0;
+    for (int i = 0;i < 1000;i++) {
+      limiter.update(MS, limiter.limit(), now += MS);
+    }
+    assertEquals(8, limiter.limit());
+  }
+
+  @Test
+  public void testNoIncreaseWhenNotFull() {
+    PipeliningLimiter limiter = new PipeliningLimiter(2, 8);
+    long now = 0;
+    for (int i = 0;i < 1000;i++) {
+      limiter.update(MS, 1, now += MS);
+    }
+    assertEquals(2, limiter.limit());
+  }
+
+  @Test
+  public void testDecreaseOnSlowCommands() {
+    PipeliningLimiter limiter = new PipeliningLimiter(1, 64);
+    long now = 0;
+    for (int i = 0;i < 5000;i++) {
+      limiter.update(MS, limiter.limit(), now += MS);
+    }
+    assertEquals(64, limiter.limit());
+    // A slow report delays the commands queued behind it
+    for (int i = 0;i < 20;i++) {
+      limiter.update(100 * MS, limiter.limit(), now += 100 * MS);
+    }
+    assertTrue(limiter.limit() < 16);
+    for (int i = 0;i < 200;i++) {
+      limiter.update(100 * MS, limiter.limit(), now += 100 * MS);
+    }
+    assertEquals(1, limiter.limit());
+  }
+
+  @Test
+  public void testDecreaseOncePerLatencyPeriod() {
+    PipeliningLimiter limiter = new PipeliningLimiter(1, 64);
+    long now = 0;
+    for (int i = 0;i < 5000;i++) {
+      limiter.update(MS, limiter.limit(), now += MS);
+    }
+    now += 100 * MS;
+    for (int i = 0;i < 10;i++) {
+      limiter.update(100 * MS, limiter.limit(), now);
+    }
+    assertEquals(57, limiter.limit());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new PipeliningLimiter(4, 2);
+  }
+}
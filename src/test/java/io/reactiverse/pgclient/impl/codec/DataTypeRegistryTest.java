@@ -0,0 +1,237 @@
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.PgCodec;
+import io.reactiverse.pgclient.Row;
+import io.reactiverse.pgclient.Tuple;
+import io.reactiverse.pgclient.impl.RowImpl;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DataTypeRegistryTest {
+
+  private static final RowDescription DESC = new RowDescription(new ColumnDesc[] {
+    new ColumnDesc("oid", 0, (short) 0, DataType.INT8, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("typtype", 0, (short) 0, DataType.TEXT, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("typbasetype", 0, (short) 0, DataType.INT8, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("typelem", 0, (short) 0, DataType.INT8, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("typcategory", 0, (short) 0, DataType.TEXT, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("typname", 0, (short) 0, DataType.TEXT, (short) 0, 0, DataFormat.TEXT)
+  });
+
+  private final List<Row> catalog = new ArrayList<>();
+
+  private void type(long oid, String typtype, long typbasetype, long typelem, String typcategory) {
+    type(oid, typtype, typbasetype, typelem, typcategory, "t" + oid);
+  }
+
+  private void type(long oid, String typtype, long typbasetype, long typelem, String typcategory, String typname) {
+    RowImpl row = new RowImpl(DESC);
+    row.addLong(oid).addString(typtype).addLong(typbasetype).addLong(typelem).addString(typcategory).addString(typname);
+    catalog.add(row);
+  }
+
+  @Test
+  public void testBuiltInTypes() {
+    DataTypeRegistry registry = new DataTypeRegistry();
+    assertEquals(DataType.INT4, registry.resultType(23));
+    assertEquals(DataType.TEXT_ARRAY, registry.paramType(1009));
+    assertNull(registry.takeMissing());
+  }
+
+  @Test
+  public void testIntrospectAfterFailure() {
+    DataTypeRegistry registry = new DataTypeRegistry();
+    assertTrue(registry.introspect());
+    assertFalse(registry.introspect());
+    registry.introspectionFailed();
+    assertTrue(registry.introspect());
+    assertFalse(registry.introspect());
+  }
+
+  @Test
+  public void testUnknownTypes() {
+    DataTypeRegistry registry = new DataTypeRegistry();
+    assertEquals(DataType.UNKNOWN, registry.resultType(16385));
+    assertEquals(DataType.UNKNOWN, registry.paramType(16385));
+    assertArrayEquals(new int[] { 16385 }, registry.takeMissing());
+    assertNull(registry.takeMissing());
+    registry.load(new int[] { 16385 }, catalog);
+    assertEquals(DataType.UNKNOWN, registry.resultType(16385));
+    assertNull(registry.takeMissing());
+  }
+
+  @Test
+  public void testLoad() {
+    type(16385, "e", 0, 0, "E");
+    type(16384, "b", 0, 16385, "A");
+    type(16390, "d", 23, 0, "N");
+    type(16391, "d", 16390, 0, "N");
+    type(16392, "b", 0, 16391, "A");
+    type(16393, "d", 16385, 0, "E");
+    type(16400, "c", 0, 0, "C");
+    type(16401, "b", 0, 16400, "A");
+    type(16410, "b", 0, 0, "U");
+    DataTypeRegistry registry = new DataTypeRegistry();
+    registry.load(null, catalog);
+    assertEquals(DataType.ENUM, registry.resultType(16385));
+    assertEquals(DataType.ENUM, registry.paramType(16385));
+    assertEquals(DataType.ENUM_ARRAY, registry.resultType(16384));
+    assertEquals(DataType.UNKNOWN, registry.paramType(16384));
+    assertEquals(DataType.INT4, registry.resultType(16390));
+    assertEquals(DataType.INT4, registry.paramType(16390));
+    assertEquals(DataType.INT4, registry.resultType(16391));
+    assertEquals(DataType.INT4, registry.paramType(16391));
+    assertEquals(DataType.INT4_ARRAY, registry.resultType(16392));
+    assertEquals(DataType.UNKNOWN, registry.paramType(16392));
+    assertEquals(DataType.ENUM, registry.resultType(16393));
+    assertEquals(DataType.ENUM, registry.paramType(16393));
+    assertEquals(DataType.RECORD, registry.resultType(16400));
+    assertEquals(DataType.UNKNOWN, registry.paramType(16400));
+    assertEquals(DataType.RECORD_ARRAY, registry.resultType(16401));
+    assertEquals(DataType.UNKNOWN, registry.resultType(16410));
+    assertNull(registry.takeMissing());
+  }
+
+  @Test
+  public void testQuery() {
+    DataTypeRegistry registry = new DataTypeRegistry(Collections.singletonList(new LabelCodec()));
+    assertTrue(registry.query(new int[] { 16385, -1 }).contains("t.oid IN (16385,4294967295)"));
+    assertTrue(registry.query(null).contains("t.typname IN ('label')"));
+  }
+
+  @Test
+  public void testLoadCustom() {
+    type(16500, "b", 0, 0, "U", "label");
+    type(16501, "b", 0, 16500, "A", "_label");
+    type(16502, "d", 16500, 0, "U");
+    DataTypeRegistry registry = new DataTypeRegistry(Collections.singletonList(new LabelCodec()));
+    registry.load(null, catalog);
+    assertEquals(DataType.CUSTOM, registry.resultType(16500));
+    assertEquals(DataType.CUSTOM, registry.paramType(16500));
+    assertTrue(registry.codec(16500) instanceof LabelCodec);
+    assertEquals(DataType.CUSTOM, registry.resultType(16501));
+    assertEquals(Label[].class, registry.codec(16501).type());
+    assertEquals(DataType.CUSTOM, registry.paramType(16502));
+    assertTrue(registry.codec(16502) instanceof LabelCodec);
+  }
+
+  @Test
+  public void testCustomArray() {
+    ArrayCodec<Label> codec = new ArrayCodec<>(16500, new LabelCodec());
+    ByteBuf buff = Unpooled.buffer();
+    codec.encodeBinary(new Label[] { new Label("a"), null, new Label("b") }, buff);
+    assertEquals(16500, buff.getInt(8));
+    Label[] decoded = codec.decodeBinary(buff.readableBytes(), buff);
+    assertEquals(3, decoded.length);
+    assertEquals("a", decoded[0].value);
+    assertNull(decoded[1]);
+    assertEquals("b", decoded[2].value);
+    buff = Unpooled.copiedBuffer("{a,NULL,\"b,c\"}", StandardCharsets.UTF_8);
+    decoded = codec.decodeText(buff.readableBytes(), buff);
+    assertEquals(3, decoded.length);
+    assertEquals("a", decoded[0].value);
+    assertNull(decoded[1]);
+    assertEquals("b,c", decoded[2].value);
+  }
+
+  @Test
+  public void testDecodeCustom() {
+    ColumnDesc column = new ColumnDesc("label", 0, (short) 0, DataType.CUSTOM, (short) 0, 0, DataFormat.BINARY, new LabelCodec());
+    ByteBuf buff = Unpooled.copiedBuffer("abcdef", StandardCharsets.UTF_8);
+    Label label = (Label) DataTypeCodec.decodeCustom(column, 4, buff);
+    assertEquals("ab", label.value);
+    assertEquals(4, buff.readerIndex());
+  }
+
+  @Test
+  public void testDecodeBinaryRecord() {
+    ByteBuf buff = Unpooled.buffer();
+    buff.writeInt(4);
+    buff.writeInt(DataType.INT4.id).writeInt(4).writeInt(12);
+    buff.writeInt(DataType.TEXT.id).writeInt(3).writeCharSequence("foo", StandardCharsets.UTF_8);
+    buff.writeInt(DataType.TEXT.id).writeInt(-1);
+    buff.writeInt(16385).writeInt(2).writeCharSequence("ok", StandardCharsets.UTF_8);
+    Tuple tuple = (Tuple) DataTypeCodec.decodeBinary(DataType.RECORD, buff.readableBytes(), buff);
+    assertEquals(4, tuple.size());
+    assertEquals(12, (int) tuple.getInteger(0));
+    assertEquals("foo", tuple.getString(1));
+    assertNull(tuple.getValue(2));
+    assertEquals(Buffer.buffer("ok"), tuple.getBuffer(3));
+    // The BYTEA value is read into a buffer allocated by the allocator of the row
+    tuple.getBuffer(3).getByteBuf().release();
+    buff.release();
+  }
+
+  @Test
+  public void testDecodeTextRecord() {
+    assertEquals(Arrays.asList("12", "foo bar", null, "", "a\"b\\c"), decodeText(DataType.RECORD, "(12,\"foo bar\",,\"\",\"a\"\"b\\\\c\")"));
+    assertEquals(Arrays.asList(null, null), decodeText(DataType.RECORD, "(,)"));
+  }
+
+  @Test
+  public void testDecodeEnum() {
+    String label = (String) decodeText(DataType.ENUM, new String(new char[] { 'o', 'k' }));
+    assertSame("ok", label);
+  }
+
+  @Test
+  public void testEncodeText() {
+    assertEquals("(\"12\",\"a\\\"b\",)", encodeText(Tuple.of(12, "a\"b", null)));
+    assertEquals("{\"ok\",NULL,\"a\\\\b\"}", encodeText(new String[] { "ok", null, "a\\b" }));
+  }
+
+  static class Label {
+    final String value;
+    Label(String value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Reads two bytes of a value at most.
+   */
+  static class LabelCodec implements PgCodec<Label> {
+    @Override
+    public String typeName() {
+      return "label";
+    }
+    @Override
+    public Class<Label> type() {
+      return Label.class;
+    }
+    @Override
+    public void encodeBinary(Label value, ByteBuf buff) {
+      buff.writeCharSequence(value.value, StandardCharsets.UTF_8);
+    }
+    @Override
+    public Label decodeBinary(int len, ByteBuf buff) {
+      return new Label(buff.readCharSequence(Math.min(len, 2), StandardCharsets.UTF_8).toString());
+    }
+    @Override
+    public Label decodeText(int len, ByteBuf buff) {
+      return new Label(buff.readCharSequence(len, StandardCharsets.UTF_8).toString());
+    }
+  }
+
+  private static Object decodeText(DataType type, String s) {
+    ByteBuf buff = Unpooled.copiedBuffer(s, StandardCharsets.UTF_8);
+    return DataTypeCodec.decodeText(type, buff.readableBytes(), buff);
+  }
+
+  private static String encodeText(Object value) {
+    ByteBuf buff = Unpooled.buffer();
+    DataTypeCodec.encodeText(DataType.UNKNOWN, value, buff);
+    return buff.toString(4, buff.readableBytes() - 4, StandardCharsets.UTF_8);
+  }
+}
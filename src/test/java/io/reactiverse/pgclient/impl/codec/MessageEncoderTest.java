@@ -0,0 +1,113 @@
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.reactiverse.pgclient.impl.codec.encoder.Bind;
+import io.reactiverse.pgclient.impl.codec.encoder.MessageEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.ParamEncoder;
+import io.reactiverse.pgclient.impl.codec.encoder.Query;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MessageEncoderTest {
+
+  @Test
+  public void testExactSize() {
+    EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    MessageEncoder encoder = new MessageEncoder(channel.pipeline().firstContext());
+    encoder.writeQuery(new Query("SELECT 1"));
+    encoder.flush();
+    ByteBuf written = channel.readOutbound();
+    assertEquals(14, written.readableBytes());
+    assertEquals(14, written.capacity());
+    written.release();
+    encoder.writeQuery(new Query("SELECT 1"));
+    encoder.writeSync();
+    assertEquals(19, encoder.size());
+    encoder.flush();
+    assertEquals(0, encoder.size());
+    written = channel.readOutbound();
+    assertEquals(19, written.readableBytes());
+    assertEquals('Q', written.getByte(0));
+    assertEquals('S', written.getByte(14));
+    written.release();
+    encoder.writeSync();
+    encoder.flush();
+    written = channel.readOutbound();
+    assertEquals(5, written.capacity());
+    written.release();
+    encoder.close();
+  }
+
+  @Test
+  public void testExecuteSync() {
+    EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    MessageEncoder encoder = new MessageEncoder(channel.pipeline().firstContext());
+    encoder.writeExecute(null, 0);
+    encoder.writeSync();
+    encoder.writeExecuteSync(null, 0);
+    encoder.writeExecuteSync("portal", 10);
+    encoder.writeExecute("portal", 10);
+    encoder.writeSync();
+    encoder.flush();
+    ByteBuf written = channel.readOutbound();
+    assertEquals(written.slice(0, 15), written.slice(15, 15));
+    assertEquals(written.slice(30, 21), written.slice(51, 21));
+    written.release();
+    encoder.close();
+  }
+
+  @Test
+  public void testBind() {
+    EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    MessageEncoder encoder = new MessageEncoder(channel.pipeline().firstContext());
+    ParamEncoder[] encoders = { ParamEncoder.of(DataType.INT4), ParamEncoder.of(DataType.UNKNOWN) };
+    ColumnDesc[] columns = { new ColumnDesc("col", 0, (short) 0, DataType.INT4, (short) 0, 0, DataFormat.BINARY) };
+    encoder.writeBind(new Bind(0x4142430000000000L, encoders, columns), null, Arrays.asList(5, "a"));
+    encoder.flush();
+    ByteBuf written = channel.readOutbound();
+    ByteBuf expected = Unpooled.buffer();
+    expected.writeByte('B').writeInt(38);
+    expected.writeByte(0).writeLong(0x4142430000000000L);
+    expected.writeShort(2).writeShort(1).writeShort(0);
+    expected.writeShort(2).writeInt(4).writeInt(5).writeInt(1).writeByte('a');
+    expected.writeShort(1).writeShort(1);
+    assertEquals(expected, written);
+    written.release();
+    encoder.close();
+  }
+
+  @Test
+  public void testReuse() {
+    EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    ChannelHandlerContext ctx = channel.pipeline().firstContext();
+    MessageEncoder encoder = new MessageEncoder(ctx, true);
+    encoder.writeSync();
+    encoder.flush();
+    assertEquals(0, encoder.size());
+    ByteBuf first = channel.readOutbound();
+    assertEquals(5, first.readableBytes());
+    // Written, the buffer is reused
+    first.release();
+    encoder.writeSync();
+    encoder.flush();
+    ByteBuf second = channel.readOutbound();
+    assertSame(first, second);
+    // Not yet written, a new buffer is allocated
+    encoder.writeSync();
+    encoder.flush();
+    ByteBuf third = channel.readOutbound();
+    assertNotSame(second, third);
+    assertEquals(1, second.refCnt());
+    second.release();
+    third.release();
+    encoder.close();
+    assertEquals(0, third.refCnt());
+  }
+}
@@ -0,0 +1,106 @@
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.data.Numeric;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumericBinaryCodecTest {
+
+  @Test
+  public void testEncode() {
+    // ndigits, weight, sign, dscale, digits...
+    assertEncoding(Numeric.create(0), 0, 0, 0x0000, 0);
+    assertEncoding(Numeric.create(1), 1, 0, 0x0000, 0, 1);
+    assertEncoding(Numeric.create(10000), 1, 1, 0x0000, 0, 1);
+    assertEncoding(Numeric.create(-123456789L), 3, 2, 0x4000, 0, 1, 2345, 6789);
+    assertEncoding(Numeric.create(new BigDecimal("123.45")), 2, 0, 0x0000, 2, 123, 4500);
+    assertEncoding(Numeric.create(new BigDecimal("0.0001")), 1, -1, 0x0000, 4, 1);
+    assertEncoding(Numeric.create(new BigDecimal("0.00000001")), 1, -2, 0x0000, 8, 1);
+    assertEncoding(Numeric.create(new BigDecimal("0.00")), 0, 0, 0x0000, 2);
+    assertEncoding(Numeric.create(new BigDecimal("1E+5")), 1, 1, 0x0000, 0, 10);
+    assertEncoding(Numeric.NaN, 0, 0, 0xC000, 0);
+  }
+
+  @Test
+  public void testDecode() {
+    assertDecoding(Numeric.create(0L), 0, 0, 0x0000, 0);
+    assertDecoding(Numeric.create(10000L), 1, 1, 0x0000, 0, 1);
+    assertDecoding(Numeric.create(-123456789L), 3, 2, 0x4000, 0, 1, 2345, 6789);
+    assertDecoding(Numeric.create(new BigDecimal("123.45")), 2, 0, 0x0000, 2, 123, 4500);
+    assertDecoding(Numeric.create(new BigDecimal("0.0001")), 1, -1, 0x0000, 4, 1);
+    assertDecoding(Numeric.create(new BigDecimal("0.00")), 0, 0, 0x0000, 2);
+    assertDecoding(Numeric.NaN, 0, 0, 0xC000, 0);
+  }
+
+  @Test
+  public void testDecodeIntegerAsLong() {
+    Numeric decoded = decode(encode(Numeric.create(new BigDecimal("9223372036854775807"))));
+    assertEquals("9223372036854775807", decoded.toString());
+    assertEquals(Long.MAX_VALUE, decoded.longValue());
+  }
+
+  @Test
+  public void testDecodeScaleIsPreserved() {
+    assertEquals("10.50", decode(encode(Numeric.create(new BigDecimal("10.50")))).toString());
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Random random = new Random();
+    for (int i = 0;i < 1000;i++) {
+      BigDecimal value = new BigDecimal(new BigInteger(1 + random.nextInt(200), random), random.nextInt(60));
+      if (random.nextBoolean()) {
+        value = value.negate();
+      }
+      Numeric decoded = decode(encode(Numeric.create(value)));
+      assertEquals(value, decoded.bigDecimalValue());
+    }
+    for (long value : new long[] { Long.MIN_VALUE, Long.MAX_VALUE, -1, 9999, 10001 }) {
+      assertEquals(BigDecimal.valueOf(value), decode(encode(Numeric.create(value))).bigDecimalValue());
+    }
+  }
+
+  @Test
+  public void testArrayRoundTrip() {
+    Numeric[] array = { Numeric.create(1), Numeric.NaN, Numeric.create(new BigDecimal("-12.345")) };
+    ByteBuf buff = Unpooled.buffer();
+    DataTypeCodec.encodeBinary(DataType.NUMERIC_ARRAY, array, buff);
+    Numeric[] decoded = (Numeric[]) DataTypeCodec.decodeBinary(DataType.NUMERIC_ARRAY, buff.readableBytes(), buff);
+    assertArrayEquals(array, decoded);
+  }
+
+  private static ByteBuf encode(Numeric value) {
+    ByteBuf buff = Unpooled.buffer();
+    DataTypeCodec.encodeBinary(DataType.NUMERIC, value, buff);
+    return buff;
+  }
+
+  private static Numeric decode(ByteBuf buff) {
+    return (Numeric) DataTypeCodec.decodeBinary(DataType.NUMERIC, buff.readableBytes(), buff);
+  }
+
+  private static ByteBuf encoding(int... shorts) {
+    ByteBuf buff = Unpooled.buffer();
+    for (int s : shorts) {
+      buff.writeShort(s);
+    }
+    return buff;
+  }
+
+  private static void assertEncoding(Numeric value, int... expected) {
+    assertEquals(encoding(expected), encode(value));
+  }
+
+  private static void assertDecoding(Numeric expected, int... encoding) {
+    Numeric decoded = decode(encoding(encoding));
+    assertEquals(expected, decoded);
+    assertEquals(expected.toString(), decoded.toString());
+  }
+}
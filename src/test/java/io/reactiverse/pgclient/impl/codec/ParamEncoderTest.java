@@ -0,0 +1,110 @@
+package io.reactiverse.pgclient.impl.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.Tuple;
+import io.reactiverse.pgclient.data.Json;
+import io.reactiverse.pgclient.impl.ArrayTuple;
+import io.reactiverse.pgclient.impl.codec.decoder.ColumnDecoder;
+import io.reactiverse.pgclient.impl.codec.encoder.ParamEncoder;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ParamEncoderTest {
+
+  private static final DataType[] TYPES = { DataType.BOOL, DataType.INT2, DataType.INT4, DataType.INT8, DataType.FLOAT8, DataType.TEXT, DataType.DATE };
+
+  @Test
+  public void testRoundTripBoxed() {
+    ArrayTuple values = new ArrayTuple(Arrays.asList(true, (short) 2, 3, 4L, 5.5D, "six", LocalDate.of(2017, 7, 7)));
+    assertEquals(values, roundTrip(values));
+  }
+
+  @Test
+  public void testRoundTripSlots() {
+    ArrayTuple values = (ArrayTuple) Tuple.tuple()
+      .addBooleanValue(true)
+      .addShortValue((short) 2)
+      .addIntValue(3)
+      .addLongValue(4L)
+      .addDoubleValue(5.5D)
+      .addString("six")
+      .addLocalDate(LocalDate.of(2017, 7, 7));
+    ArrayTuple decoded = roundTrip(values);
+    assertEquals(3, decoded.getIntValue(2));
+    assertEquals(4L, decoded.getLongValue(3));
+    assertEquals(values, decoded);
+  }
+
+  @Test
+  public void testRoundTripNulls() {
+    ArrayTuple values = new ArrayTuple(Arrays.asList(new Object[TYPES.length]));
+    ArrayTuple decoded = roundTrip(values);
+    for (int i = 0;i < TYPES.length;i++) {
+      assertTrue(decoded.isNull(i));
+    }
+  }
+
+  @Test
+  public void testPrepareConvertsJson() {
+    ArrayTuple values = new ArrayTuple(Arrays.asList("abc", 4, Json.create("def")));
+    ParamEncoder encoder = ParamEncoder.of(DataType.JSON);
+    for (int i = 0;i < values.size();i++) {
+      assertTrue(encoder.prepare(values, i));
+    }
+    assertEquals(Arrays.asList(Json.create("abc"), Json.create(4), Json.create("def")), values);
+  }
+
+  @Test
+  public void testPrepareRefusesValues() {
+    assertFalse(prepare(new ArrayTuple(Arrays.asList(true, 2, 3, 4L, 5.5D, 6, LocalDate.of(2017, 7, 7)))));
+    assertFalse(prepare(new ArrayTuple(Arrays.asList("true", 2, 3, 4L, 5.5D, "six", LocalDate.of(2017, 7, 7)))));
+  }
+
+  @Test
+  public void testUnknownIsText() {
+    ParamEncoder encoder = ParamEncoder.of(DataType.UNKNOWN);
+    assertEquals(0, encoder.format());
+    ByteBuf buff = Unpooled.buffer();
+    encoder.encode(Arrays.asList("abc"), 0, buff);
+    assertEquals(3, buff.readInt());
+    assertEquals("abc", buff.toString(buff.readerIndex(), 3, StandardCharsets.UTF_8));
+  }
+
+  private static boolean prepare(ArrayTuple values) {
+    ParamEncoder[] encoders = ParamEncoder.of(TYPES, null);
+    for (int i = 0;i < encoders.length;i++) {
+      if (!encoders[i].prepare(values, i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ArrayTuple roundTrip(ArrayTuple values) {
+    ParamEncoder[] encoders = ParamEncoder.of(TYPES, null);
+    ByteBuf buff = Unpooled.buffer();
+    for (int i = 0;i < encoders.length;i++) {
+      assertEquals(1, encoders[i].format());
+      assertTrue(encoders[i].prepare(values, i));
+      encoders[i].encode(values, i, buff);
+    }
+    ArrayTuple decoded = new ArrayTuple(TYPES.length);
+    for (DataType type : TYPES) {
+      ColumnDecoder decoder = ColumnDecoder.of(new ColumnDesc("col", 0, (short) 0, type, (short) 0, 0, DataFormat.BINARY));
+      int len = buff.readInt();
+      if (len == -1) {
+        decoded.add(null);
+      } else {
+        decoder.add(decoded, len, buff);
+      }
+    }
+    assertEquals(0, buff.readableBytes());
+    return decoded;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactiverse.pgclient.Row;
+import io.reactiverse.pgclient.impl.DataRowDecoder;
+import io.reactiverse.pgclient.impl.RowImpl;
+import io.reactiverse.pgclient.impl.codec.ColumnDesc;
+import io.reactiverse.pgclient.impl.codec.DataFormat;
+import io.reactiverse.pgclient.impl.codec.DataType;
+import io.reactiverse.pgclient.impl.codec.decoder.RowDescription;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collector;
+
+import static org.junit.Assert.*;
+
+public class RowMapperTest {
+
+  private static final RowDescription DESC = new RowDescription(new ColumnDesc[] {
+    new ColumnDesc("id", 0, (short) 0, DataType.INT4, (short) 0, 0, DataFormat.BINARY),
+    new ColumnDesc("random_number", 0, (short) 0, DataType.INT4, (short) 0, 0, DataFormat.BINARY),
+    new ColumnDesc("message", 0, (short) 0, DataType.VARCHAR, (short) 0, 0, DataFormat.TEXT),
+    new ColumnDesc("rate", 0, (short) 0, DataType.FLOAT8, (short) 0, 0, DataFormat.BINARY),
+    new ColumnDesc("unmapped", 0, (short) 0, DataType.INT8, (short) 0, 0, DataFormat.BINARY)
+  });
+
+  @Test
+  public void testDecodeDataRow() {
+    Collector<Row, Object, List<World>> collector = (Collector) WorldRowMapper.INSTANCE.collector();
+    Object container = collector.supplier().get();
+    assertTrue(container instanceof DataRowDecoder);
+    DataRowDecoder decoder = (DataRowDecoder) container;
+    decoder.init(DESC);
+    for (int i = 0;i < 3;i++) {
+      ByteBuf buff = Unpooled.buffer();
+      buff.writeInt(4).writeInt(i);
+      buff.writeInt(4).writeInt(i * 100);
+      byte[] message = ("message-" + i).getBytes(StandardCharsets.UTF_8);
+      buff.writeInt(message.length).writeBytes(message);
+      if (i == 1) {
+        buff.writeInt(-1);
+      } else {
+        buff.writeInt(8).writeDouble(i + 0.5);
+      }
+      buff.writeInt(8).writeLong(-1L);
+      decoder.decodeRow(5, buff);
+      assertFalse(buff.isReadable());
+    }
+    List<World> worlds = collector.finisher().apply(container);
+    assertEquals(3, worlds.size());
+    for (int i = 0;i < 3;i++) {
+      World world = worlds.get(i);
+      assertEquals(i, world.id);
+      assertEquals(i * 100L, world.getRandomNumber());
+      assertEquals("message-" + i, world.getMessage());
+      if (i == 1) {
+        assertNull(world.rate);
+      } else {
+        assertEquals(i + 0.5, world.rate, 0.0D);
+      }
+    }
+  }
+
+  @Test
+  public void testMapRow() {
+    RowImpl row = new RowImpl(DESC);
+    row.addInteger(4).addInteger(400).addString("hello").addDouble(null).addLong(7L);
+    World world = WorldRowMapper.INSTANCE.map(row);
+    assertEquals(4, world.id);
+    assertEquals(400L, world.getRandomNumber());
+    assertEquals("hello", world.getMessage());
+    assertNull(world.rate);
+  }
+
+  @Test
+  public void testSetters() {
+    RowImpl row = new RowImpl(new RowDescription(new ColumnDesc[] {
+      new ColumnDesc("label", 0, (short) 0, DataType.VARCHAR, (short) 0, 0, DataFormat.TEXT),
+      new ColumnDesc("tle", 0, (short) 0, DataType.INT4, (short) 0, 0, DataFormat.BINARY)
+    }));
+    row.addString("the-label").addInteger(5);
+    World world = WorldRowMapper.INSTANCE.map(row);
+    // Fluent setter
+    assertEquals("the-label", world.getLabel());
+    // settle(int) is not the setter of a tle property
+    assertEquals(0, world.getSettled());
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 Julien Viet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.reactiverse.pgclient.mapper;
+
+@RowMapped
+public class World {
+
+  public int id;
+  private long randomNumber;
+  private String message;
+  public Double rate;
+  private String label;
+  private int settled;
+
+  public long getRandomNumber() {
+    return randomNumber;
+  }
+
+  public void setRandomNumber(long randomNumber) {
+    this.randomNumber = randomNumber;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public World setLabel(String label) {
+    this.label = label;
+    return this;
+  }
+
+  public int getSettled() {
+    return settled;
+  }
+
+  // Not a setter
+  public void settle(int settled) {
+    this.settled = settled;
+  }
+}
@@ -17,9 +17,19 @@
 
 package io.reactiverse.pgclient.pool;
 
+import io.reactiverse.pgclient.impl.Commands;
+import io.reactiverse.pgclient.impl.Connection;
 import io.reactiverse.pgclient.impl.ConnectionPool;
+import io.vertx.core.Handler;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.*;
 
 public class ConnectionPoolTest {
@@ -198,4 +208,424 @@ public class ConnectionPoolTest {
     holder1.close();
     assertEquals(pool.available(), 0);
   }
+
+  @Test
+  public void testReleaseDrainingConnection() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn = new SimpleConnection();
+    queue.connect(conn);
+    holder1.init();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    // A command timed out, its response is not yet received
+    conn.draining = true;
+    holder1.close();
+    assertFalse(holder2.isConnected());
+    assertEquals(0, pool.available());
+    assertFalse(pool.schedule(null));
+    conn.drain();
+    assertTrue(holder2.isConnected());
+  }
+
+  @Test
+  public void testSharedPermits() {
+    Semaphore permits = new Semaphore(1);
+    ConnectionQueue queue1 = new ConnectionQueue();
+    ConnectionPool pool1 = new ConnectionPool(queue1, 1, permits);
+    ConnectionQueue queue2 = new ConnectionQueue();
+    ConnectionPool pool2 = new ConnectionPool(queue2, 1, permits);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool1.acquire(holder1);
+    assertEquals(1, queue1.size());
+    SimpleHolder holder2 = new SimpleHolder();
+    pool2.acquire(holder2);
+    // The budget is exhausted by the first pool
+    assertEquals(0, queue2.size());
+    SimpleConnection conn1 = new SimpleConnection();
+    queue1.connect(conn1);
+    holder1.init();
+    conn1.close();
+    assertEquals(1, permits.availablePermits());
+    assertEquals(0, pool1.size());
+    // A later acquisition can use the released permit
+    SimpleHolder holder3 = new SimpleHolder();
+    pool2.acquire(holder3);
+    assertEquals(1, queue2.size());
+  }
+
+  @Test
+  public void testCapacityHandler() {
+    Semaphore permits = new Semaphore(2);
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 2, permits);
+    AtomicInteger signals = new AtomicInteger();
+    pool.capacityHandler(v -> signals.incrementAndGet());
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn1 = new SimpleConnection();
+    queue.connect(conn1);
+    holder1.init();
+    assertEquals(0, signals.get());
+    // The released connection is idle
+    holder1.close();
+    assertEquals(1, signals.get());
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    // The closed connection gives its permit back
+    conn1.close();
+    assertEquals(2, signals.get());
+    assertEquals(2, permits.availablePermits() + pool.size());
+  }
+
+  @Test
+  public void testPollWaiter() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    assertEquals(2, pool.waiters());
+    assertSame(holder1, pool.poll());
+    assertEquals(1, pool.waiters());
+    queue.connect(new SimpleConnection());
+    assertTrue(holder2.isConnected());
+    assertFalse(holder1.isComplete());
+  }
+
+  @Test
+  public void testConnectFailureReleasesPermit() {
+    Semaphore permits = new Semaphore(1);
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1, permits);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    assertEquals(0, permits.availablePermits());
+    queue.fail(new Exception());
+    assertTrue(holder1.isFailed());
+    assertEquals(0, pool.size());
+    assertEquals(1, permits.availablePermits());
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testMaxWaitQueueSize() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1, 1);
+    // Served by the connection being created
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    assertFalse(holder1.isComplete());
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    assertFalse(holder2.isComplete());
+    SimpleHolder holder3 = new SimpleHolder();
+    pool.acquire(holder3);
+    assertTrue(holder3.isFailed());
+    SimpleConnection conn = new SimpleConnection();
+    queue.connect(conn);
+    assertTrue(holder1.isConnected());
+    assertFalse(holder2.isComplete());
+    holder1.init();
+    holder1.close();
+    assertTrue(holder2.isConnected());
+  }
+
+  @Test
+  public void testMinIdle() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 4, -1, null, 2, 0, 0, 0);
+    pool.fill();
+    assertEquals(2, queue.size());
+    assertEquals(2, pool.size());
+    queue.connect(new SimpleConnection());
+    queue.connect(new SimpleConnection());
+    assertEquals(2, pool.available());
+    SimpleHolder holder = new SimpleHolder();
+    pool.acquire(holder);
+    assertTrue(holder.isConnected());
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testMaxIdleTime() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 4, -1, null, 1, 1000, 0, 0);
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1);
+    pool.acquire(holder2);
+    SimpleConnection conn1 = new SimpleConnection();
+    SimpleConnection conn2 = new SimpleConnection();
+    queue.connect(conn1);
+    queue.connect(conn2);
+    holder1.init();
+    holder2.init();
+    holder1.close();
+    holder2.close();
+    pool.evict(System.nanoTime());
+    assertEquals(0, conn1.closed + conn2.closed);
+    pool.evict(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+    // The min idle connection is kept open
+    assertEquals(1, conn1.closed + conn2.closed);
+    assertEquals(1, pool.available());
+  }
+
+  @Test
+  public void testMaxLifetime() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 1000, 0);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn1 = new SimpleConnection();
+    queue.connect(conn1);
+    holder1.init();
+    holder1.close();
+    pool.evict(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(800));
+    assertEquals(0, conn1.closed);
+    pool.evict(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000));
+    assertEquals(1, conn1.closed);
+    assertEquals(0, pool.available());
+    conn1.close();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testValidationSuccess() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 0, 1000);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn1 = new SimpleConnection();
+    queue.connect(conn1);
+    holder1.init();
+    holder1.close();
+    pool.evict(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000));
+    // Out of the pool until the query completes
+    assertEquals(1, conn1.scheduled.size());
+    assertEquals(0, pool.available());
+    Commands.succeed(conn1.scheduled.get(0), null);
+    assertEquals(0, conn1.closed);
+    assertEquals(1, pool.available());
+  }
+
+  @Test
+  public void testValidationFailure() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 0, 1000);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn1 = new SimpleConnection();
+    queue.connect(conn1);
+    holder1.init();
+    holder1.close();
+    pool.evict(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000));
+    assertEquals(1, conn1.scheduled.size());
+    Commands.fail(conn1.scheduled.get(0), new Exception());
+    assertEquals(1, conn1.closed);
+    assertEquals(0, pool.available());
+    conn1.close();
+    assertEquals(0, pool.size());
+    // The query of a connection closed meanwhile fails without closing it again
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    SimpleConnection conn2 = new SimpleConnection();
+    queue.connect(conn2);
+    holder2.init();
+    holder2.close();
+    pool.evict(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000));
+    conn2.close();
+    Commands.fail(conn2.scheduled.get(0), new Exception());
+    assertEquals(0, conn2.closed);
+  }
+
+  @Test
+  public void testConnectFailureFailsWaiters() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1);
+    pool.acquire(holder2);
+    assertEquals(1, queue.size());
+    queue.fail(new Exception());
+    assertTrue(holder1.isFailed());
+    assertTrue(holder2.isFailed());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testConnectFailureRetries() {
+    ConnectionQueue queue = new ConnectionQueue();
+    List<Long> delays = new ArrayList<>();
+    List<Handler<Void>> timers = new ArrayList<>();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 0, 0, 100, 2, (delay, handler) -> {
+      delays.add(delay);
+      timers.add(handler);
+    });
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1);
+    pool.acquire(holder2);
+    queue.fail(new Exception());
+    assertFalse(holder1.isComplete());
+    assertFalse(holder2.isComplete());
+    // Nothing is attempted before the delay
+    assertEquals(0, queue.size());
+    SimpleHolder holder3 = new SimpleHolder();
+    pool.acquire(holder3);
+    assertEquals(0, queue.size());
+    timers.remove(0).handle(null);
+    assertEquals(1, queue.size());
+    queue.fail(new Exception());
+    assertEquals(Arrays.asList(100L, 200L), delays);
+    timers.remove(0).handle(null);
+    // A success resets the failures
+    SimpleConnection conn = new SimpleConnection();
+    queue.connect(conn);
+    assertTrue(holder1.isConnected());
+    holder1.init();
+    conn.close();
+    queue.fail(new Exception());
+    assertEquals(Arrays.asList(100L, 200L, 100L), delays);
+  }
+
+  @Test
+  public void testConnectFailureExhaustsRetries() {
+    ConnectionQueue queue = new ConnectionQueue();
+    List<Handler<Void>> timers = new ArrayList<>();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 0, 0, 100, 1, (delay, handler) -> timers.add(handler));
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1);
+    pool.acquire(holder2);
+    queue.fail(new Exception());
+    timers.remove(0).handle(null);
+    queue.fail(new Exception());
+    assertTrue(holder1.isFailed());
+    assertTrue(holder2.isFailed());
+    assertEquals(0, timers.size());
+    // The next acquisition starts over
+    SimpleHolder holder3 = new SimpleHolder();
+    pool.acquire(holder3);
+    queue.fail(new Exception());
+    assertFalse(holder3.isComplete());
+    assertEquals(1, timers.size());
+  }
+
+  @Test
+  public void testConnectFailureFailsExpiredWaiters() {
+    ConnectionQueue queue = new ConnectionQueue();
+    List<Handler<Void>> timers = new ArrayList<>();
+    ConnectionPool pool = new ConnectionPool(queue, 1, -1, null, 0, 0, 0, 0, 100, 3, (delay, handler) -> timers.add(handler));
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1, System.nanoTime() - 1);
+    pool.acquire(holder2, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+    queue.fail(new Exception());
+    assertTrue(holder1.isFailed());
+    assertFalse(holder2.isComplete());
+    assertEquals(1, timers.size());
+  }
+
+  @Test
+  public void testCancel() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder1);
+    pool.acquire(holder2);
+    assertTrue(pool.cancel(holder2));
+    queue.connect(new SimpleConnection());
+    assertTrue(holder1.isConnected());
+    assertFalse(pool.cancel(holder1));
+    holder1.init();
+    holder1.close();
+    assertFalse(holder2.isComplete());
+    assertEquals(1, pool.available());
+  }
+
+  @Test
+  public void testScheduleOnLeastLoaded() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 2);
+    assertFalse(pool.schedule(null));
+    SimpleHolder holder = new SimpleHolder();
+    pool.acquire(holder);
+    SimpleConnection conn1 = new SimpleConnection();
+    queue.connect(conn1);
+    queue.fail(new Exception());
+    holder.init();
+    holder.close();
+    assertTrue(pool.schedule(null));
+    assertEquals(1, conn1.scheduled.size());
+    assertEquals(1, pool.available());
+    assertEquals(0, queue.size());
+    // The connection reached its pipelining limit
+    assertTrue(pool.schedule(null));
+    assertEquals(2, conn1.scheduled.size());
+    assertEquals(1, queue.size());
+    SimpleConnection conn2 = new SimpleConnection();
+    queue.connect(conn2);
+    assertEquals(2, pool.available());
+    assertTrue(pool.schedule(null));
+    assertEquals(1, conn2.scheduled.size());
+  }
+
+  @Test
+  public void testScheduleOnSelectedConnection() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn = new SimpleConnection();
+    queue.connect(conn);
+    holder1.init();
+    holder1.close();
+    Connection selected = pool.select();
+    assertNotNull(selected);
+    ConnectionPool.schedule(Commands.command(ar -> {}), selected);
+    assertEquals(1, conn.scheduled.size());
+    // The connection is acquired before the next command of the operation is scheduled
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    holder2.init();
+    ConnectionPool.schedule(Commands.command(ar -> {}), selected);
+    assertEquals(1, conn.scheduled.size());
+    holder2.close();
+    assertEquals(2, conn.scheduled.size());
+  }
+
+  @Test
+  public void testScheduleOnSelectedConnectionClosed() {
+    ConnectionQueue queue = new ConnectionQueue();
+    ConnectionPool pool = new ConnectionPool(queue, 1);
+    SimpleHolder holder1 = new SimpleHolder();
+    pool.acquire(holder1);
+    SimpleConnection conn = new SimpleConnection();
+    queue.connect(conn);
+    holder1.init();
+    holder1.close();
+    Connection selected = pool.select();
+    SimpleHolder holder2 = new SimpleHolder();
+    pool.acquire(holder2);
+    holder2.init();
+    AtomicInteger failures = new AtomicInteger();
+    ConnectionPool.schedule(Commands.command(ar -> {
+      if (ar.failed()) {
+        failures.incrementAndGet();
+      }
+    }), selected);
+    conn.close();
+    assertEquals(0, conn.scheduled.size());
+    assertEquals(1, failures.get());
+  }
 }
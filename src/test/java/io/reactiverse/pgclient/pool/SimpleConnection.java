@@ -19,11 +19,20 @@ package io.reactiverse.pgclient.pool;
 
 import io.reactiverse.pgclient.impl.CommandBase;
 import io.reactiverse.pgclient.impl.Connection;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+
+import java.util.ArrayList;
+import java.util.List;
 
 class SimpleConnection implements Connection {
 
   Holder holder;
   int closed;
+  int load;
+  boolean draining;
+  Handler<Void> drainedHandler;
+  final List<CommandBase<?>> scheduled = new ArrayList<>();
 
   @Override
   public void init(Holder holder) {
@@ -35,6 +44,55 @@ class SimpleConnection implements Connection {
     return false;
   }
 
+  @Override
+  public int pipeliningLimit() {
+    return 1;
+  }
+
+  @Override
+  public int load() {
+    return load;
+  }
+
+  @Override
+  public long preparedStatementCacheHits() {
+    return 0;
+  }
+
+  @Override
+  public long preparedStatementCacheMisses() {
+    return 0;
+  }
+
+  @Override
+  public long preparedStatementCacheEvictions() {
+    return 0;
+  }
+
+  @Override
+  public void cancelRequest(Handler<AsyncResult<Void>> handler) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isDraining() {
+    return draining;
+  }
+
+  @Override
+  public void drained(Handler<Void> handler) {
+    if (draining) {
+      drainedHandler = handler;
+    } else {
+      handler.handle(null);
+    }
+  }
+
+  void drain() {
+    draining = false;
+    drainedHandler.handle(null);
+  }
+
   @Override
   public void close(Holder holder) {
     closed++;
@@ -46,6 +104,7 @@ class SimpleConnection implements Connection {
 
   @Override
   public void schedule(CommandBase<?> cmd) {
-    throw new UnsupportedOperationException();
+    scheduled.add(cmd);
+    load++;
   }
 }